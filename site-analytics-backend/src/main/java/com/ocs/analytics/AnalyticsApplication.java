@@ -1,7 +1,9 @@
 package com.ocs.analytics;
 
 import com.ocs.analytics.application.HttpServerVerticle;
+import com.ocs.analytics.application.ImportOptions;
 import com.ocs.analytics.application.ImportProcessVerticle;
+import com.ocs.analytics.domain.ColumnMemory;
 import com.ocs.analytics.domain.SiteStatisticsService;
 import io.reactivex.Completable;
 import io.vertx.config.ConfigRetrieverOptions;
@@ -43,7 +45,14 @@ public class AnalyticsApplication extends AbstractVerticle {
                     // Register services within our application.
                     new ServiceBinder(vertx.getDelegate())
                             .setAddress(SiteStatisticsService.EVENT_BUS_ADDRESS)
-                            .register(SiteStatisticsService.class, SiteStatisticsService.create(vertx.getDelegate()));
+                            .register(SiteStatisticsService.class, SiteStatisticsService.create(vertx.getDelegate(),
+                                    configuration.getJsonObject("enrichment", new JsonObject())));
+
+                    ImportOptions importOptions = new ImportOptions(configuration.getJsonObject("import", new JsonObject()));
+
+                    // The statistics of large (multi-year) datasets are kept off-heap within this budget.
+                    ColumnMemory.configure(configuration.getJsonObject("storage", new JsonObject())
+                            .getLong("off_heap_budget_mb", 0L) * 1024 * 1024);
 
                     return Completable
                             .fromAction(() -> LOGGER.debug("Deploying Analytics Application backend."))
@@ -51,7 +60,10 @@ public class AnalyticsApplication extends AbstractVerticle {
                                     .rxDeployVerticle(HttpServerVerticle.class.getName(), new DeploymentOptions().setConfig(configuration)))
                             .toCompletable()
                             .andThen(this.vertx
-                                    .rxDeployVerticle(ImportProcessVerticle.class.getName(), new DeploymentOptions()))
+                                    .rxDeployVerticle(ImportProcessVerticle.class.getName(), new DeploymentOptions()
+                                            .setConfig(configuration)
+                                            .setInstances(importOptions.getInstances())
+                                            .setWorker(importOptions.isWorker())))
                             .toCompletable();
                 })
                 .subscribe(() -> {
@@ -0,0 +1,122 @@
+package com.ocs.analytics.application;
+
+import com.ocs.analytics.domain.SiteStatistic;
+import com.ocs.analytics.domain.SiteStatisticDecoder;
+import io.netty.buffer.Unpooled;
+import io.vertx.core.Handler;
+import io.vertx.core.buffer.Buffer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads an uploaded site-statistics file in chunks so that the chunks can be parsed concurrently. The file is split
+ * into byte ranges that start at the beginning of a line so that every line belongs to exactly one chunk. Reading the
+ * chunks in the order of the boundaries and adding their statistics in that order gives the same result as reading
+ * the file from start to end.
+ * <p>
+ * All methods do blocking IO and must be called from a worker thread.
+ *
+ * @author Bas Piepers
+ */
+public class ChunkedFileReader {
+    // Limits the amount of bytes that is held in memory per chunk.
+    private static final long MAX_CHUNK_SIZE = 32 * 1024 * 1024;
+    private static final int SCAN_SIZE = 4096;
+
+    private final String fileName;
+
+    public ChunkedFileReader(String fileName) {
+        this.fileName = fileName;
+    }
+
+    /**
+     * Determines the boundaries of the chunks of the file. Splits the file in at least the given amount of chunks
+     * of roughly the same size (or more if the chunks would become too large) and moves every boundary to the start
+     * of the next line.
+     *
+     * @param chunks, the desired amount of chunks.
+     * @return the ascending boundaries, starting with 0 and ending with the size of the file. Chunk i is the range
+     * from boundary i (inclusive) to boundary i + 1 (exclusive).
+     * @throws IOException in case the file can't be read.
+     */
+    public List<Long> split(int chunks) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(this.fileName), StandardOpenOption.READ)) {
+            long size = channel.size();
+            long amount = Math.max(chunks, (size + MAX_CHUNK_SIZE - 1) / MAX_CHUNK_SIZE);
+            List<Long> boundaries = new ArrayList<>();
+            boundaries.add(0L);
+            for (long i = 1; i < amount; i++) {
+                long boundary = this.nextLineStart(channel, size * i / amount, size);
+                if (boundary > boundaries.get(boundaries.size() - 1) && boundary < size) {
+                    boundaries.add(boundary);
+                }
+            }
+            boundaries.add(size);
+            return boundaries;
+        }
+    }
+
+    /**
+     * Reads and decodes one chunk of the file.
+     *
+     * @param from, the first byte of the chunk which must be the start of a line.
+     * @param to,   the end of the chunk (exclusive) which must be the start of a line or the end of the file.
+     * @return the statistics of the chunk in the order in which they appear in the file.
+     * @throws IOException in case the file can't be read.
+     */
+    public List<SiteStatistic> read(long from, long to) throws IOException {
+        List<SiteStatistic> statistics = new ArrayList<>();
+        this.read(from, to, decoder -> statistics.add(SiteStatistic.from(decoder)));
+        return statistics;
+    }
+
+    /**
+     * Reads and decodes one chunk of the file and passes the decoder to the handler for every line that is a
+     * site-statistics record, in the order of the file.
+     *
+     * @param from,    the first byte of the chunk which must be the start of a line.
+     * @param to,      the end of the chunk (exclusive) which must be the start of a line or the end of the file.
+     * @param handler, the handler that reads the values of each record from the decoder.
+     * @throws IOException in case the file can't be read.
+     */
+    public void read(long from, long to, Handler<SiteStatisticDecoder> handler) throws IOException {
+        ByteBuffer bytes = ByteBuffer.allocate((int) (to - from));
+        try (FileChannel channel = FileChannel.open(Paths.get(this.fileName), StandardOpenOption.READ)) {
+            while (bytes.hasRemaining()) {
+                if (channel.read(bytes, from + bytes.position()) < 0) {
+                    break;
+                }
+            }
+        }
+        bytes.flip();
+
+        Buffer buffer = Buffer.buffer(Unpooled.wrappedBuffer(bytes));
+        new SiteStatisticDecoder().decodeLines(buffer, 0, buffer.length(), handler);
+    }
+
+    // The position after the first newline at or after position - 1, which is the first line start at or after the position.
+    private long nextLineStart(FileChannel channel, long position, long size) throws IOException {
+        ByteBuffer scan = ByteBuffer.allocate(SCAN_SIZE);
+        long pos = Math.max(0L, position - 1);
+        while (pos < size) {
+            scan.clear();
+            int read = channel.read(scan, pos);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (scan.get(i) == '\n') {
+                    return pos + i + 1;
+                }
+            }
+            pos += read;
+        }
+        return size;
+    }
+}
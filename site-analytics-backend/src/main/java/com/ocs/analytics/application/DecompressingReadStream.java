@@ -0,0 +1,413 @@
+package com.ocs.analytics.application;
+
+import io.vertx.core.Handler;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.streams.ReadStream;
+
+import java.io.IOException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * A stream that decompresses the bytes of another stream while they are read. Whether the bytes are compressed is
+ * detected from the first bytes of the stream: gzip files and the entries of zip files are decompressed, all other
+ * streams are passed on as they are. The bytes are inflated per buffer that is received so the decompressed contents
+ * are never in memory completely, and nothing is emitted while the stream is paused.
+ * <p>
+ * All members of a gzip file are read one after another, like gzip does for files that were concatenated or compressed
+ * in parallel. All entries of a zip file are read one after another too, separated by a line break so that the last
+ * line of an entry is not joined with the first line of the next entry. Anything else after the compressed contents
+ * fails the stream instead of being ignored.
+ *
+ * @author Bas Piepers
+ */
+public class DecompressingReadStream implements ReadStream<Buffer> {
+    /**
+     * The amount of first bytes of a file that tell whether it is compressed.
+     */
+    static final int SIGNATURE_SIZE = 4;
+    private static final int OUTPUT_SIZE = 64 * 1024;
+    private static final int GZIP_HEADER_SIZE = 10;
+    private static final int GZIP_TRAILER_SIZE = 8;
+    private static final int ZIP_HEADER_SIZE = 30;
+    private static final int ZIP_SIGNATURE = 0x04034b50;
+    private static final int ZIP_DESCRIPTOR_SIGNATURE = 0x08074b50;
+    private static final int ZIP_DESCRIPTOR_SIZE = 12;
+    private static final int DEFLATED = 8;
+    private static final int STORED = 0;
+    private static final Buffer ENTRY_SEPARATOR = Buffer.buffer("\n");
+
+    private enum State {
+        DETECTING, PLAIN, INFLATING, STORED, DESCRIPTOR, TRAILER, CENTRAL_DIRECTORY, DONE
+    }
+
+    private enum Format {
+        PLAIN, GZIP, ZIP
+    }
+
+    private final ReadStream<Buffer> stream;
+    private final byte[] output = new byte[OUTPUT_SIZE];
+    private Handler<Buffer> handler;
+    private Handler<Void> endHandler;
+    private Handler<Throwable> exceptionHandler;
+    private State state = State.DETECTING;
+    private Format format;
+    // The bytes that were received but not processed yet, because they were incomplete or the stream was paused.
+    private Buffer input = Buffer.buffer();
+    private Inflater inflater;
+    // The bytes that were passed to the inflater, of which the inflater may not have used the last ones.
+    private byte[] inflating;
+    private long remaining;
+    private boolean descriptor;
+    private boolean paused;
+    private boolean ended;
+    private boolean processing;
+
+    public DecompressingReadStream(ReadStream<Buffer> stream) {
+        this.stream = stream;
+    }
+
+    /**
+     * @param bytes, the first {@link #SIGNATURE_SIZE} bytes of a file (or all of them if the file is shorter).
+     * @return true if the file is compressed in a format that is decompressed by this stream.
+     */
+    static boolean isCompressed(Buffer bytes) {
+        return isPrefix(bytes, 0x1f, 0x8b) || isPrefix(bytes, 'P', 'K', 3, 4);
+    }
+
+    @Override
+    public DecompressingReadStream exceptionHandler(Handler<Throwable> handler) {
+        this.exceptionHandler = handler;
+        this.stream.exceptionHandler(handler);
+        return this;
+    }
+
+    @Override
+    public DecompressingReadStream handler(Handler<Buffer> handler) {
+        this.handler = handler;
+        this.stream.handler(handler == null ? null : this::handle);
+        if (handler == null) {
+            // Nothing is read anymore.
+            this.release();
+        }
+        return this;
+    }
+
+    @Override
+    public DecompressingReadStream pause() {
+        this.paused = true;
+        this.stream.pause();
+        return this;
+    }
+
+    @Override
+    public DecompressingReadStream resume() {
+        this.paused = false;
+        // Emit what was received before the stream was paused before more is read.
+        this.process();
+        if (!this.paused) {
+            this.stream.resume();
+        }
+        return this;
+    }
+
+    @Override
+    public DecompressingReadStream endHandler(Handler<Void> endHandler) {
+        this.endHandler = endHandler;
+        this.stream.endHandler(endHandler == null ? null : end -> {
+            this.ended = true;
+            this.process();
+        });
+        return this;
+    }
+
+    private void handle(Buffer buffer) {
+        if (this.state != State.DONE) {
+            this.input.appendBuffer(buffer);
+            this.process();
+        }
+    }
+
+    /**
+     * Processes the received bytes until more bytes are needed or the stream is paused, and ends the stream when
+     * everything was processed.
+     */
+    private void process() {
+        // Emitting may pause and resume the stream, in which case the processing simply continues.
+        if (this.processing) {
+            return;
+        }
+        this.processing = true;
+        try {
+            while (!this.paused && this.step()) {
+                // Continue with the next step.
+            }
+            if (this.ended && !this.paused && this.state != State.DONE) {
+                this.end();
+            }
+        } catch (IOException | DataFormatException e) {
+            this.fail(e);
+        } finally {
+            this.processing = false;
+        }
+    }
+
+    /**
+     * @return true if the step processed bytes, false if more bytes are needed.
+     */
+    private boolean step() throws IOException, DataFormatException {
+        switch (this.state) {
+            case DETECTING:
+                int headerLength = this.detect(this.input);
+                if (headerLength >= 0) {
+                    this.input = this.input.getBuffer(headerLength, this.input.length());
+                }
+                return headerLength >= 0;
+            case PLAIN:
+                return this.emit(this.take(this.input.length()));
+            case INFLATING:
+                return this.inflate();
+            case STORED:
+                int length = (int) Math.min(this.remaining, this.input.length());
+                this.remaining -= length;
+                if (this.remaining == 0) {
+                    this.endOfEntry();
+                }
+                return this.emit(this.take(length)) || this.remaining == 0;
+            case DESCRIPTOR:
+                if (this.input.length() < 4) {
+                    return false;
+                }
+                // The signature of the data descriptor is optional.
+                this.remaining = this.input.getIntLE(0) == ZIP_DESCRIPTOR_SIGNATURE
+                        ? ZIP_DESCRIPTOR_SIZE + 4
+                        : ZIP_DESCRIPTOR_SIZE;
+                this.state = State.TRAILER;
+                return true;
+            case TRAILER:
+                if (this.input.length() < this.remaining) {
+                    return false;
+                }
+                this.take((int) this.remaining);
+                this.state = State.DETECTING;
+                return true;
+            case CENTRAL_DIRECTORY:
+                // The central directory only describes the entries that were read already.
+                this.input = Buffer.buffer();
+                return false;
+            default:
+                return false;
+        }
+    }
+
+    private void end() {
+        if (this.state == State.DETECTING && this.format == null) {
+            // The stream is too short to be compressed.
+            this.state = State.PLAIN;
+            this.emit(this.take(this.input.length()));
+        }
+        boolean complete = this.state == State.PLAIN
+                || this.state == State.CENTRAL_DIRECTORY
+                || this.state == State.DETECTING && this.input.length() == 0;
+        if (!complete) {
+            this.fail(new IOException("The compressed contents end unexpectedly."));
+            return;
+        }
+        this.state = State.DONE;
+        this.release();
+        if (this.endHandler != null) {
+            this.endHandler.handle(null);
+        }
+    }
+
+    private boolean inflate() throws DataFormatException {
+        if (this.inflater.needsInput()) {
+            if (this.input.length() == 0) {
+                return false;
+            }
+            this.inflating = this.take(this.input.length()).getBytes();
+            this.inflater.setInput(this.inflating);
+        }
+        int length = this.inflater.inflate(this.output);
+        if (this.inflater.finished()) {
+            // Whatever the inflater didn't use follows the compressed contents.
+            int unused = this.inflater.getRemaining();
+            this.input = Buffer.buffer()
+                    .appendBytes(this.inflating, this.inflating.length - unused, unused)
+                    .appendBuffer(this.input);
+            this.release();
+            this.endOfEntry();
+        } else if (this.inflater.needsDictionary()) {
+            throw new DataFormatException("Compressed contents that need a preset dictionary are not supported.");
+        }
+        this.emit(Buffer.buffer(length).appendBytes(this.output, 0, length));
+        return length > 0 || this.state != State.INFLATING || !this.inflater.needsInput() || this.input.length() > 0;
+    }
+
+    // Skips what follows the contents of a member or an entry, after which the next member or entry is detected.
+    private void endOfEntry() {
+        if (this.format == Format.GZIP) {
+            this.remaining = GZIP_TRAILER_SIZE;
+            this.state = State.TRAILER;
+        } else if (this.descriptor) {
+            this.state = State.DESCRIPTOR;
+        } else {
+            this.state = State.DETECTING;
+        }
+    }
+
+    /**
+     * Determines the format of the stream from its first bytes and prepares the stream for that format. After the first
+     * member or entry, the bytes must be the next member or entry of the same format.
+     *
+     * @return the length of the header that precedes the contents or -1 when more bytes are needed.
+     */
+    private int detect(Buffer bytes) throws IOException {
+        if (bytes.length() == 0) {
+            return -1;
+        }
+        if (this.format != Format.ZIP && isPrefix(bytes, 0x1f, 0x8b)) {
+            return this.gzipHeader(bytes);
+        }
+        if (this.format != Format.GZIP && isPrefix(bytes, 'P', 'K', 3, 4)) {
+            return this.zipHeader(bytes);
+        }
+        boolean centralDirectory = isPrefix(bytes, 'P', 'K', 1, 2) || isPrefix(bytes, 'P', 'K', 5, 6);
+        if (this.format == Format.ZIP && centralDirectory) {
+            this.state = State.CENTRAL_DIRECTORY;
+            return 0;
+        }
+        if (this.format != null) {
+            throw new IOException("The compressed contents are followed by bytes that are not compressed.");
+        }
+        this.format = Format.PLAIN;
+        this.state = State.PLAIN;
+        return 0;
+    }
+
+    private int gzipHeader(Buffer bytes) throws IOException {
+        if (bytes.length() < GZIP_HEADER_SIZE) {
+            return -1;
+        }
+        if (bytes.getUnsignedByte(2) != DEFLATED) {
+            throw new IOException("The gzip compression method " + bytes.getUnsignedByte(2) + " is not supported.");
+        }
+        int flags = bytes.getUnsignedByte(3);
+        int position = GZIP_HEADER_SIZE;
+        // Extra field.
+        if ((flags & 4) != 0) {
+            if (bytes.length() < position + 2) {
+                return -1;
+            }
+            position += 2 + bytes.getUnsignedShortLE(position);
+        }
+        // File name and comment, both terminated by a zero byte.
+        for (int flag : new int[]{8, 16}) {
+            if ((flags & flag) != 0) {
+                position = this.indexOfZero(bytes, position) + 1;
+                if (position == 0) {
+                    return -1;
+                }
+            }
+        }
+        // Header checksum.
+        if ((flags & 2) != 0) {
+            position += 2;
+        }
+        if (bytes.length() < position) {
+            return -1;
+        }
+        this.format = Format.GZIP;
+        this.inflater = new Inflater(true);
+        this.state = State.INFLATING;
+        return position;
+    }
+
+    private int zipHeader(Buffer bytes) throws IOException {
+        if (bytes.length() < ZIP_HEADER_SIZE) {
+            return -1;
+        }
+        if (bytes.getIntLE(0) != ZIP_SIGNATURE) {
+            throw new IOException("The zip file does not start with an entry.");
+        }
+        int flags = bytes.getUnsignedShortLE(6);
+        int method = bytes.getUnsignedShortLE(8);
+        int position = ZIP_HEADER_SIZE + bytes.getUnsignedShortLE(26) + bytes.getUnsignedShortLE(28);
+        if (bytes.length() < position) {
+            return -1;
+        }
+        if ((flags & 1) != 0) {
+            throw new IOException("Encrypted zip files are not supported.");
+        }
+        if (method == DEFLATED) {
+            this.inflater = new Inflater(true);
+            this.state = State.INFLATING;
+        } else if (method == STORED && (flags & 8) == 0) {
+            this.remaining = bytes.getUnsignedIntLE(18);
+            this.state = State.STORED;
+        } else {
+            throw new IOException("The zip compression method " + method + " is not supported.");
+        }
+        if (this.format == Format.ZIP) {
+            this.emit(ENTRY_SEPARATOR.copy());
+        }
+        this.format = Format.ZIP;
+        this.descriptor = (flags & 8) != 0;
+        return position;
+    }
+
+    private static boolean isPrefix(Buffer bytes, int... signature) {
+        for (int i = 0; i < signature.length && i < bytes.length(); i++) {
+            if (bytes.getUnsignedByte(i) != signature[i]) {
+                return false;
+            }
+        }
+        // Too few bytes to tell yet only counts as a match as long as the stream may continue.
+        return bytes.length() > 0;
+    }
+
+    private int indexOfZero(Buffer bytes, int from) {
+        for (int i = from; i < bytes.length(); i++) {
+            if (bytes.getByte(i) == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Takes the given amount of bytes from the start of the input.
+    private Buffer take(int length) {
+        Buffer taken = this.input.getBuffer(0, length);
+        this.input = this.input.getBuffer(length, this.input.length());
+        return taken;
+    }
+
+    /**
+     * @return true if anything was emitted.
+     */
+    private boolean emit(Buffer buffer) {
+        if (buffer.length() == 0) {
+            return false;
+        }
+        if (this.handler != null) {
+            this.handler.handle(buffer);
+        }
+        return true;
+    }
+
+    private void fail(Throwable throwable) {
+        this.state = State.DONE;
+        this.input = Buffer.buffer();
+        this.release();
+        if (this.exceptionHandler != null) {
+            this.exceptionHandler.handle(throwable);
+        }
+    }
+
+    private void release() {
+        if (this.inflater != null) {
+            this.inflater.end();
+            this.inflater = null;
+        }
+    }
+}
@@ -1,20 +1,27 @@
 package com.ocs.analytics.application;
 
 import com.ocs.analytics.domain.FileUpload;
+import com.ocs.analytics.domain.Rollup;
 import com.ocs.analytics.domain.SiteStatistics;
 import io.reactivex.Observable;
 import io.reactivex.Single;
 import io.vertx.core.Context;
 import io.vertx.core.Future;
 import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.eventbus.ReplyException;
+import io.vertx.core.http.HttpMethod;
 import io.vertx.core.http.HttpServerOptions;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
+import io.vertx.core.shareddata.LocalMap;
 import io.vertx.ext.bridge.PermittedOptions;
 import io.vertx.ext.stomp.BridgeOptions;
 import io.vertx.ext.stomp.StompServerOptions;
 import io.vertx.reactivex.core.AbstractVerticle;
 import io.vertx.reactivex.core.buffer.Buffer;
+import io.vertx.reactivex.core.eventbus.Message;
+import io.vertx.reactivex.core.http.HttpServerRequest;
 import io.vertx.reactivex.ext.stomp.StompServer;
 import io.vertx.reactivex.ext.stomp.StompServerHandler;
 import io.vertx.reactivex.ext.web.Router;
@@ -30,17 +37,25 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
 
 public class HttpServerVerticle extends AbstractVerticle {
     private static final Logger LOGGER = LoggerFactory.getLogger(HttpServerVerticle.class);
     private static final Integer ONE_MINUTE = 1000 * 60;
     private static final Integer THREE_MINUTES = 1000 * 180;
-    private static final String UPDATE_STOMP_DESTINATION = "weather-data-enriched";
+    private static final long ONE_HOUR = 1000L * 60 * 60;
+    // Large files take longer than the default timeout of the event bus to import.
+    private static final long IMPORT_TIMEOUT = ONE_HOUR;
+    private static final String TOO_MANY_IMPORTS = "Too many imports are being processed, try again later.";
+    static final String UPDATE_STOMP_DESTINATION = "weather-data-enriched";
     private final FreeMarkerTemplateEngine templateEngine = FreeMarkerTemplateEngine.create();
     private LocalSessionStore sessionStore;
     private Map<String, SiteStatisticsDto> localStatisticsStore;
     private int port;
     private io.vertx.reactivex.core.Vertx rxVertx;
+    private ImportOptions importOptions;
+    private ImportJobs importJobs;
 
     @Override
     public void init(Vertx vertx, Context context) {
@@ -54,10 +69,13 @@ public class HttpServerVerticle extends AbstractVerticle {
         this.rxVertx = new io.vertx.reactivex.core.Vertx(vertx);
         sessionStore = LocalSessionStore.create(rxVertx);
         localStatisticsStore = new HashMap<>();
+        this.importOptions = new ImportOptions(context.config().getJsonObject("import", new JsonObject()));
     }
 
     @Override
     public void start(Future<Void> future) {
+        this.importJobs = new ImportJobs(vertx.getDelegate());
+
         StompServerOptions stompServerOptions = new StompServerOptions()
                 .setPort(-1)
                 .setWebsocketBridge(true)
@@ -73,7 +91,16 @@ public class HttpServerVerticle extends AbstractVerticle {
         Router router = Router.router(vertx);
 
         // Enable multipart form data parsing
-        router.route().handler(BodyHandler.create().setUploadsDirectory(".vertx/file-uploads"));
+        BodyHandler bodyHandler = BodyHandler.create().setUploadsDirectory(".vertx/file-uploads");
+        router.route().handler(routingContext -> {
+            if (this.importOptions.isStreamUploads() && this.isImport(routingContext)) {
+                // The upload is parsed by the import handler, so don't store it but hold it until we get there.
+                routingContext.request().pause();
+                routingContext.next();
+            } else {
+                bodyHandler.handle(routingContext);
+            }
+        });
         SessionHandler sessionHandler = SessionHandler.create(sessionStore);
 
         StaticHandler staticHandler = StaticHandler.create().setCachingEnabled(false);
@@ -84,7 +111,11 @@ public class HttpServerVerticle extends AbstractVerticle {
         router.route("/").handler(this::indexHandler);
         router.route().handler(staticHandler);
 
-        router.post("/import").handler(this::importHandler);
+        if (this.importOptions.isStreamUploads()) {
+            router.post("/import").handler(this::streamingImportHandler);
+        } else {
+            router.post("/import").handler(this::importHandler);
+        }
 
         Router subRouter = Router.router(vertx);
         subRouter.get("/statistics/current").handler(this::getLatestSiteStatistics);
@@ -92,6 +123,11 @@ public class HttpServerVerticle extends AbstractVerticle {
         subRouter.get("/statistics/next").handler(this::next);
         subRouter.get("/statistics/previous").handler(this::previous);
         subRouter.get("/statistics/last").handler(this::last);
+        subRouter.get("/statistics/rollups").handler(this::rollups);
+        subRouter.get("/imports").handler(this::getImports);
+        subRouter.get("/imports/queue").handler(this::importQueue);
+        subRouter.get("/imports/:id").handler(this::getImport);
+        subRouter.delete("/imports/:id").handler(this::cancelImport);
 
         router.mountSubRouter("/api", subRouter);
 
@@ -131,9 +167,16 @@ public class HttpServerVerticle extends AbstractVerticle {
                                         // Session did not exist.
                                         () -> this.localStatisticsStore.remove(key)));
             }
+            // Forget the imports that finished a while ago.
+            this.importJobs.removeFinishedBefore(System.currentTimeMillis() - ONE_HOUR);
         });
     }
 
+    @Override
+    public void stop() {
+        this.importJobs.close();
+    }
+
     private void previous(RoutingContext routingContext) {
         SiteStatisticsDto statisticsDto = this.getPrepareRoutingContext(routingContext);
         if (Objects.isNull(statisticsDto)) {
@@ -191,6 +234,30 @@ public class HttpServerVerticle extends AbstractVerticle {
         }
     }
 
+    /**
+     * Responds with the daily, weekly and monthly rollups of the statistics or, with a "period" parameter (day, week or
+     * month), with the rollup of one period.
+     */
+    private void rollups(RoutingContext routingContext) {
+        SiteStatisticsDto statisticsDto = this.getPrepareRoutingContext(routingContext);
+        String period = routingContext.request().getParam("period");
+        if (Objects.isNull(statisticsDto)) {
+            routingContext
+                    .response()
+                    .end(new JsonObject().encode());
+        } else if (Objects.isNull(period)) {
+            routingContext
+                    .response()
+                    .end(statisticsDto.getRollups().toJson().encode());
+        } else if (Arrays.stream(Rollup.Period.values()).noneMatch(p -> p.name().equalsIgnoreCase(period))) {
+            routingContext.response().setStatusCode(400).end();
+        } else {
+            routingContext
+                    .response()
+                    .end(statisticsDto.getRollups().get(Rollup.Period.valueOf(period.toUpperCase())).toJson().encode());
+        }
+    }
+
     private SiteStatisticsDto getPrepareRoutingContext(RoutingContext context) {
         String sessionId = context.session().id();
         SiteStatisticsDto statisticsDto = this.localStatisticsStore.get(sessionId);
@@ -223,41 +290,233 @@ public class HttpServerVerticle extends AbstractVerticle {
         }
     }
 
+    private void importQueue(RoutingContext routingContext) {
+        // The amount of imports that each import instance is processing.
+        LocalMap<String, Integer> queueDepths = this.vertx
+                .getDelegate()
+                .sharedData()
+                .getLocalMap(ImportProcessVerticle.QUEUE_DEPTH_MAP);
+        JsonObject instances = new JsonObject();
+        queueDepths.forEach(instances::put);
+
+        routingContext
+                .response()
+                .putHeader("Content-Type", "application/json")
+                .end(new JsonObject()
+                        .put("depth", queueDepths.values().stream().mapToInt(Integer::intValue).sum())
+                        .put("instances", instances)
+                        .encode());
+    }
+
+    private void getImports(RoutingContext routingContext) {
+        routingContext
+                .response()
+                .putHeader("Content-Type", "application/json")
+                .end(new JsonArray(this.importJobs.all()).encode());
+    }
+
+    private void getImport(RoutingContext routingContext) {
+        Optional<ImportJob> job = this.importJobs.get(routingContext.pathParam("id"));
+        if (job.isPresent()) {
+            routingContext
+                    .response()
+                    .putHeader("Content-Type", "application/json")
+                    .end(job.get().toJson().encode());
+        } else {
+            routingContext.response().setStatusCode(404).end();
+        }
+    }
+
+    private void cancelImport(RoutingContext routingContext) {
+        String id = routingContext.pathParam("id");
+        Optional<ImportJob> job = this.importJobs.get(id);
+        if (!job.isPresent()) {
+            routingContext.response().setStatusCode(404).end();
+        } else if (!this.importJobs.cancel(id)) {
+            // The import already finished.
+            routingContext
+                    .response()
+                    .setStatusCode(409)
+                    .putHeader("Content-Type", "application/json")
+                    .end(job.get().toJson().encode());
+        } else {
+            routingContext.response().setStatusCode(202).end();
+        }
+    }
+
     private void importHandler(RoutingContext routingContext) {
+        Set<io.vertx.reactivex.ext.web.FileUpload> fileUploads = routingContext.fileUploads();
+        if (this.importJobs.active() + fileUploads.size() > this.maxActiveImports()) {
+            fileUploads.forEach(fileUpload -> this.vertx
+                    .fileSystem()
+                    .rxDelete(fileUpload.uploadedFileName())
+                    .subscribe(() -> LOGGER.debug("Deleted rejected upload {}.", fileUpload.fileName()),
+                            throwable -> LOGGER.error("Unable to delete rejected upload.", throwable)));
+            routingContext.response().setStatusCode(503).end(TOO_MANY_IMPORTS);
+            return;
+        }
+
         // Offload the processing of the file to another Verticle so that we can respond immediately.
         Observable
-                .fromIterable(routingContext.fileUploads())
+                .fromIterable(fileUploads)
                 .flatMapSingle(fileUpload -> {
                     LOGGER.debug("Processing file: {}, {}, {}", fileUpload.fileName(), fileUpload.name(), fileUpload.uploadedFileName());
+                    ImportJob job = this.importJobs.create(fileUpload.fileName(), fileUpload.size());
                     // Put the contents of what we upload into a wrapper.
                     FileUpload wrapper = FileUpload.from(fileUpload);
                     // To be able to send this on the event-bus, map it to a JsonObject.
-                    JsonObject jsonObject = JsonObject.mapFrom(wrapper);
+                    JsonObject jsonObject = JsonObject.mapFrom(wrapper).put("jobId", job.getId());
                     // Send the message and let the handler wait for the reply.
-                    vertx
-                            .eventBus()
-                            .<JsonObject>rxSend("file-upload", jsonObject)
+                    this.showImport(routingContext, job, sendImport(this.rxVertx, jsonObject, this.importOptions.getInstances())
                             .doOnSuccess(message -> LOGGER.debug("An import has been processed with {} items.", message.body().getJsonArray("statistics", new JsonArray()).size()))
-                            .flatMap(message -> Single.just(new SiteStatistics(message.body())))
-                            .map(siteStatistics -> SiteStatisticsDto.fromOrderedStatistics((TreeSet) siteStatistics.getStatistics()))
-                            .doOnSuccess(dto -> ((SiteStatisticsDto)dto).first())
-                            .doOnSuccess(dto -> routingContext.session().put("importing", false))
-                            .doOnSuccess(dto -> this.localStatisticsStore.put(routingContext.session().id(), (SiteStatisticsDto) dto))
-                            .subscribe(dto -> vertx
-                                            .eventBus()
-                                            .publish(UPDATE_STOMP_DESTINATION, ((SiteStatisticsDto)dto).getPageAsJson().encode()),
-                                    throwable -> LOGGER.error("Something went wrong while importing the file.", throwable));
-                    // Just return with a message that we are not really going to use (could have used a completable too).
-                    return Single.just(new JsonObject().put("message", "ok"));
+                            .flatMap(message -> Single.just(new SiteStatistics(message.body()))));
+                    return Single.just(job);
                 })
                 .toList()
-                .doOnSuccess(jsonObjects -> routingContext.session().put("importing", true))
-                .flatMap(jsonObjects -> this.renderIndex(routingContext))
                 // But return immediately (don't wait for the file(-s) to be processed).
-                .subscribe(result -> routingContext.response().putHeader("Content-Type", "text/html").end(result),
+                .subscribe(jobs -> this.respondToImport(routingContext, jobs),
                         throwable -> routingContext.fail(throwable));
+    }
+
+    /**
+     * Streams the uploaded files to the import verticles while they are being received, so that nothing is written to
+     * disk and parsing overlaps with the transfer. The import verticles pull the chunks of an upload (see
+     * {@link UploadSource}), so an upload goes through the same admission and aggregation as an uploaded file and is
+     * received as fast as it is parsed. The statistics are enriched once a file has been received completely.
+     */
+    private void streamingImportHandler(RoutingContext routingContext) {
+        if (this.importJobs.active() >= this.maxActiveImports()) {
+            routingContext.response().setStatusCode(503).end(TOO_MANY_IMPORTS);
+            return;
+        }
+
+        HttpServerRequest request = routingContext.request();
+        List<ImportJob> jobs = new ArrayList<>();
+        List<UploadSource> sources = new ArrayList<>();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        request.setExpectMultipart(true);
+        request.uploadHandler(upload -> {
+            LOGGER.debug("Processing file: {}, {}", upload.filename(), upload.name());
+            ImportJob job = this.importJobs.create(upload.filename(), null);
+            jobs.add(job);
+            UploadSource source = new UploadSource(vertx.getDelegate(), upload.getDelegate(), "file-upload-stream." + job.getId());
+            sources.add(source);
+            JsonObject jsonObject = new JsonObject()
+                    .put("fileName", upload.filename())
+                    .put("contentType", upload.contentType())
+                    .put("jobId", job.getId())
+                    .put("stream", source.address());
+            this.showImport(routingContext, job, sendImport(this.rxVertx, jsonObject, this.importOptions.getInstances())
+                    .doOnError(throwable -> failure.compareAndSet(null, throwable))
+                    // Discard the rest of the upload if the import stopped before it was received completely.
+                    .doFinally(source::close)
+                    .doOnSuccess(message -> LOGGER.debug("An upload has been processed with {} items.", message.body().getJsonArray("statistics", new JsonArray()).size()))
+                    .map(message -> new SiteStatistics(message.body())));
+        });
+        request.exceptionHandler(throwable -> {
+            LOGGER.error("Something went wrong while receiving the upload.", throwable);
+            sources.forEach(source -> source.fail(throwable));
+            if (!routingContext.response().ended()) {
+                routingContext.response().setStatusCode(400).end("The upload failed: " + throwable.getMessage());
+            }
+        });
+        // Return as soon as the upload was received (don't wait for the file(-s) to be enriched).
+        request.endHandler(end -> {
+            if (routingContext.response().ended()) {
+                return;
+            }
+            if (Objects.nonNull(failure.get())) {
+                this.respondToFailedImport(routingContext, failure.get());
+            } else {
+                this.respondToImport(routingContext, jobs);
+            }
+        });
+        request.resume();
+    }
+
+    /**
+     * Sends an import to the import verticles. The event bus delivers the imports to the instances in turn, so an
+     * import that is rejected because the queue of an instance is full is sent again until every instance had a chance
+     * to accept it. Only the last instance marks the import as rejected.
+     *
+     * @param instances, the amount of import verticles that are deployed.
+     */
+    static Single<Message<JsonObject>> sendImport(io.vertx.reactivex.core.Vertx vertx, JsonObject jsonObject,
+                                                  int instances) {
+        JsonObject attempt = jsonObject.copy().put(ImportProcessVerticle.LAST_ATTEMPT, instances <= 1);
+        return vertx
+                .eventBus()
+                .<JsonObject>rxSend("file-upload", attempt, new DeliveryOptions().setSendTimeout(IMPORT_TIMEOUT))
+                .onErrorResumeNext(throwable -> instances > 1 && isRejected(throwable)
+                        ? sendImport(vertx, jsonObject, instances - 1)
+                        : Single.error(throwable));
+    }
+
+    private static boolean isRejected(Throwable throwable) {
+        return throwable instanceof ReplyException && ((ReplyException) throwable).failureCode() == 3;
+    }
+
+    // An import that was rejected by all import verticles can be retried later, other failures can't.
+    private void respondToFailedImport(RoutingContext routingContext, Throwable throwable) {
+        if (isRejected(throwable)) {
+            routingContext.response().setStatusCode(503).end(TOO_MANY_IMPORTS);
+        } else {
+            routingContext.response().setStatusCode(500).end("The import failed: " + throwable.getMessage());
+        }
+    }
 
+    /**
+     * Shows the statistics of an import when it is done. An import that failed before an import verticle could finish
+     * its job (because no import verticle received it or the reply timed out) would stay queued and count as active
+     * forever, so its job is failed.
+     */
+    private void showImport(RoutingContext routingContext, ImportJob job, Single<SiteStatistics> importedStatistics) {
+        importedStatistics
+                .map(siteStatistics -> SiteStatisticsDto.from(siteStatistics))
+                .doOnSuccess(dto -> ((SiteStatisticsDto)dto).first())
+                .doOnSuccess(dto -> routingContext.session().put("importing", false))
+                .doOnSuccess(dto -> this.localStatisticsStore.put(routingContext.session().id(), (SiteStatisticsDto) dto))
+                .subscribe(dto -> vertx
+                                .eventBus()
+                                .publish(UPDATE_STOMP_DESTINATION, ((SiteStatisticsDto)dto).getPageAsJson().encode()),
+                        throwable -> {
+                            LOGGER.error("Something went wrong while importing the file.", throwable);
+                            this.importJobs
+                                    .get(job.getId())
+                                    .filter(current -> !current.getState().isFinished())
+                                    .ifPresent(current -> {
+                                        current.fail(throwable.getMessage());
+                                        this.importJobs.publish(current);
+                                    });
+                        });
+    }
+
+    /**
+     * Responds with the jobs of the imports to clients that accept json and with the index page to others.
+     */
+    private void respondToImport(RoutingContext routingContext, List<ImportJob> jobs) {
+        routingContext.session().put("importing", true);
+        String accept = Optional.ofNullable(routingContext.request().getHeader("Accept")).orElse("");
+        if (accept.contains("application/json")) {
+            routingContext
+                    .response()
+                    .setStatusCode(202)
+                    .putHeader("Content-Type", "application/json")
+                    .end(new JsonArray(jobs.stream().map(ImportJob::toJson).collect(Collectors.toList())).encode());
+        } else {
+            this.renderIndex(routingContext)
+                    .subscribe(result -> routingContext.response().putHeader("Content-Type", "text/html").end(result),
+                            throwable -> routingContext.fail(throwable));
+        }
+    }
+
+    // Every import instance accepts a limited amount of imports.
+    private long maxActiveImports() {
+        return (long) this.importOptions.getInstances() * this.importOptions.getQueueSize();
+    }
 
+    private boolean isImport(RoutingContext routingContext) {
+        return routingContext.request().method() == HttpMethod.POST && "/import".equals(routingContext.normalisedPath());
     }
 
     private void indexHandler(RoutingContext routingContext) {
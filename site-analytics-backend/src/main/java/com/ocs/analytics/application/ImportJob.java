@@ -0,0 +1,138 @@
+package com.ocs.analytics.application;
+
+import io.vertx.core.json.JsonObject;
+
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The state and progress of the import of one uploaded file. The progress is counted while the file is being read,
+ * possibly from several threads, and is published as a json snapshot (see {@link ImportJobs}).
+ *
+ * @author Bas Piepers
+ */
+public class ImportJob {
+    public enum State {
+        QUEUED, RUNNING, COMPLETED, FAILED, CANCELLED, REJECTED;
+
+        public boolean isFinished() {
+            return this != QUEUED && this != RUNNING;
+        }
+    }
+
+    private final String id;
+    private final String fileName;
+    private final Long size;
+    private final long createdAt;
+    private final AtomicLong rowsParsed = new AtomicLong();
+    private final AtomicLong bytesRead = new AtomicLong();
+    private volatile State state;
+    private volatile Long startedAt;
+    private volatile Long finishedAt;
+    private volatile String error;
+
+    public ImportJob(String fileName, Long size) {
+        this.id = UUID.randomUUID().toString();
+        this.fileName = fileName;
+        this.size = size;
+        this.createdAt = System.currentTimeMillis();
+        this.state = State.QUEUED;
+    }
+
+    public ImportJob(JsonObject jsonObject) {
+        this.id = jsonObject.getString("id");
+        this.fileName = jsonObject.getString("fileName");
+        this.size = jsonObject.getLong("size");
+        this.createdAt = jsonObject.getLong("createdAt");
+        this.state = State.valueOf(jsonObject.getString("state"));
+        this.startedAt = jsonObject.getLong("startedAt");
+        this.finishedAt = jsonObject.getLong("finishedAt");
+        this.error = jsonObject.getString("error");
+        this.rowsParsed.set(jsonObject.getLong("rowsParsed", 0L));
+        this.bytesRead.set(jsonObject.getLong("bytesRead", 0L));
+    }
+
+    public void start() {
+        this.startedAt = System.currentTimeMillis();
+        this.state = State.RUNNING;
+    }
+
+    public void complete() {
+        this.finish(State.COMPLETED, null);
+    }
+
+    public void fail(String error) {
+        this.finish(State.FAILED, error);
+    }
+
+    public void cancel() {
+        this.finish(State.CANCELLED, null);
+    }
+
+    public void reject(String error) {
+        this.finish(State.REJECTED, error);
+    }
+
+    public void addRows(long rows) {
+        this.rowsParsed.addAndGet(rows);
+    }
+
+    public void addBytes(long bytes) {
+        this.bytesRead.addAndGet(bytes);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public long getRowsParsed() {
+        return rowsParsed.get();
+    }
+
+    public long getBytesRead() {
+        return bytesRead.get();
+    }
+
+    public JsonObject toJson() {
+        JsonObject jsonObject = new JsonObject()
+                .put("id", this.id)
+                .put("fileName", this.fileName)
+                .put("size", this.size)
+                .put("state", this.state.name())
+                .put("createdAt", this.createdAt)
+                .put("startedAt", this.startedAt)
+                .put("finishedAt", this.finishedAt)
+                .put("rowsParsed", this.rowsParsed.get())
+                .put("bytesRead", this.bytesRead.get())
+                .put("error", this.error);
+        if (Objects.nonNull(this.startedAt)) {
+            long duration = Math.max(1L, Objects.nonNull(this.finishedAt) ? this.finishedAt - this.startedAt : System.currentTimeMillis() - this.startedAt);
+            jsonObject.put("rowsPerSecond", this.rowsParsed.get() * 1000 / duration);
+        }
+        return jsonObject;
+    }
+
+    private void finish(State state, String error) {
+        if (!this.state.isFinished()) {
+            this.state = state;
+            this.error = error;
+            this.finishedAt = System.currentTimeMillis();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ImportJob{" +
+                "id='" + id + '\'' +
+                ", fileName='" + fileName + '\'' +
+                ", state=" + state +
+                ", rowsParsed=" + rowsParsed +
+                ", bytesRead=" + bytesRead +
+                '}';
+    }
+}
@@ -0,0 +1,160 @@
+package com.ocs.analytics.application;
+
+import io.reactivex.disposables.Disposable;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.MessageConsumer;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.shareddata.LocalMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * The import jobs of the application. A snapshot of every job is kept in a shared map so that each verticle can see
+ * the jobs, while the progress of the jobs that run in a verticle is published by the instance of this class of that
+ * verticle. Jobs are cancelled by publishing their id on the event bus, the verticle that runs the job disposes it.
+ *
+ * @author Bas Piepers
+ */
+public class ImportJobs {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ImportJobs.class);
+    private static final String JOBS_MAP = "import-jobs";
+    private static final String CANCEL_ADDRESS = "import-cancel";
+    private static final long PUBLISH_INTERVAL = 1000L;
+
+    private final Vertx vertx;
+    private final LocalMap<String, JsonObject> jobs;
+    private final Map<String, Running> running = new ConcurrentHashMap<>();
+    private final MessageConsumer<String> cancelConsumer;
+    private final long timer;
+
+    public ImportJobs(Vertx vertx) {
+        this.vertx = vertx;
+        this.jobs = vertx.sharedData().getLocalMap(JOBS_MAP);
+        this.cancelConsumer = vertx.eventBus().consumer(CANCEL_ADDRESS, message -> this.cancelLocally(message.body()));
+        this.timer = vertx.setPeriodic(PUBLISH_INTERVAL, id -> this.running.values().forEach(r -> this.publish(r.job)));
+    }
+
+    /**
+     * Creates a queued job for an uploaded file.
+     */
+    public ImportJob create(String fileName, Long size) {
+        ImportJob job = new ImportJob(fileName, size);
+        this.publish(job);
+        return job;
+    }
+
+    /**
+     * @return the last published snapshot of the job.
+     */
+    public Optional<ImportJob> get(String id) {
+        return Optional.ofNullable(id).map(this.jobs::get).map(ImportJob::new);
+    }
+
+    public List<JsonObject> all() {
+        return this.jobs
+                .values()
+                .stream()
+                .sorted((first, second) -> first.getLong("createdAt").compareTo(second.getLong("createdAt")))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * @return the amount of jobs that are queued or running.
+     */
+    public long active() {
+        return this.jobs
+                .values()
+                .stream()
+                .filter(job -> !ImportJob.State.valueOf(job.getString("state")).isFinished())
+                .count();
+    }
+
+    /**
+     * Registers a job that is running in this verticle so that its progress is published and it can be cancelled.
+     *
+     * @param job,        the running job.
+     * @param disposable, disposes the processing of the job.
+     * @param onCancel,   called after the job has been cancelled.
+     */
+    public void run(ImportJob job, Disposable disposable, Runnable onCancel) {
+        this.running.put(job.getId(), new Running(job, disposable, onCancel));
+        this.publish(job);
+    }
+
+    /**
+     * Publishes the final state of a job that was running in this verticle.
+     */
+    public void finish(ImportJob job) {
+        this.running.remove(job.getId());
+        this.publish(job);
+    }
+
+    public void publish(ImportJob job) {
+        this.jobs.put(job.getId(), job.toJson());
+    }
+
+    /**
+     * Cancels a job, wherever it is queued or running.
+     *
+     * @return false if the job does not exist or is already finished.
+     */
+    public boolean cancel(String id) {
+        Optional<ImportJob> job = this.get(id).filter(j -> !j.getState().isFinished());
+        job.ifPresent(j -> {
+            if (j.getState() == ImportJob.State.QUEUED) {
+                // The verticle that picks up the job will skip it.
+                j.cancel();
+                this.publish(j);
+            }
+            this.vertx.eventBus().publish(CANCEL_ADDRESS, id);
+        });
+        return job.isPresent();
+    }
+
+    /**
+     * Removes the jobs that finished before the given moment.
+     */
+    public void removeFinishedBefore(long timestamp) {
+        this.jobs
+                .values()
+                .stream()
+                .filter(job -> job.getLong("finishedAt", Long.MAX_VALUE) < timestamp)
+                .map(job -> job.getString("id"))
+                .collect(Collectors.toList())
+                .forEach(this.jobs::remove);
+    }
+
+    public void close() {
+        this.vertx.cancelTimer(this.timer);
+        this.cancelConsumer.unregister();
+    }
+
+    private void cancelLocally(String id) {
+        Running running = this.running.remove(id);
+        if (running != null) {
+            LOGGER.debug("Cancelling import {}.", running.job);
+            running.disposable.dispose();
+            running.job.cancel();
+            this.publish(running.job);
+            running.onCancel.run();
+        }
+    }
+
+    private static class Running {
+        private final ImportJob job;
+        private final Disposable disposable;
+        private final Runnable onCancel;
+
+        private Running(ImportJob job, Disposable disposable, Runnable onCancel) {
+            this.job = job;
+            this.disposable = disposable;
+            this.onCancel = onCancel;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.ocs.analytics.application;
+
+import com.ocs.analytics.domain.HourlyAggregation;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * The options of the import of site-statistics files as they are configured in the "import" object of the
+ * application configuration. Every option has a default so that the import also works without configuration.
+ *
+ * @author Bas Piepers
+ */
+public class ImportOptions {
+    private static final int DEFAULT_PARALLELISM = Runtime.getRuntime().availableProcessors();
+    private static final int DEFAULT_WINDOW = 1024;
+    private static final int DEFAULT_BATCH_SIZE = 128;
+    private static final int DEFAULT_INSTANCES = 1;
+    private static final int DEFAULT_QUEUE_SIZE = 16;
+
+    /**
+     * How an uploaded file is read. SEQUENTIAL streams the file through one record parser on the event loop, PARALLEL
+     * splits the file into chunks that are parsed concurrently on a worker pool and MAPPED maps the file into memory
+     * and parses it on a worker thread. STREAMING reads the file like SEQUENTIAL but enriches and publishes every day
+     * as soon as it has been read.
+     * <p>
+     * The parallelism is the amount of chunks that are parsed concurrently (PARALLEL) or the amount of days that are
+     * enriched concurrently (STREAMING).
+     */
+    public enum Mode {
+        SEQUENTIAL, PARALLEL, MAPPED, STREAMING
+    }
+
+    private final Mode mode;
+    private final int parallelism;
+    private final int window;
+    private final int batchSize;
+    private final int instances;
+    private final boolean worker;
+    private final int queueSize;
+    private final boolean streamUploads;
+    private final HourlyAggregation.Policy aggregation;
+
+    public ImportOptions(JsonObject jsonObject) {
+        this.mode = Mode.valueOf(jsonObject.getString("mode", Mode.SEQUENTIAL.name()).toUpperCase());
+        this.parallelism = jsonObject.getInteger("parallelism", DEFAULT_PARALLELISM);
+        this.window = jsonObject.getInteger("window", DEFAULT_WINDOW);
+        this.batchSize = jsonObject.getInteger("batch_size", Math.min(DEFAULT_BATCH_SIZE, this.window));
+        this.instances = jsonObject.getInteger("instances", DEFAULT_INSTANCES);
+        this.worker = jsonObject.getBoolean("worker", false);
+        this.queueSize = jsonObject.getInteger("queue_size", DEFAULT_QUEUE_SIZE);
+        this.streamUploads = jsonObject.getBoolean("stream_uploads", false);
+        this.aggregation = HourlyAggregation.Policy.valueOf(jsonObject
+                .getString("aggregation", HourlyAggregation.Policy.FIRST.name()).toUpperCase());
+
+        if (this.parallelism < 1) {
+            throw new IllegalArgumentException("The parallelism of the import must be at least 1 (" + this.parallelism + ").");
+        }
+        if (this.batchSize < 1 || this.batchSize > this.window) {
+            throw new IllegalArgumentException("The batch size of the import must be at least 1 and at most the window of " +
+                    this.window + " (" + this.batchSize + ").");
+        }
+        if (this.instances < 1) {
+            throw new IllegalArgumentException("The amount of import instances must be at least 1 (" + this.instances + ").");
+        }
+        if (this.queueSize < 1) {
+            throw new IllegalArgumentException("The queue size of the import must be at least 1 (" + this.queueSize + ").");
+        }
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * @return the maximum amount of rows that are read from a file ahead of the rest of the import. Reading the file is
+     * paused when this amount of rows is waiting to be processed and is resumed when they are processed.
+     */
+    public int getWindow() {
+        return window;
+    }
+
+    /**
+     * @return the amount of rows that the import requests from the file at a time.
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * @return the amount of import verticles that are deployed. Uploads are distributed over the instances by the
+     * event bus.
+     */
+    public int getInstances() {
+        return instances;
+    }
+
+    /**
+     * @return whether the import verticles are deployed as worker verticles instead of on event loops.
+     */
+    public boolean isWorker() {
+        return worker;
+    }
+
+    /**
+     * @return the maximum amount of imports that one instance accepts at the same time. Uploads that arrive when the
+     * queue of the instance is full are rejected.
+     */
+    public int getQueueSize() {
+        return queueSize;
+    }
+
+    /**
+     * @return whether uploads are parsed while they are being received instead of being stored in a file that is
+     * imported when the upload is complete.
+     */
+    public boolean isStreamUploads() {
+        return streamUploads;
+    }
+
+    /**
+     * @return how rows for the same hour are merged. Anything but FIRST aggregates the rows without creating an
+     * object per row.
+     */
+    public HourlyAggregation.Policy getAggregation() {
+        return aggregation;
+    }
+
+    public boolean isAggregating() {
+        return aggregation != HourlyAggregation.Policy.FIRST;
+    }
+
+    @Override
+    public String toString() {
+        return "ImportOptions{" +
+                "mode=" + mode +
+                ", parallelism=" + parallelism +
+                ", window=" + window +
+                ", batchSize=" + batchSize +
+                ", instances=" + instances +
+                ", worker=" + worker +
+                ", queueSize=" + queueSize +
+                ", streamUploads=" + streamUploads +
+                ", aggregation=" + aggregation +
+                '}';
+    }
+}
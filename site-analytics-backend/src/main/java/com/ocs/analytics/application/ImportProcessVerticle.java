@@ -1,19 +1,35 @@
 package com.ocs.analytics.application;
 
 import com.ocs.analytics.domain.FileUpload;
+import com.ocs.analytics.domain.HourOfDay;
+import com.ocs.analytics.domain.HourlyAggregation;
 import com.ocs.analytics.domain.SiteStatistic;
 import com.ocs.analytics.domain.SiteStatistics;
 import com.ocs.analytics.reactivex.domain.SiteStatisticsService;
+import io.reactivex.Flowable;
+import io.reactivex.Observable;
+import io.reactivex.Single;
+import io.reactivex.disposables.Disposable;
 import io.vertx.core.Context;
 import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.ReplyException;
 import io.vertx.core.file.OpenOptions;
 import io.vertx.core.json.JsonObject;
 import io.vertx.reactivex.core.AbstractVerticle;
+import io.vertx.reactivex.core.Future;
+import io.vertx.reactivex.core.WorkerExecutor;
+import io.vertx.reactivex.core.buffer.Buffer;
 import io.vertx.reactivex.core.eventbus.Message;
-import io.vertx.reactivex.core.parsetools.RecordParser;
+import io.vertx.reactivex.core.shareddata.LocalMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+
 /**
  * Processes the import of the file by using a service to do so.
  *
@@ -21,62 +37,314 @@ import org.slf4j.LoggerFactory;
  */
 public class ImportProcessVerticle extends AbstractVerticle {
     private static final Logger LOGGER = LoggerFactory.getLogger(ImportProcessVerticle.class);
-    private static final String IMPORT_PATTERN = "^[0-9]{10},\\d+?,\\d+?,\\d+?,\\d+?$";
+    private static final String IMPORT_WORKER_POOL = "site-statistics-import";
+    /**
+     * The shared map that contains the amount of imports that each instance is processing, by instance id.
+     */
+    static final String QUEUE_DEPTH_MAP = "import-queue-depth";
+    /**
+     * The field of an import message that tells whether the import may still be offered to another instance when the
+     * queue of this instance is full. Only the last attempt rejects the import.
+     */
+    static final String LAST_ATTEMPT = "lastAttempt";
+    private final String instanceId = UUID.randomUUID().toString();
     private io.vertx.reactivex.core.Vertx rxVertx;
     private SiteStatisticsService siteStatisticsService;
+    private ImportOptions importOptions;
+    private SiteStatisticStreamReader streamReader;
+    private WorkerExecutor workerExecutor;
+    private ImportJobs importJobs;
+    private LocalMap<String, Integer> queueDepths;
+    private int queueDepth;
 
     @Override
     public void init(Vertx vertx, Context context) {
         super.init(vertx, context);
         this.rxVertx = new io.vertx.reactivex.core.Vertx(vertx);
         this.siteStatisticsService = SiteStatisticsService.createProxy(rxVertx);
+        this.importOptions = new ImportOptions(context.config().getJsonObject("import", new JsonObject()));
+        this.streamReader = new SiteStatisticStreamReader(this.importOptions);
+        LOGGER.debug("Importing with {}", this.importOptions);
     }
 
     @Override
     public void start() {
+        this.workerExecutor = this.vertx
+                .createSharedWorkerExecutor(IMPORT_WORKER_POOL, this.importOptions.getParallelism());
+        this.queueDepths = this.vertx.sharedData().getLocalMap(QUEUE_DEPTH_MAP);
+        this.queueDepths.put(this.instanceId, 0);
+        this.importJobs = new ImportJobs(this.vertx.getDelegate());
+
         this.vertx
                 .eventBus()
                 .<JsonObject>consumer("file-upload", message -> {
-                    SiteStatistics siteStatistics = new SiteStatistics();
                     LOGGER.debug("Received import message with jsonObject: {}",
                             message.body().encodePrettily());
                     // Map it back to a FileUpload instance.
                     FileUpload fileUpload = new FileUpload(message.body());
                     LOGGER.debug("Fileupload: {}", fileUpload.toString());
+                    // The address of an upload that is still being received instead of an uploaded file.
+                    String stream = message.body().getString("stream");
+                    ImportJob job = this.importJobs
+                            .get(message.body().getString("jobId"))
+                            .orElseGet(() -> this.importJobs.create(fileUpload.getFileName(), fileUpload.getSize()));
+
+                    if (job.getState() == ImportJob.State.CANCELLED) {
+                        this.cleanup(fileUpload.getUploadedFileName());
+                        message.fail(4, "The import has been cancelled.");
+                        return;
+                    }
+                    boolean full = this.queueDepth >= this.importOptions.getQueueSize();
+                    if (full && !message.body().getBoolean(LAST_ATTEMPT, true)) {
+                        // The sender offers the import to the next instance.
+                        LOGGER.debug("Passing on import, instance {} is already processing {} imports.", this.instanceId, this.queueDepth);
+                        message.fail(3, "Too many imports are being processed, try again later.");
+                        return;
+                    }
+                    if (full) {
+                        LOGGER.warn("Rejecting import, instance {} is already processing {} imports.", this.instanceId, this.queueDepth);
+                        job.reject("Too many imports are being processed, try again later.");
+                        this.importJobs.publish(job);
+                        this.cleanup(fileUpload.getUploadedFileName());
+                        message.fail(3, "Too many imports are being processed, try again later.");
+                        return;
+                    }
+                    this.updateQueueDepth(1);
+                    job.start();
+
+                    Single<SiteStatistics> enrichedStatistics = this.importOptions.getMode() == ImportOptions.Mode.STREAMING ?
+                            this.importProgressively(fileUpload, stream, job) :
+                            this.importFile(fileUpload, stream, job)
+                                    .doOnSuccess(siteStatistics -> LOGGER.debug("Successfully processed the file, added {} items to the site statistics.", siteStatistics.size()))
+                                    .flatMap(this.siteStatisticsService::rxEnrichAnalytics);
 
-                    vertx
-                            .fileSystem()
-                            .rxOpen(fileUpload.getUploadedFileName(), new OpenOptions())
-                            .flatMapObservable(csvFile -> RecordParser
-                                    .newDelimited("\n", csvFile)
-                                    .toObservable()
-                                    .map(buffer -> buffer.toString())
-                                    // Expect a delimited string with 5 columns and specific values
-                                    .filter(string -> string.trim().matches(IMPORT_PATTERN))
-                                    .doFinally(csvFile::close)
-                            )
-                            .map(string -> SiteStatistic.from(string))
-                            .map(siteStatistic -> siteStatistics.addStatistic(siteStatistic))
-                            // Clean up when we're finished.
+                    Disposable disposable = enrichedStatistics
+                            // Clean up when we're finished (or cancelled).
                             .doFinally(() -> this.cleanup(fileUpload.getUploadedFileName()))
-                            .doOnComplete(() -> LOGGER.debug("Successfully processed the file, added {} items to the site statistics.", siteStatistics.getStatistics().size()))
-                            .doOnComplete(() -> this.enrichStatistics(siteStatistics, message))
-                            .doOnError(throwable -> message.fail(1, "Something went wrong " + throwable.getMessage()))
-                            .subscribe();
+                            .doFinally(() -> this.updateQueueDepth(-1))
+                            .subscribe(result -> {
+                                        job.complete();
+                                        this.importJobs.finish(job);
+                                        message.reply(result.toJson());
+                                    },
+                                    throwable -> {
+                                        job.fail(throwable.getMessage());
+                                        this.importJobs.finish(job);
+                                        // Failures of the service are replies of the service.
+                                        if (throwable instanceof ReplyException) {
+                                            message.fail(2, "Something went wrong while enriching the site statistics: " + throwable.getMessage());
+                                        } else {
+                                            message.fail(1, "Something went wrong " + throwable.getMessage());
+                                        }
+                                    });
+                    if (!disposable.isDisposed()) {
+                        this.importJobs.run(job, disposable, () -> message.fail(4, "The import has been cancelled."));
+                    }
+                });
+
+    }
+
+    @Override
+    public void stop() {
+        this.importJobs.close();
+        this.queueDepths.remove(this.instanceId);
+        this.workerExecutor.close();
+    }
 
+    private void updateQueueDepth(int delta) {
+        this.queueDepth += delta;
+        this.queueDepths.put(this.instanceId, this.queueDepth);
+    }
+
+    private Single<SiteStatistics> importFile(FileUpload fileUpload, String stream, ImportJob job) {
+        if (stream != null) {
+            LOGGER.debug("{} is still being uploaded, so it can only be read sequentially.", fileUpload.getFileName());
+            return this.importSequentially(fileUpload, stream, job);
+        }
+        ImportOptions.Mode mode = this.importOptions.getMode();
+        if (mode != ImportOptions.Mode.PARALLEL && mode != ImportOptions.Mode.MAPPED) {
+            return this.importSequentially(fileUpload, null, job);
+        }
+        return this.isCompressed(fileUpload).flatMap(compressed -> {
+            if (compressed) {
+                LOGGER.debug("{} is compressed, so it can only be read sequentially.", fileUpload.getFileName());
+                return this.importSequentially(fileUpload, null, job);
+            }
+            return mode == ImportOptions.Mode.PARALLEL
+                    ? this.importInParallel(fileUpload, job)
+                    : this.importMapped(fileUpload, job);
+        });
+    }
+
+    private Single<SiteStatistics> importSequentially(FileUpload fileUpload, String stream, ImportJob job) {
+        if (this.importOptions.isAggregating()) {
+            if (stream != null) {
+                return this.streamReader
+                        .aggregate(new UploadStream(this.vertx.getDelegate(), stream), job)
+                        .map(HourlyAggregation::toSiteStatistics);
+            }
+            return vertx
+                    .fileSystem()
+                    .rxOpen(fileUpload.getUploadedFileName(), new OpenOptions())
+                    .flatMap(csvFile -> this.streamReader
+                            .aggregate(csvFile.getDelegate(), job)
+                            .doFinally(csvFile::close))
+                    .map(HourlyAggregation::toSiteStatistics);
+        }
+        return this.readSequentially(fileUpload, stream, job)
+                .collect(SiteStatistics::new, SiteStatistics::addStatistic);
+    }
+
+    private Flowable<SiteStatistic> readSequentially(FileUpload fileUpload, String stream, ImportJob job) {
+        if (stream != null) {
+            return this.streamReader.read(new UploadStream(this.vertx.getDelegate(), stream), job);
+        }
+        return vertx
+                .fileSystem()
+                .rxOpen(fileUpload.getUploadedFileName(), new OpenOptions())
+                .flatMapPublisher(csvFile -> this.streamReader
+                        .read(csvFile.getDelegate(), job)
+                        .doFinally(csvFile::close)
+                );
+    }
+
+    /**
+     * Reads the file sequentially and enriches and publishes the days while the file is read (see
+     * {@link ProgressiveImport}).
+     */
+    private Single<SiteStatistics> importProgressively(FileUpload fileUpload, String stream, ImportJob job) {
+        return new ProgressiveImport(this.importOptions, this.siteStatisticsService::rxEnrichAnalytics, this::publishDay)
+                .importStatistics(this.readSequentially(fileUpload, stream, job));
+    }
+
+    private HourlyAggregation newAggregation() {
+        return new HourlyAggregation(this.importOptions.getAggregation());
+    }
+
+    private void publishDay(SiteStatistics day) {
+        if (day.size() == 0) {
+            return;
+        }
+        HourOfDay midnight = HourOfDay.ofEpochHour(Math.toIntExact(ProgressiveImport.epochDay(day) * 24));
+        try {
+            OneDayStatisticsDto dto = OneDayStatisticsDto.from(day.columns(), midnight.epochHour());
+            this.vertx
+                    .eventBus()
+                    .publish(HttpServerVerticle.UPDATE_STOMP_DESTINATION, SiteStatisticsDto
+                            .partialPageAsJson(midnight.asLocalDate(), dto)
+                            .encode());
+        } catch (IllegalArgumentException e) {
+            LOGGER.debug("Day {} can't be shown yet: {}", midnight, e.getMessage());
+        }
+    }
+
+    /**
+     * Splits the file into chunks that are aligned on lines and parses the chunks concurrently on the worker pool of
+     * the import. The chunks are merged in the order of the file so that the result is identical to reading the file
+     * sequentially (a record for an hour that is already present is ignored either way).
+     */
+    private Single<SiteStatistics> importInParallel(FileUpload fileUpload, ImportJob job) {
+        ChunkedFileReader reader = new ChunkedFileReader(fileUpload.getUploadedFileName());
+        if (this.importOptions.isAggregating()) {
+            // Every chunk is aggregated on its own and the aggregations are merged in the order of the file.
+            return this.readInParallel(fileUpload, job, reader, (from, to) -> {
+                HourlyAggregation aggregation = this.newAggregation();
+                reader.read(from, to, decoder -> {
+                    job.addRows(1);
+                    aggregation.add(decoder);
                 });
+                return aggregation;
+            })
+                    .collect(this::newAggregation, HourlyAggregation::addAll)
+                    .map(HourlyAggregation::toSiteStatistics);
+        }
+        return this.readInParallel(fileUpload, job, reader, (from, to) -> {
+            List<SiteStatistic> chunk = reader.read(from, to);
+            job.addRows(chunk.size());
+            return chunk;
+        })
+                .collect(SiteStatistics::new, (siteStatistics, chunk) -> chunk.forEach(siteStatistics::addStatistic));
+    }
 
+    private <T> Observable<T> readInParallel(FileUpload fileUpload, ImportJob job, ChunkedFileReader reader, ChunkRead<T> chunkRead) {
+        int parallelism = this.importOptions.getParallelism();
+        return this.workerExecutor
+                .<List<Long>>rxExecuteBlocking(future -> this.complete(future, () -> reader.split(parallelism)), false)
+                .doOnSuccess(boundaries -> LOGGER.debug("Importing {} in {} chunks.", fileUpload.getFileName(), boundaries.size() - 1))
+                .flatMapObservable(boundaries -> Observable
+                        .range(0, boundaries.size() - 1)
+                        // Subscribe to (and thereby parse) the chunks concurrently but emit them in the original order.
+                        .concatMapEager(chunk -> this.workerExecutor
+                                .<T>rxExecuteBlocking(future -> this.complete(future,
+                                        () -> chunkRead.read(boundaries.get(chunk), boundaries.get(chunk + 1))), false)
+                                .doOnSuccess(result -> job.addBytes(boundaries.get(chunk + 1) - boundaries.get(chunk)))
+                                .toObservable(), parallelism, 1));
+    }
+
+    /**
+     * Reads the chunk of a file from the given position (inclusive) to the given position (exclusive).
+     */
+    @FunctionalInterface
+    private interface ChunkRead<T> {
+        T read(long from, long to) throws IOException;
+    }
+
+    /**
+     * Maps the file into memory and parses it from the mapped region on the worker pool of the import, which avoids
+     * copying the contents into buffers and hopping to the event loop for every chunk that was read.
+     */
+    private Single<SiteStatistics> importMapped(FileUpload fileUpload, ImportJob job) {
+        MappedFileReader reader = new MappedFileReader(fileUpload.getUploadedFileName());
+        return this.workerExecutor
+                .<SiteStatistics>rxExecuteBlocking(future -> this.complete(future, () -> {
+                    if (this.importOptions.isAggregating()) {
+                        HourlyAggregation aggregation = this.newAggregation();
+                        reader.read(decoder -> {
+                            job.addRows(1);
+                            aggregation.add(decoder);
+                        });
+                        return aggregation.toSiteStatistics();
+                    }
+                    SiteStatistics siteStatistics = new SiteStatistics();
+                    reader.read(decoder -> {
+                        job.addRows(1);
+                        siteStatistics.addStatistic(SiteStatistic.from(decoder));
+                    });
+                    return siteStatistics;
+                }), false)
+                // The file is mapped as a whole, so the bytes are only counted when it was read.
+                .doOnSuccess(siteStatistics -> job.addBytes(Optional.ofNullable(fileUpload.getSize()).orElse(0L)));
+    }
+
+    /**
+     * Whether the uploaded file is compressed is detected from its first bytes, because the name and content type that
+     * the client sent can't be relied on.
+     */
+    private Single<Boolean> isCompressed(FileUpload fileUpload) {
+        int length = DecompressingReadStream.SIGNATURE_SIZE;
+        return vertx
+                .fileSystem()
+                .rxOpen(fileUpload.getUploadedFileName(), new OpenOptions())
+                .flatMap(file -> file
+                        .rxRead(Buffer.buffer(length), 0, 0L, length)
+                        .doFinally(file::close))
+                .map(signature -> DecompressingReadStream.isCompressed(signature.getDelegate()));
     }
 
-    private void enrichStatistics(SiteStatistics siteStatistics, Message<JsonObject> message) {
-        this.siteStatisticsService
-                .rxEnrichAnalytics(siteStatistics)
-                .subscribe(result -> message.reply(result.toJson()),
-                        throwable -> message.fail(2, "Something went wrong while enriching the site statistics: " + throwable.getMessage()));
+    private <T> void complete(Future<T> future, Callable<T> callable) {
+        try {
+            future.complete(callable.call());
+        } catch (Exception e) {
+            future.fail(e);
+        }
     }
 
 
     private void cleanup(String fileName) {
+        if (fileName == null) {
+            // The upload was streamed, so nothing was written to disk.
+            return;
+        }
         LOGGER.debug("Cleaning up file {}", fileName);
         vertx
                 .fileSystem()
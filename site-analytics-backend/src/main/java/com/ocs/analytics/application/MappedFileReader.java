@@ -0,0 +1,68 @@
+package com.ocs.analytics.application;
+
+import com.ocs.analytics.domain.SiteStatisticDecoder;
+import io.netty.buffer.Unpooled;
+import io.vertx.core.Handler;
+import io.vertx.core.buffer.Buffer;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads an uploaded site-statistics file by mapping it into memory and decoding the lines straight from the mapped
+ * region, so the contents are not copied into heap buffers and Strings first. A mapping can't be larger than 2 GB so
+ * larger files are mapped in consecutive windows. Each window starts at the first line that the previous window could
+ * not decode completely.
+ * <p>
+ * Reading blocks the calling thread, so it must be called from a worker thread.
+ *
+ * @author Bas Piepers
+ */
+public class MappedFileReader {
+    private static final long MAX_WINDOW_SIZE = Integer.MAX_VALUE;
+
+    private final String fileName;
+    private final long windowSize;
+
+    public MappedFileReader(String fileName) {
+        this(fileName, MAX_WINDOW_SIZE);
+    }
+
+    MappedFileReader(String fileName, long windowSize) {
+        this.fileName = fileName;
+        this.windowSize = Math.min(windowSize, MAX_WINDOW_SIZE);
+    }
+
+    /**
+     * Decodes all lines of the file in the order of the file and passes the decoder to the handler for every line
+     * that is a site-statistics record.
+     *
+     * @param handler, the handler that reads the values of each record from the decoder.
+     * @throws IOException in case the file can't be read or contains a line that is longer than a window.
+     */
+    public void read(Handler<SiteStatisticDecoder> handler) throws IOException {
+        SiteStatisticDecoder decoder = new SiteStatisticDecoder();
+        try (FileChannel channel = FileChannel.open(Paths.get(this.fileName), StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0L;
+            while (position < size) {
+                int length = (int) Math.min(this.windowSize, size - position);
+                // The mapping is released when the buffer is garbage collected.
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                int decoded = decoder.decodeLines(Buffer.buffer(Unpooled.wrappedBuffer(window)), 0, length, handler);
+
+                if (position + length == size) {
+                    break;
+                }
+                if (decoded == 0) {
+                    throw new IOException("The file " + this.fileName + " contains a line at position " + position +
+                            " that is longer than the window of " + this.windowSize + " bytes.");
+                }
+                position += decoded;
+            }
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.ocs.analytics.application;
 
+import com.ocs.analytics.domain.HourOfDay;
 import com.ocs.analytics.domain.SiteStatistic;
+import com.ocs.analytics.domain.StatisticColumns;
 import com.ocs.analytics.domain.WeatherMeasurement;
 import io.vertx.codegen.annotations.DataObject;
 import io.vertx.core.json.JsonArray;
@@ -120,6 +122,44 @@ public class OneDayStatisticsDto implements Serializable {
         return new OneDayStatisticsDto(labels, tempData, usersData, newUsersData, sessionData);
     }
 
+    /**
+     * Gets one day of data from the columns of the statistics in the same way as {@link #from(TreeSet)} does, without
+     * creating a {@link SiteStatistic} for every hour.
+     *
+     * @param columns,  the columns with the statistics.
+     * @param midnight, the epoch hour of midnight of the day, the statistics of the day must start at midnight.
+     * @return an instance of this class with data that can be displayed in the front-end.
+     */
+    public static OneDayStatisticsDto from(StatisticColumns columns, int midnight) {
+        Objects.requireNonNull(columns);
+
+        if (!columns.contains(midnight)) {
+            throw new IllegalArgumentException("The site statistics for a page should always start at midnight.");
+        }
+
+        JsonArray labels = new JsonArray();
+        JsonArray tempData = new JsonArray();
+        JsonArray usersData = new JsonArray();
+        JsonArray newUsersData = new JsonArray();
+        JsonArray sessionData = new JsonArray();
+
+        for (int hour = midnight; hour != StatisticColumns.NONE && hour < midnight + 24; hour = columns.nextHour(hour)) {
+            int hourOfDay = hour - midnight;
+            if (hourOfDay == 0) {
+                labels.add(mnFormatter.format(HourOfDay.ofEpochHour(hour).asLocalDateTime()));
+            } else {
+                labels.add(hourOfDay < 10 ? "0" + hourOfDay : "" + hourOfDay);
+            }
+            // Default to 0 if there is no weatherdata (which is what the temperature column contains then).
+            tempData.add(columns.temperature(hour));
+            usersData.add(columns.users(hour));
+            newUsersData.add(columns.newUsers(hour));
+            sessionData.add(columns.sessions(hour));
+        }
+
+        return new OneDayStatisticsDto(labels, tempData, usersData, newUsersData, sessionData);
+    }
+
     public JsonArray getLabels() {
         return labels;
     }
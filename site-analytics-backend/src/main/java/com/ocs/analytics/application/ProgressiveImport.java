@@ -0,0 +1,144 @@
+package com.ocs.analytics.application;
+
+import com.ocs.analytics.domain.HourlyAggregation;
+import com.ocs.analytics.domain.SiteStatistic;
+import com.ocs.analytics.domain.SiteStatistics;
+import io.reactivex.Flowable;
+import io.reactivex.Single;
+import io.reactivex.functions.Consumer;
+import io.reactivex.functions.Function;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * Enriches and publishes the statistics of an import per day while the file is read, so that the front-end can show
+ * the first days while the rest of the file is still being processed. A day is complete when the first statistic of
+ * the next day was read. The complete days of a month are enriched at once (a window), so the weather data of a file
+ * is requested once per month instead of once per day and only the first and the last day of a window can be partial.
+ * Up to "parallelism" windows are enriched concurrently but the days are published in the order of the file, as soon
+ * as their window is enriched. When all days are processed, the enriched days are returned as one result just like
+ * the other modes do.
+ * <p>
+ * Days without any site statistics are not enriched in this mode. Rows for the same hour are only aggregated when
+ * they are part of the same consecutive rows of a day, a day that was already published is not changed anymore.
+ *
+ * @author Bas Piepers
+ */
+class ProgressiveImport {
+    private final ImportOptions importOptions;
+    private final Function<SiteStatistics, Single<SiteStatistics>> enrichment;
+    private final Consumer<SiteStatistics> publication;
+
+    /**
+     * @param enrichment,  enriches the statistics of a window with weather data.
+     * @param publication, publishes an enriched day.
+     */
+    ProgressiveImport(ImportOptions importOptions, Function<SiteStatistics, Single<SiteStatistics>> enrichment,
+                      Consumer<SiteStatistics> publication) {
+        this.importOptions = importOptions;
+        this.enrichment = enrichment;
+        this.publication = publication;
+    }
+
+    /**
+     * @param statistics, the statistics in the order of the file.
+     * @return all enriched days.
+     */
+    Single<SiteStatistics> importStatistics(Flowable<SiteStatistic> statistics) {
+        return statistics
+                .compose(this::perDay)
+                .compose(this::perMonth)
+                .concatMapEager(window -> {
+                    SiteStatistics merged = new SiteStatistics();
+                    window.forEach(merged::mergeWith);
+                    return this.enrichment
+                            .apply(merged)
+                            // Enrichment adds statistics for the hours without statistics, only keep the days that
+                            // have statistics.
+                            .map(enriched -> window
+                                    .stream()
+                                    .map(day -> enriched.day(epochDay(day)))
+                                    .collect(Collectors.toList()))
+                            // Only the windows that are being enriched are requested so the file is not read further
+                            // ahead.
+                            .flattenAsFlowable(days -> days);
+                }, this.importOptions.getParallelism(), 1)
+                .doOnNext(this.publication)
+                .collect(SiteStatistics::new, SiteStatistics::mergeWith);
+    }
+
+    /**
+     * Collects consecutive statistics of the same day and emits the day as soon as a statistic of another day arrives.
+     * The statistics of a day are merged per hour with the aggregation policy of the import.
+     */
+    Flowable<SiteStatistics> perDay(Flowable<SiteStatistic> statistics) {
+        return Flowable.defer(() -> {
+            AtomicReference<SiteStatistic> first = new AtomicReference<>();
+            AtomicReference<HourlyAggregation> day = new AtomicReference<>(this.newAggregation());
+            return statistics
+                    .concatMapIterable(siteStatistic -> {
+                        List<SiteStatistics> complete = Collections.emptyList();
+                        if (first.get() == null || !this.isSameDay(first.get(), siteStatistic)) {
+                            if (first.get() != null) {
+                                HourlyAggregation previous = day.getAndSet(this.newAggregation());
+                                complete = Collections.singletonList(previous.toSiteStatistics());
+                            }
+                            first.set(siteStatistic);
+                        }
+                        day.get().add(siteStatistic);
+                        return complete;
+                    }, this.importOptions.getBatchSize())
+                    .concatWith(Flowable.defer(() -> day.get().size() == 0
+                            ? Flowable.empty()
+                            : Flowable.just(day.get().toSiteStatistics())));
+        });
+    }
+
+    /**
+     * Collects consecutive days of the same month into a window and emits the window as soon as a day of another month
+     * arrives.
+     */
+    Flowable<List<SiteStatistics>> perMonth(Flowable<SiteStatistics> days) {
+        return Flowable.defer(() -> {
+            AtomicReference<List<SiteStatistics>> window = new AtomicReference<>(new ArrayList<>());
+            return days
+                    .concatMapIterable(day -> {
+                        List<List<SiteStatistics>> complete = Collections.emptyList();
+                        List<SiteStatistics> current = window.get();
+                        if (!current.isEmpty() && !month(current.get(0)).equals(month(day))) {
+                            complete = Collections.singletonList(window.getAndSet(new ArrayList<>()));
+                        }
+                        window.get().add(day);
+                        return complete;
+                    }, 1)
+                    .concatWith(Flowable.defer(() -> window.get().isEmpty()
+                            ? Flowable.empty()
+                            : Flowable.just(window.get())));
+        });
+    }
+
+    /**
+     * @return the epoch day of the statistics of one day.
+     */
+    static long epochDay(SiteStatistics day) {
+        return Math.floorDiv(day.columns().firstHour(), 24);
+    }
+
+    private static YearMonth month(SiteStatistics day) {
+        return YearMonth.from(LocalDate.ofEpochDay(epochDay(day)));
+    }
+
+    private HourlyAggregation newAggregation() {
+        return new HourlyAggregation(this.importOptions.getAggregation());
+    }
+
+    private boolean isSameDay(SiteStatistic first, SiteStatistic second) {
+        return first.getHourOfDay().epochDay() == second.getHourOfDay().epochDay();
+    }
+}
@@ -0,0 +1,79 @@
+package com.ocs.analytics.application;
+
+import com.ocs.analytics.domain.HourlyAggregation;
+import com.ocs.analytics.domain.SiteStatistic;
+import com.ocs.analytics.domain.SiteStatisticDecoder;
+import io.reactivex.Flowable;
+import io.reactivex.Single;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.parsetools.RecordParser;
+import io.vertx.core.streams.ReadStream;
+import io.vertx.reactivex.FlowableHelper;
+
+/**
+ * Reads site statistics from a stream of bytes, like an opened file or a file that is being uploaded, in the order of
+ * the stream. The stream is only read as fast as the rows are requested: when the amount of rows that were read but
+ * not yet processed reaches the window of the import, the stream is paused until the rows are processed.
+ * <p>
+ * Gzip and zip compressed streams are decompressed while they are read (see {@link DecompressingReadStream}).
+ *
+ * @author Bas Piepers
+ */
+public class SiteStatisticStreamReader {
+    private final ImportOptions importOptions;
+
+    public SiteStatisticStreamReader(ImportOptions importOptions) {
+        this.importOptions = importOptions;
+    }
+
+    /**
+     * @param stream, the stream with the lines of a site-statistics file.
+     * @param job,    the job that counts the progress of reading the stream.
+     * @return the site statistics of every line that is a site-statistics record.
+     */
+    public Flowable<SiteStatistic> read(ReadStream<Buffer> stream, ImportJob job) {
+        return Flowable.defer(() -> {
+            SiteStatisticDecoder decoder = new SiteStatisticDecoder();
+            return this.records(stream, job)
+                    // Expect a delimited record with 5 columns and specific values
+                    .filter(buffer -> this.decode(decoder, buffer, job))
+                    // Map the decoded values before the decoder receives the next record.
+                    .map(buffer -> SiteStatistic.from(decoder))
+                    .rebatchRequests(this.importOptions.getBatchSize());
+        });
+    }
+
+    /**
+     * @param stream, the stream with the lines of a site-statistics file.
+     * @param job,    the job that counts the progress of reading the stream.
+     * @return the rows of the stream merged per hour with the aggregation policy of the import.
+     */
+    public Single<HourlyAggregation> aggregate(ReadStream<Buffer> stream, ImportJob job) {
+        return Single.defer(() -> {
+            SiteStatisticDecoder decoder = new SiteStatisticDecoder();
+            return this.records(stream, job)
+                    .filter(buffer -> this.decode(decoder, buffer, job))
+                    .rebatchRequests(this.importOptions.getBatchSize())
+                    .collect(() -> new HourlyAggregation(this.importOptions.getAggregation()),
+                            (aggregation, buffer) -> aggregation.add(decoder));
+        });
+    }
+
+    private Flowable<Buffer> records(ReadStream<Buffer> stream, ImportJob job) {
+        // The batch of rows that is requested at a time is taken from the window, the stream is paused when the rest
+        // of the window is waiting as well.
+        int buffered = Math.max(1, this.importOptions.getWindow() - this.importOptions.getBatchSize());
+        return FlowableHelper
+                .toFlowable(RecordParser.newDelimited("\n", new DecompressingReadStream(stream)), buffered)
+                // The bytes of the (decompressed) line and its delimiter.
+                .doOnNext(buffer -> job.addBytes(buffer.length() + 1));
+    }
+
+    private boolean decode(SiteStatisticDecoder decoder, Buffer buffer, ImportJob job) {
+        if (decoder.decode(buffer)) {
+            job.addRows(1);
+            return true;
+        }
+        return false;
+    }
+}
@@ -1,6 +1,9 @@
 package com.ocs.analytics.application;
 
+import com.ocs.analytics.domain.Rollups;
 import com.ocs.analytics.domain.SiteStatistic;
+import com.ocs.analytics.domain.SiteStatistics;
+import com.ocs.analytics.domain.StatisticColumns;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import org.slf4j.Logger;
@@ -10,10 +13,6 @@ import java.io.Serializable;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.stream.Collectors;
-
-import static java.util.stream.Collectors.collectingAndThen;
-import static java.util.stream.Collectors.groupingBy;
 
 /**
  * The representation of the sitestatistics as it is used by the client application (aka. webpage) with the ability to
@@ -55,11 +54,14 @@ public class SiteStatisticsDto implements Serializable {
     private Map<Integer, OneDayStatisticsDto> statistics;
     // The current page.
     private LinkedList<OneDayStatisticsDto> currentPage;
+    // The daily, weekly and monthly aggregates of the statistics.
+    private Rollups rollups;
 
-    private SiteStatisticsDto(LocalDate start, LocalDate end, HashMap<Integer, OneDayStatisticsDto> statistics) {
+    private SiteStatisticsDto(LocalDate start, LocalDate end, HashMap<Integer, OneDayStatisticsDto> statistics, Rollups rollups) {
         this.startKey = start;
         this.endKey = end;
         this.statistics = statistics;
+        this.rollups = rollups;
     }
 
     /**
@@ -72,24 +74,40 @@ public class SiteStatisticsDto implements Serializable {
      * @return an instance of this class with information that can be used by the front-end.
      */
     public static SiteStatisticsDto fromOrderedStatistics(TreeSet<SiteStatistic> orderedStatistics) {
-        SiteStatistic first = orderedStatistics.first();
-        LocalDate startKey = first.getHourOfDay().asLocalDate();
-        // TODO: the last record can be in the middle of the day somewhere so shifting back and forth should account for that.
-        SiteStatistic last = orderedStatistics.last();
-        LocalDate endKey = last.getHourOfDay().asLocalDate();
+        return from(new SiteStatistics(orderedStatistics));
+    }
 
-        HashMap<Integer, OneDayStatisticsDto> dtoMap = orderedStatistics
-                .stream()
-                .collect(groupingBy(siteStatistic -> siteStatistic
-                                .getHourOfDay()
-                                .yearMonthDayAsFormattedInteger()// Group per day
-                        , HashMap::new,
-//                        ,TreeMap::new,// Collect into a treemap (instead of the default HashMap)
-                        collectingAndThen(Collectors.toCollection(() -> new TreeSet<>()),// Collect the grouped content into a TreeSet and...
-                                OneDayStatisticsDto::from)));// ...instantiate the dto (which will map the records with another stream).
+    /**
+     * Converts the site statistics to a representation that can be used by the front-end. Reads the columns of the
+     * statistics day by day and maintains the rollups of the statistics in the same pass.
+     *
+     * @param siteStatistics, the statistics, must not be empty.
+     * @return an instance of this class with information that can be used by the front-end.
+     */
+    public static SiteStatisticsDto from(SiteStatistics siteStatistics) {
+        StatisticColumns columns = siteStatistics.columns();
+        if (columns.isEmpty()) {
+            throw new NoSuchElementException("There are no statistics to show.");
+        }
+        int firstDay = Math.floorDiv(columns.firstHour(), 24);
+        int lastDay = Math.floorDiv(columns.lastHour(), 24);
+        LocalDate startKey = LocalDate.ofEpochDay(firstDay);
+        // TODO: the last record can be in the middle of the day somewhere so shifting back and forth should account for that.
+        LocalDate endKey = LocalDate.ofEpochDay(lastDay);
 
+        HashMap<Integer, OneDayStatisticsDto> dtoMap = new HashMap<>();
+        Rollups rollups = new Rollups();
+        LocalDate date = startKey;
+        for (int day = firstDay; day <= lastDay; day++, date = date.plusDays(1)) {
+            // Skip the days without statistics.
+            if (columns.nextHour(day * 24 - 1) < (day + 1) * 24) {
+                dtoMap.put(formatDateToKey(date),
+                        OneDayStatisticsDto.from(columns, day * 24));
+                rollups.addDay(columns, day);
+            }
+        }
 
-        return new SiteStatisticsDto(startKey, endKey, dtoMap);
+        return new SiteStatisticsDto(startKey, endKey, dtoMap, rollups);
     }
 
     /**
@@ -161,7 +179,7 @@ public class SiteStatisticsDto implements Serializable {
         // Fill the page with the next content.
         OneDayStatisticsDto dto;
         ld = ld.plusDays(1);
-        while (!ld.isAfter(eop) && (dto = this.statistics.get(this.formatDateToKey(ld))) != null) {
+        while (!ld.isAfter(eop) && (dto = this.statistics.get(formatDateToKey(ld))) != null) {
             ld = ld.plusDays(1);
             this.currentPage.add(dto);
         }
@@ -210,13 +228,17 @@ public class SiteStatisticsDto implements Serializable {
         // Fill the page with the previous content.
         OneDayStatisticsDto dto;
         ld = ld.minusDays(1);
-        while (!ld.isBefore(sop) && (dto = this.statistics.get(this.formatDateToKey(ld))) != null) {
+        while (!ld.isBefore(sop) && (dto = this.statistics.get(formatDateToKey(ld))) != null) {
             ld = ld.minusDays(1);
             this.currentPage.addFirst(dto);
         }
         return this.currentPage;
     }
 
+    public Rollups getRollups() {
+        return rollups;
+    }
+
     public JsonObject getPageAsJson() {
         if (Objects.isNull(this.currentPage)) {
             LOGGER.debug("No page available yet. Call 'first()'.");
@@ -232,17 +254,37 @@ public class SiteStatisticsDto implements Serializable {
                 .put("page", result);
     }
 
+    /**
+     * A page with just one day in the same format as {@link #getPageAsJson()}, used to show a day while the import
+     * is still in progress. The "partial" field tells the front-end that more days will follow.
+     *
+     * @param day, the day of the statistics.
+     * @param dto, the statistics of the day.
+     * @return a page with the statistics of the day.
+     */
+    public static JsonObject partialPageAsJson(LocalDate day, OneDayStatisticsDto dto) {
+        String key = keyFormatter.format(day);
+        return new JsonObject()
+                .put("partial", true)
+                .put("count", 1)
+                .put("startKey", key)
+                .put("endKey", key)
+                .put("sop", key)
+                .put("eop", key)
+                .put("page", new JsonArray().add(dto.toJson()));
+    }
+
     private List<OneDayStatisticsDto> fillPageStatistics() {
         LocalDate ld = sop;
         OneDayStatisticsDto dto;
-        while (!ld.isAfter(eop) && (dto = this.statistics.get(this.formatDateToKey(ld))) != null) {
+        while (!ld.isAfter(eop) && (dto = this.statistics.get(formatDateToKey(ld))) != null) {
             this.currentPage.add(dto);
             ld = ld.plusDays(1);
         }
         return this.currentPage;
     }
 
-    private Integer formatDateToKey(LocalDate localDate) {
-        return Integer.valueOf(localDate.format(keyFormatter));
+    private static Integer formatDateToKey(LocalDate localDate) {
+        return (localDate.getYear() * 100 + localDate.getMonthValue()) * 100 + localDate.getDayOfMonth();
     }
 }
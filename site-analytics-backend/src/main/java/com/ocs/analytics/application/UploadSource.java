@@ -0,0 +1,121 @@
+package com.ocs.analytics.application;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.eventbus.MessageConsumer;
+import io.vertx.core.streams.ReadStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Objects;
+
+/**
+ * Serves the chunks of an upload that is being received by the http server to an {@link UploadStream} of an import
+ * verticle, so that the upload is parsed by the import verticle while it is received. The upload is paused and only
+ * resumed when the import verticle pulls the next chunk, so the upload is received as fast as it is parsed and nothing
+ * is buffered.
+ * <p>
+ * Every pull is a message to the address of the source that is replied to with the next chunk, with an empty reply
+ * with the {@link UploadStream#END_HEADER} at the end of the upload or with a failure if the upload failed.
+ *
+ * @author Bas Piepers
+ */
+public class UploadSource {
+    private static final Logger LOGGER = LoggerFactory.getLogger(UploadSource.class);
+    private static final int UPLOAD_FAILED = 1;
+
+    private final ReadStream<Buffer> upload;
+    private final String address;
+    private final MessageConsumer<Void> consumer;
+    // Chunks that were received after the upload was paused.
+    private final Deque<Buffer> chunks = new ArrayDeque<>();
+    private Message<Void> pull;
+    private boolean ended;
+    private Throwable failure;
+    private boolean closed;
+
+    /**
+     * @param upload,  the upload, which is paused until its chunks are pulled.
+     * @param address, the address on which the chunks are pulled.
+     */
+    public UploadSource(Vertx vertx, ReadStream<Buffer> upload, String address) {
+        this.upload = upload;
+        this.address = address;
+        this.upload.pause();
+        this.upload.handler(this::received);
+        this.upload.endHandler(end -> {
+            this.ended = true;
+            this.reply();
+        });
+        this.upload.exceptionHandler(this::fail);
+        this.consumer = vertx.eventBus().consumer(address, this::pulled);
+    }
+
+    public String address() {
+        return this.address;
+    }
+
+    /**
+     * Fails the pulls of the upload, for example because the request of the upload failed.
+     */
+    public void fail(Throwable throwable) {
+        if (Objects.isNull(this.failure)) {
+            LOGGER.debug("The upload on {} failed.", this.address, throwable);
+            this.failure = throwable;
+            this.reply();
+        }
+    }
+
+    /**
+     * Stops serving the upload. The rest of the upload is received but discarded, so that the request ends.
+     */
+    public void close() {
+        if (!this.closed) {
+            this.closed = true;
+            this.consumer.unregister();
+            this.chunks.clear();
+            if (!this.ended) {
+                this.upload.handler(chunk -> {
+                });
+                this.upload.resume();
+            }
+        }
+    }
+
+    private void received(Buffer chunk) {
+        this.upload.pause();
+        if (!this.closed) {
+            this.chunks.add(chunk);
+            this.reply();
+        }
+    }
+
+    private void pulled(Message<Void> message) {
+        this.pull = message;
+        this.reply();
+        if (Objects.nonNull(this.pull) && !this.ended && Objects.isNull(this.failure)) {
+            this.upload.resume();
+        }
+    }
+
+    // Replies to the pending pull if there is something to reply with.
+    private void reply() {
+        if (Objects.isNull(this.pull)) {
+            return;
+        }
+        if (!this.chunks.isEmpty()) {
+            this.pull.reply(this.chunks.poll());
+        } else if (Objects.nonNull(this.failure)) {
+            this.pull.fail(UPLOAD_FAILED, "The upload failed: " + this.failure.getMessage());
+        } else if (this.ended) {
+            this.pull.reply(Buffer.buffer(), new DeliveryOptions().addHeader(UploadStream.END_HEADER, "true"));
+        } else {
+            return;
+        }
+        this.pull = null;
+    }
+}
@@ -0,0 +1,119 @@
+package com.ocs.analytics.application;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.streams.ReadStream;
+
+import java.util.Objects;
+
+/**
+ * A stream of the chunks of an upload that is being received by the http server, which are pulled from an
+ * {@link UploadSource} one chunk at a time. The next chunk is only pulled when the previous chunk was handled and the
+ * stream isn't paused, so the upload is received as fast as it is read.
+ *
+ * @author Bas Piepers
+ */
+public class UploadStream implements ReadStream<Buffer> {
+    /**
+     * The header of the reply that marks the end of the upload.
+     */
+    static final String END_HEADER = "end";
+    // A pull waits for the client to send the next chunk.
+    private static final long PULL_TIMEOUT = 1000L * 60 * 5;
+
+    private final Vertx vertx;
+    private final String address;
+    private Handler<Buffer> handler;
+    private Handler<Void> endHandler;
+    private Handler<Throwable> exceptionHandler;
+    private boolean paused;
+    private boolean pulling;
+    private boolean ended;
+    // A reply that arrived while the stream was paused.
+    private Message<Buffer> pending;
+
+    /**
+     * @param address, the address of the {@link UploadSource} of the upload.
+     */
+    public UploadStream(Vertx vertx, String address) {
+        this.vertx = vertx;
+        this.address = address;
+    }
+
+    @Override
+    public UploadStream exceptionHandler(Handler<Throwable> handler) {
+        this.exceptionHandler = handler;
+        return this;
+    }
+
+    @Override
+    public UploadStream handler(Handler<Buffer> handler) {
+        this.handler = handler;
+        this.pull();
+        return this;
+    }
+
+    @Override
+    public UploadStream pause() {
+        this.paused = true;
+        return this;
+    }
+
+    @Override
+    public UploadStream resume() {
+        this.paused = false;
+        if (Objects.nonNull(this.pending)) {
+            Message<Buffer> reply = this.pending;
+            this.pending = null;
+            this.deliver(reply);
+        }
+        this.pull();
+        return this;
+    }
+
+    @Override
+    public UploadStream endHandler(Handler<Void> endHandler) {
+        this.endHandler = endHandler;
+        return this;
+    }
+
+    private void pull() {
+        if (this.pulling || this.paused || this.ended || Objects.isNull(this.handler) || Objects.nonNull(this.pending)) {
+            return;
+        }
+        this.pulling = true;
+        this.vertx
+                .eventBus()
+                .send(this.address, null, new DeliveryOptions().setSendTimeout(PULL_TIMEOUT), this::pulled);
+    }
+
+    private void pulled(AsyncResult<Message<Buffer>> reply) {
+        this.pulling = false;
+        if (reply.failed()) {
+            this.ended = true;
+            if (Objects.nonNull(this.exceptionHandler)) {
+                this.exceptionHandler.handle(reply.cause());
+            }
+        } else if (this.paused) {
+            this.pending = reply.result();
+        } else {
+            this.deliver(reply.result());
+            this.pull();
+        }
+    }
+
+    private void deliver(Message<Buffer> reply) {
+        if (reply.headers().contains(END_HEADER)) {
+            this.ended = true;
+            if (Objects.nonNull(this.endHandler)) {
+                this.endHandler.handle(null);
+            }
+        } else if (Objects.nonNull(this.handler)) {
+            this.handler.handle(reply.body());
+        }
+    }
+}
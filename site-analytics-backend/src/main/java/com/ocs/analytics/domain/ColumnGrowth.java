@@ -0,0 +1,46 @@
+package com.ocs.analytics.domain;
+
+/**
+ * How columns that are indexed by the distance to an origin grow in both directions (like {@link StatisticColumns} and
+ * {@link Rollup}). The columns grow at least to twice their capacity, so adding indexes one after another copies the
+ * columns a logarithmic amount of times. They grow towards the side of the new indexes, so the columns don't have to be
+ * copied again when more indexes are added on that side.
+ *
+ * @author Bas Piepers
+ */
+final class ColumnGrowth {
+
+    /**
+     * Reallocates the columns with the given capacity and copies the current columns to the given offset.
+     */
+    @FunctionalInterface
+    interface Allocation {
+        void allocate(int offset, int capacity);
+    }
+
+    private ColumnGrowth() {
+    }
+
+    /**
+     * Grows the columns so that they contain the range of indexes.
+     *
+     * @param origin,          the index of the first slot of the columns.
+     * @param capacity,        the current amount of slots of the columns.
+     * @param first,           the first index that the columns must contain.
+     * @param last,            the last index (inclusive) that the columns must contain.
+     * @param downwards,       true if the columns must grow before their origin.
+     * @param maximumCapacity, the amount of slots the columns may grow to, even if that is less than twice their
+     *                         capacity.
+     * @param allocation,      reallocates the columns.
+     * @return the new origin of the columns.
+     */
+    static int grow(int origin, int capacity, int first, int last, boolean downwards, int maximumCapacity,
+                    Allocation allocation) {
+        long from = Math.min(origin, first);
+        long to = Math.max((long) origin + capacity, (long) last + 1);
+        long grown = Math.min(Math.max(to - from, 2L * capacity), maximumCapacity);
+        int grownOrigin = (int) (downwards ? to - grown : from);
+        allocation.allocate(origin - grownOrigin, (int) grown);
+        return grownOrigin;
+    }
+}
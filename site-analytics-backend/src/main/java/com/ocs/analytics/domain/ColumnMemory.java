@@ -0,0 +1,118 @@
+package com.ocs.analytics.domain;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Allocates the memory of the {@link StatisticColumns}. Columns of multi-year datasets are allocated outside of the
+ * heap (in direct buffers) as long as the off-heap memory that is in use stays within the configured budget, so that
+ * large datasets don't have to be copied and marked by the garbage collector. Small columns and columns that don't fit
+ * in the budget anymore are allocated on the heap.
+ * <p>
+ * The budget is shared by the whole process and is disabled (0) until it is configured with {@link #configure(long)}.
+ * Off-heap memory is returned to the budget when the garbage collector has collected the buffer that used it.
+ *
+ * @author Bas Piepers
+ */
+public final class ColumnMemory {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ColumnMemory.class);
+
+    /**
+     * Columns smaller than this amount of bytes are always allocated on the heap, it is not worth the more expensive
+     * allocation of a direct buffer.
+     */
+    public static final int OFF_HEAP_THRESHOLD = 64 * 1024;
+
+    private static final AtomicLong RESERVED = new AtomicLong();
+    private static final ReferenceQueue<ByteBuffer> COLLECTED = new ReferenceQueue<>();
+    // Keeps the references reachable until their buffer has been collected.
+    private static final Set<Allocation> ALLOCATIONS = ConcurrentHashMap.newKeySet();
+    private static volatile long budget;
+
+    private ColumnMemory() {
+        // Only static methods.
+    }
+
+    /**
+     * Sets the maximum amount of bytes that the columns may allocate outside of the heap. A budget of 0 allocates all
+     * columns on the heap.
+     */
+    public static void configure(long budget) {
+        if (budget < 0) {
+            throw new IllegalArgumentException("The off-heap budget must be at least 0 bytes (" + budget + ").");
+        }
+        LOGGER.debug("Columns may use {} bytes of off-heap memory.", budget);
+        ColumnMemory.budget = budget;
+    }
+
+    public static long budget() {
+        return budget;
+    }
+
+    /**
+     * @return the amount of off-heap bytes of the buffers that have not been collected yet.
+     */
+    public static long reserved() {
+        release();
+        return RESERVED.get();
+    }
+
+    /**
+     * Allocates a zeroed buffer in the native byte order, off-heap if it is large enough and fits in the budget.
+     */
+    public static ByteBuffer allocate(int bytes) {
+        if (bytes >= OFF_HEAP_THRESHOLD && reserve(bytes)) {
+            try {
+                ByteBuffer buffer = ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+                ALLOCATIONS.add(new Allocation(buffer, bytes));
+                return buffer;
+            } catch (OutOfMemoryError e) {
+                // The direct memory of the JVM (-XX:MaxDirectMemorySize) is smaller than the budget.
+                RESERVED.addAndGet(-bytes);
+                LOGGER.warn("Could not allocate {} bytes of off-heap memory, allocating them on the heap.", bytes);
+            }
+        }
+        return ByteBuffer.allocate(bytes).order(ByteOrder.nativeOrder());
+    }
+
+    private static boolean reserve(int bytes) {
+        release();
+        long reserved;
+        do {
+            reserved = RESERVED.get();
+            if (reserved + bytes > budget) {
+                return false;
+            }
+        } while (!RESERVED.compareAndSet(reserved, reserved + bytes));
+        return true;
+    }
+
+    // Returns the memory of the collected buffers to the budget.
+    private static void release() {
+        Reference<? extends ByteBuffer> reference;
+        while ((reference = COLLECTED.poll()) != null) {
+            Allocation allocation = (Allocation) reference;
+            if (ALLOCATIONS.remove(allocation)) {
+                RESERVED.addAndGet(-allocation.bytes);
+            }
+        }
+    }
+
+    private static class Allocation extends PhantomReference<ByteBuffer> {
+        private final int bytes;
+
+        private Allocation(ByteBuffer buffer, int bytes) {
+            super(buffer, COLLECTED);
+            this.bytes = bytes;
+        }
+    }
+}
@@ -10,7 +10,15 @@ import java.time.MonthDay;
 @DataObject
 public class Day implements Serializable {
 
-    private int value;
+    private static final Day[] CACHE = new Day[32];
+
+    static {
+        for (int i = 1; i < CACHE.length; i++) {
+            CACHE[i] = new Day(i);
+        }
+    }
+
+    private final int value;
 
     public Day(JsonObject jsonObject) {
         this.value = jsonObject.getInteger("day");
@@ -24,7 +32,7 @@ public class Day implements Serializable {
         if (value > 31 || value < 1) {
             throw new IllegalArgumentException("Invalid value for day of month.");
         }
-        return new Day(value);
+        return CACHE[value];
     }
 
     // May throw an exception if the value is too high (eg for months that don't have 31 days while value is 31).
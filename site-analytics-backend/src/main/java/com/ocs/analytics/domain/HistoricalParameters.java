@@ -5,6 +5,8 @@ import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.reactivex.core.MultiMap;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
@@ -74,9 +76,10 @@ public class HistoricalParameters {
 
     /**
      * A fixed set of parameters specifically so that they match what the {@link WeatherMeasurement} expects (and in
-     * which order). Fixed station that corresponds to "De Bilt" in The Netherlands.
+     * which order), see {@link WeatherMeasurement#VARIABLES}. Fixed station that corresponds to "De Bilt" in The
+     * Netherlands.
      * <p>
-     * Validates that no more than one year of data is requested.
+     * Any range can be requested, use {@link #split(int)} to request a long range in smaller windows.
      *
      * @param startYear,  the year from which the values must start to return.
      * @param startMonth, the first month of the values to take
@@ -91,17 +94,79 @@ public class HistoricalParameters {
      */
     public static final HistoricalParameters forWeatherMeasurement(int startYear, int startMonth, int startDay, int endYear, int endMonth,
                                                                    int endDay, int startHour, int endHour) {
-        HistoricalParameters h = new HistoricalParameters("nl", startYear, startMonth, startDay, endYear, endMonth, endDay, startHour + 1, endHour + 1, "260", "T", "T10N", "SQ", "DR", "RH", "N", "U", "M", "R", "S", "O", "Y");
+        HistoricalParameters h = new HistoricalParameters("nl", startYear, startMonth, startDay, endYear, endMonth, endDay, startHour + 1, endHour + 1, "260", WeatherMeasurement.VARIABLES.toArray(new String[0]));
         h.validate();
         return h;
     }
 
+    /**
+     * Splits these parameters into windows of whole calendar months (except for the first and last window, which start
+     * and end where these parameters start and end). The windows don't overlap and together cover the same hours as
+     * these parameters.
+     *
+     * @param months, the maximum amount of calendar months of one window.
+     * @return the windows in chronological order.
+     */
+    public List<HistoricalParameters> split(int months) {
+        if (months < 1) {
+            throw new IllegalArgumentException("A window must contain at least one month (" + months + ").");
+        }
+        List<HistoricalParameters> windows = new ArrayList<>();
+        LocalDate end = LocalDate.of(this.endYear, this.endMonth, this.endDay);
+        LocalDate start = LocalDate.of(this.startYear, this.startMonth, this.startDay);
+        int hour = this.startHour;
+        LocalDate last = start.withDayOfMonth(1).plusMonths(months).minusDays(1);
+        while (last.isBefore(end)) {
+            windows.add(this.window(start, hour, last, 24));
+            start = last.plusDays(1);
+            hour = 1;
+            last = start.plusMonths(months).minusDays(1);
+        }
+        windows.add(this.window(start, hour, end, this.endHour));
+        return windows;
+    }
+
+    /**
+     * Creates the parameters of a part of the range of these parameters. The part starts at the start hour of these
+     * parameters if it starts on their start day and ends at their end hour if it ends on their end day, otherwise it
+     * contains whole days.
+     *
+     * @param start, the first day of the part, not before the start day of these parameters.
+     * @param end,   the last day of the part, not after the end day of these parameters.
+     * @return the parameters of the part.
+     */
+    public HistoricalParameters between(LocalDate start, LocalDate end) {
+        LocalDate first = LocalDate.of(this.startYear, this.startMonth, this.startDay);
+        LocalDate last = LocalDate.of(this.endYear, this.endMonth, this.endDay);
+        if (start.isBefore(first) || end.isAfter(last) || end.isBefore(start)) {
+            throw new IllegalArgumentException("The part from " + start + " to " + end + " is not within the range from " +
+                    first + " to " + last + ".");
+        }
+        return this.window(start, start.equals(first) ? this.startHour : 1, end, end.equals(last) ? this.endHour : 24);
+    }
+
+    private HistoricalParameters window(LocalDate start, int startHour, LocalDate end, int endHour) {
+        return new HistoricalParameters(this.language, start.getYear(), start.getMonthValue(), start.getDayOfMonth(),
+                end.getYear(), end.getMonthValue(), end.getDayOfMonth(), startHour, endHour, this.stations,
+                Objects.isNull(this.variables) ? null : this.variables.toArray(new String[0]));
+    }
+
+    /**
+     * @return the amount of hours from the start hour of the start day up to and including the end hour of the end day,
+     * which is the amount of records the weather site returns for these parameters.
+     */
+    public long hours() {
+        long days = LocalDate.of(this.endYear, this.endMonth, this.endDay).toEpochDay() -
+                LocalDate.of(this.startYear, this.startMonth, this.startDay).toEpochDay();
+        return days * 24 + this.endHour - this.startHour + 1;
+    }
+
     /**
      * Used to map the fields of this object to something we can put in a form in the
      * {@link io.vertx.core.http.HttpClient}
      * <p>
-     * Note: we don't take the hour fields into account because it may result in a partial day for all records (in case
-     * the last day of the site statistics only contains partial day content).
+     * The form contains the hours as well, so the weather site only returns the records of the hours from the start
+     * hour up to and including the end hour (see {@link #hours()}).
      *
      * @return a multimap with the contents of the fields of this object.
      */
@@ -110,10 +175,12 @@ public class HistoricalParameters {
         multiMap.add("lang", this.language)
                 .add("byear", String.valueOf(this.startYear))
                 .add("bmonth", String.valueOf(this.startMonth))
-                .add("bday", String.valueOf(this.startMonth))
+                .add("bday", String.valueOf(this.startDay))
+                .add("bhour", String.valueOf(this.startHour))
                 .add("eyear", String.valueOf(this.endYear))
                 .add("emonth", String.valueOf(this.endMonth))
                 .add("eday", String.valueOf(this.endDay))
+                .add("ehour", String.valueOf(this.endHour))
                 .add("stations", this.stations)
                 .add("submit", SUBMIT);
 
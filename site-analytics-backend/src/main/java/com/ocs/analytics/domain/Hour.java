@@ -14,7 +14,15 @@ import java.io.Serializable;
 @DataObject
 public class Hour implements Serializable {
 
-    private int value;
+    private static final Hour[] CACHE = new Hour[24];
+
+    static {
+        for (int i = 0; i < CACHE.length; i++) {
+            CACHE[i] = new Hour(i);
+        }
+    }
+
+    private final int value;
 
     public Hour(JsonObject jsonObject) {
         this.value = jsonObject.getInteger("hour");
@@ -29,7 +37,7 @@ public class Hour implements Serializable {
             throw new IllegalArgumentException("Invalid value for hour of day (" + value + ").");
         }
 
-        return new Hour(value);
+        return CACHE[value];
     }
 
     public int getValue() {
@@ -1,5 +1,6 @@
 package com.ocs.analytics.domain;
 
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 import com.fasterxml.jackson.annotation.JsonUnwrapped;
 import io.vertx.codegen.annotations.DataObject;
 import io.vertx.core.json.JsonObject;
@@ -8,73 +9,149 @@ import java.io.Serializable;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.time.ZoneId;
 
 /**
  * The hour, day, month and year in the analytics data. Is used to sort and provide a way to match the statistics data
  * to the data that comes back from the weather station.
+ * <p>
+ * The hour is stored as one int: the amount of hours since 1970-01-01 00:00 of the (local) date and hour (the "epoch
+ * hour"). The year, month, day and hour are calculated from it when they are asked for, comparing, hashing and grouping
+ * per day only need integer arithmetic.
  *
  * @author Bas Piepers
  */
 @DataObject
-public class HourOfDay implements Serializable {
-    @JsonUnwrapped(prefix = "year.")
-    private Year year;
-    @JsonUnwrapped(prefix = "month.")
-    private Month month;
-    @JsonUnwrapped(prefix = "day.")
-    private Day day;
-    @JsonUnwrapped(prefix = "hour.")
-    private Hour hour;
+@JsonPropertyOrder({"year", "month", "day", "hour"})
+public class HourOfDay implements Comparable<HourOfDay>, Serializable {
+    private static final ZoneId AMSTERDAM = ZoneId.of("Europe/Amsterdam");
+    // The days from 0000-03-01 to 1970-01-01.
+    private static final int DAYS_0000_TO_1970 = 719468;
+    private static final int DAYS_PER_ERA = 146097;
+    private static final int EPOCH_HOUR_OF_YEAR_0 = (int) epochDay(0, 1, 1) * 24;
+
+    private final int epochHour;
 
     public HourOfDay(JsonObject jsonObject) {
-        this.year = Year.of(jsonObject.getInteger("year.value"));
-        this.month = Month.of(jsonObject.getInteger("month.value"));
-        this.day = Day.of(jsonObject.getInteger("day.value"));
-        this.hour = Hour.of(jsonObject.getInteger("hour.value"));
+        this(jsonObject.getInteger("year.value"), jsonObject.getInteger("month.value"),
+                jsonObject.getInteger("day.value"), jsonObject.getInteger("hour.value"));
     }
 
     public HourOfDay(Year year, Month month, Day day, Hour hour) {
-        this.year = year;
-        this.month = month;
-        this.day = day;
-        this.hour = hour;
+        this(year.getValue(), month.getValue(), day.getValue(), hour.getValue());
+    }
+
+    private HourOfDay(int year, int month, int day, int hour) {
+        this.epochHour = epochHour(year, month, day, hour);
+    }
+
+    private HourOfDay(int epochHour) {
+        this.epochHour = epochHour;
     }
 
     public static HourOfDay of(int year, int month, int day, int hour) {
-        return new HourOfDay(Year.of(year), Month.of(month), Day.of(day), Hour.of(hour));
+        return new HourOfDay(year, month, day, hour);
     }
 
+    public static HourOfDay ofEpochHour(int epochHour) {
+        if (epochHour < EPOCH_HOUR_OF_YEAR_0) {
+            throw new IllegalArgumentException("Invalid epoch hour (" + epochHour + ").");
+        }
+        return new HourOfDay(epochHour);
+    }
+
+    /**
+     * Calculates the epoch hour without creating a {@link LocalDate}, because it is called for every row of an import
+     * and every weather measurement.
+     *
+     * @return the amount of hours since 1970-01-01 00:00 of the given date and hour.
+     */
+    public static int epochHour(int year, int month, int day, int hour) {
+        if (year < 0 || month < 1 || month > 12 || day < 1 ||
+                day > java.time.Month.of(month).length(java.time.Year.isLeap(year)) || hour < 0 || hour > 23) {
+            throw new IllegalArgumentException("Invalid hour of the day: " + year + "-" + month + "-" + day + " " + hour + ".");
+        }
+        return Math.toIntExact(epochDay(year, month, day) * 24 + hour);
+    }
+
+    // The days since 1970-01-01 of a valid date in the proleptic gregorian calendar (like LocalDate#toEpochDay()).
+    private static long epochDay(long year, int month, int day) {
+        // Count the years from March so that the leap day is the last day of a year.
+        long y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * DAYS_PER_ERA + dayOfEra - DAYS_0000_TO_1970;
+    }
+
+    // The date of the epoch hour as yyyyMMdd, the inverse of epochDay.
+    private int date() {
+        int days = Math.floorDiv(this.epochHour, 24) + DAYS_0000_TO_1970;
+        int era = Math.floorDiv(days, DAYS_PER_ERA);
+        int dayOfEra = days - era * DAYS_PER_ERA;
+        int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int shiftedMonth = (5 * dayOfYear + 2) / 153;
+        int day = dayOfYear - (153 * shiftedMonth + 2) / 5 + 1;
+        int month = shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+        int year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        return (year * 100 + month) * 100 + day;
+    }
+
+    /**
+     * @return the amount of hours since 1970-01-01 00:00 of this hour.
+     */
+    public int epochHour() {
+        return this.epochHour;
+    }
+
+    /**
+     * @return the amount of days since 1970-01-01 of this hour.
+     */
+    public int epochDay() {
+        return Math.floorDiv(this.epochHour, 24);
+    }
+
+    @JsonUnwrapped(prefix = "year.")
     public Year getYear() {
-        return year;
+        return Year.of(this.date() / 10000);
     }
 
     public String yearAsString() {
-        return String.valueOf(year.getValue());
+        return String.valueOf(this.date() / 10000);
     }
 
     public String monthAsString() {
-        return String.valueOf(month.getValue());
+        return String.valueOf(this.date() / 100 % 100);
     }
 
     public String dayAsString() {
-        return String.valueOf(day.getValue());
+        return String.valueOf(this.date() % 100);
     }
 
     public String hourAsString() {
-        return String.valueOf(hour.getValue());
+        return String.valueOf(this.hour());
     }
 
+    @JsonUnwrapped(prefix = "month.")
     public Month getMonth() {
-        return month;
+        return Month.of(this.date() / 100 % 100);
     }
 
+    @JsonUnwrapped(prefix = "day.")
     public Day getDay() {
-        return day;
+        return Day.of(this.date() % 100);
     }
 
+    @JsonUnwrapped(prefix = "hour.")
     public Hour getHour() {
-        return hour;
+        return Hour.of(this.hour());
+    }
+
+    private int hour() {
+        return Math.floorMod(this.epochHour, 24);
     }
 
     /**
@@ -85,9 +162,7 @@ public class HourOfDay implements Serializable {
      * @return an instant representation of this class.
      */
     public Instant asInstant() {
-        return asLocalDateTime()
-                .atZone(ZoneId.of("Europe/Amsterdam"))
-                .toInstant();
+        return asInstantAtTz(AMSTERDAM);
     }
 
     public Instant asInstantAtTz(ZoneId zoneId) {
@@ -97,16 +172,11 @@ public class HourOfDay implements Serializable {
     }
 
     public LocalDate asLocalDate() {
-        return LocalDate.of(this.year.getValue(), this.month.getValue(), this.day.getValue());
+        return LocalDate.ofEpochDay(this.epochDay());
     }
 
     public LocalDateTime asLocalDateTime() {
-        return LocalDateTime
-                .of(this.year.getValue(),
-                        this.month.getValue(),
-                        this.day.getValue(),
-                        this.hour.getValue(),
-                        0);
+        return LocalDateTime.of(this.asLocalDate(), LocalTime.of(this.hour(), 0));
     }
 
     /**
@@ -115,13 +185,16 @@ public class HourOfDay implements Serializable {
      * @return an Integer that contains the year, month and day.
      */
     public Integer yearMonthDayAsFormattedInteger() {
-        return Integer.valueOf(year.getValue() + "" +
-                (month.getValue() < 10 ? "0" + month.getValue() : month.getValue()) +
-                (day.getValue() < 10 ? "0" + dayAsString() : dayAsString()));
+        return this.date();
     }
 
     public boolean isMidnight() {
-        return getHour().getValue() == 0;
+        return this.hour() == 0;
+    }
+
+    @Override
+    public int compareTo(HourOfDay o) {
+        return Integer.compare(this.epochHour, o.epochHour);
     }
 
     @Override
@@ -131,28 +204,21 @@ public class HourOfDay implements Serializable {
 
         HourOfDay hourOfDay = (HourOfDay) o;
 
-        if (!year.equals(hourOfDay.year)) return false;
-        if (!month.equals(hourOfDay.month)) return false;
-        if (!day.equals(hourOfDay.day)) return false;
-        return hour.equals(hourOfDay.hour);
+        return epochHour == hourOfDay.epochHour;
     }
 
     @Override
     public int hashCode() {
-        int result = year.hashCode();
-        result = 31 * result + month.hashCode();
-        result = 31 * result + day.hashCode();
-        result = 31 * result + hour.hashCode();
-        return result;
+        return epochHour;
     }
 
     @Override
     public String toString() {
         return "HourOfDay{" +
-                "year=" + year +
-                ", month=" + month +
-                ", day=" + day +
-                ", hour=" + hour +
+                "year=" + getYear() +
+                ", month=" + getMonth() +
+                ", day=" + getDay() +
+                ", hour=" + getHour() +
                 '}';
     }
 }
@@ -0,0 +1,169 @@
+package com.ocs.analytics.domain;
+
+import java.util.Arrays;
+
+/**
+ * Aggregates the rows of an import per hour of the day in primitive counters, so that a file with more than one row
+ * for the same hour (like concatenated or overlapping exports) can be imported in one pass without creating an object
+ * for every row. The rows of an hour are merged according to the {@link Policy} of the aggregation.
+ * <p>
+ * The hours are kept in an open addressing table that is keyed by the epoch hour of the hour (see
+ * {@link HourOfDay#epochHour()}), which fits in an integer for every year. An instance is not thread safe,
+ * aggregations of parts of a file can be combined with {@link #addAll(HourlyAggregation)}.
+ *
+ * @author Bas Piepers
+ */
+public class HourlyAggregation {
+    private static final int INITIAL_CAPACITY = 1024;
+    // Used as the key of an empty slot, it is before the first epoch hour of year 0.
+    private static final int EMPTY = Integer.MIN_VALUE;
+
+    /**
+     * How the rows for the same hour are merged. FIRST keeps the values of the first row (which is what an import
+     * without aggregation does), SUM adds the values of all rows and MAX keeps the highest value of each column.
+     */
+    public enum Policy {
+        FIRST, SUM, MAX
+    }
+
+    private final Policy policy;
+    private int[] keys;
+    private long[] users;
+    private long[] newUsers;
+    private long[] sessions;
+    private int size;
+
+    public HourlyAggregation(Policy policy) {
+        this.policy = policy;
+        this.allocate(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Adds the row that was last decoded by the given decoder.
+     *
+     * @param decoder, a decoder that has successfully decoded a line from the site-statistics import.
+     */
+    public void add(SiteStatisticDecoder decoder) {
+        this.add(HourOfDay.epochHour(decoder.year(), decoder.month(), decoder.day(), decoder.hour()),
+                decoder.users(), decoder.newUsers(), decoder.sessions());
+    }
+
+    public void add(SiteStatistic siteStatistic) {
+        this.add(siteStatistic.getHourOfDay().epochHour(), siteStatistic.getUsers(), siteStatistic.getNewUsers(),
+                siteStatistic.getSessions());
+    }
+
+    /**
+     * Adds all hours of the given aggregation as if its rows were added after the rows of this aggregation.
+     *
+     * @param aggregation, the aggregation of a later part of the import.
+     */
+    public void addAll(HourlyAggregation aggregation) {
+        for (int slot = 0; slot < aggregation.keys.length; slot++) {
+            if (aggregation.keys[slot] != EMPTY) {
+                this.add(aggregation.keys[slot], aggregation.users[slot], aggregation.newUsers[slot],
+                        aggregation.sessions[slot]);
+            }
+        }
+    }
+
+    /**
+     * @return the amount of distinct hours.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * @return one site statistic for every distinct hour.
+     */
+    public SiteStatistics toSiteStatistics() {
+        SiteStatistics siteStatistics = new SiteStatistics();
+        StatisticColumns columns = siteStatistics.columns();
+        // The range of the hours is allocated before they are added.
+        int first = Integer.MAX_VALUE;
+        int last = Integer.MIN_VALUE;
+        for (int key : this.keys) {
+            if (key != EMPTY) {
+                first = Math.min(first, key);
+                last = Math.max(last, key);
+            }
+        }
+        if (this.size == 0) {
+            return siteStatistics;
+        }
+        columns.reserve(first, last);
+        for (int slot = 0; slot < this.keys.length; slot++) {
+            if (this.keys[slot] != EMPTY) {
+                columns.add(this.keys[slot], this.users[slot], this.newUsers[slot], this.sessions[slot]);
+            }
+        }
+        return siteStatistics;
+    }
+
+    private void add(int key, long users, long newUsers, long sessions) {
+        int slot = this.slot(key);
+        if (this.keys[slot] == EMPTY) {
+            this.keys[slot] = key;
+            this.users[slot] = users;
+            this.newUsers[slot] = newUsers;
+            this.sessions[slot] = sessions;
+            if (++this.size > this.keys.length / 2) {
+                this.grow();
+            }
+            return;
+        }
+
+        switch (this.policy) {
+            case SUM:
+                this.users[slot] += users;
+                this.newUsers[slot] += newUsers;
+                this.sessions[slot] += sessions;
+                break;
+            case MAX:
+                this.users[slot] = Math.max(this.users[slot], users);
+                this.newUsers[slot] = Math.max(this.newUsers[slot], newUsers);
+                this.sessions[slot] = Math.max(this.sessions[slot], sessions);
+                break;
+            default:
+                // Keep the first row.
+                break;
+        }
+    }
+
+    // The slot that contains the key or the empty slot where it belongs (linear probing).
+    private int slot(int key) {
+        int mask = this.keys.length - 1;
+        int hash = key * 0x9E3779B9;
+        int slot = (hash ^ hash >>> 16) & mask;
+        while (this.keys[slot] != EMPTY && this.keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        int[] oldKeys = this.keys;
+        long[] oldUsers = this.users;
+        long[] oldNewUsers = this.newUsers;
+        long[] oldSessions = this.sessions;
+        this.allocate(oldKeys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = this.slot(oldKeys[i]);
+                this.keys[slot] = oldKeys[i];
+                this.users[slot] = oldUsers[i];
+                this.newUsers[slot] = oldNewUsers[i];
+                this.sessions[slot] = oldSessions[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        this.keys = new int[capacity];
+        Arrays.fill(this.keys, EMPTY);
+        this.users = new long[capacity];
+        this.newUsers = new long[capacity];
+        this.sessions = new long[capacity];
+    }
+}
@@ -7,7 +7,15 @@ import java.io.Serializable;
 
 @DataObject
 public class Month implements Serializable {
-    private int value;
+    private static final Month[] CACHE = new Month[13];
+
+    static {
+        for (int i = 1; i < CACHE.length; i++) {
+            CACHE[i] = new Month(i);
+        }
+    }
+
+    private final int value;
 
     public Month(JsonObject jsonObject) {
         this.value = jsonObject.getInteger("month");
@@ -21,7 +29,7 @@ public class Month implements Serializable {
         if (value > 12 || value < 1) {
             throw new IllegalArgumentException("Invalid value for month (" + value + ").");
         }
-        return new Month(value);
+        return CACHE[value];
     }
 
     public java.time.Month asTimeMonth() {
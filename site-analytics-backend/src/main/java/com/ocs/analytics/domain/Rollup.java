@@ -0,0 +1,252 @@
+package com.ocs.analytics.domain;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.temporal.IsoFields;
+
+/**
+ * The statistics and weather measurements of a period (a day, an ISO week or a month) aggregated from the hours of that
+ * period: the sums of the users, new users and sessions, the minimum, mean and maximum temperature and the amount of
+ * hours in which it rained. A longer range can be shown from a few of these rows instead of thousands of hours.
+ * <p>
+ * Like {@link StatisticColumns}, every value is kept in a primitive column that is indexed by the number of the period
+ * (see {@link Period#index(LocalDate)}) minus the number of the first period of the columns. An instance is not
+ * thread safe.
+ *
+ * @author Bas Piepers
+ */
+public class Rollup implements Serializable {
+    private static final int INITIAL_CAPACITY = 16;
+
+    public enum Period {
+        DAY {
+            @Override
+            public int index(LocalDate date) {
+                return Math.toIntExact(date.toEpochDay());
+            }
+
+            @Override
+            public LocalDate start(int index) {
+                return LocalDate.ofEpochDay(index);
+            }
+
+            @Override
+            String label(LocalDate start) {
+                return start.toString();
+            }
+        },
+        WEEK {
+            // The epoch day 0 (1970-01-01) is on a Thursday, so weeks start at the epoch days -3 + 7n.
+            @Override
+            public int index(LocalDate date) {
+                return Math.toIntExact(Math.floorDiv(date.toEpochDay() + 3, 7));
+            }
+
+            @Override
+            public LocalDate start(int index) {
+                return LocalDate.ofEpochDay(index * 7L - 3);
+            }
+
+            @Override
+            String label(LocalDate start) {
+                return String.format("%d-W%02d", start.get(IsoFields.WEEK_BASED_YEAR), start.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+            }
+        },
+        MONTH {
+            @Override
+            public int index(LocalDate date) {
+                return date.getYear() * 12 + date.getMonthValue() - 1;
+            }
+
+            @Override
+            public LocalDate start(int index) {
+                return LocalDate.of(Math.floorDiv(index, 12), Math.floorMod(index, 12) + 1, 1);
+            }
+
+            @Override
+            String label(LocalDate start) {
+                return String.format("%d-%02d", start.getYear(), start.getMonthValue());
+            }
+        };
+
+        /**
+         * @return the number of the period that contains the date, consecutive periods have consecutive numbers.
+         */
+        public abstract int index(LocalDate date);
+
+        /**
+         * @return the first day of the period with the given number.
+         */
+        public abstract LocalDate start(int index);
+
+        abstract String label(LocalDate start);
+    }
+
+    private final Period period;
+    // The number of the period of index 0 of the columns.
+    private int origin;
+    private int capacity;
+
+    private long[] users = new long[0];
+    private long[] newUsers = new long[0];
+    private long[] sessions = new long[0];
+    private int[] hours = new int[0];
+    private int[] measuredHours = new int[0];
+    private int[] rainHours = new int[0];
+    private int[] minTemperature = new int[0];
+    private int[] maxTemperature = new int[0];
+    private long[] temperatureSum = new long[0];
+
+    public Rollup(Period period) {
+        this.period = period;
+    }
+
+    public Period getPeriod() {
+        return period;
+    }
+
+    /**
+     * Adds the statistics of one hour to the period with the given number.
+     */
+    public void add(int index, long users, long newUsers, long sessions) {
+        int i = this.slot(index);
+        this.users[i] += users;
+        this.newUsers[i] += newUsers;
+        this.sessions[i] += sessions;
+        this.hours[i]++;
+    }
+
+    /**
+     * Adds the packed weather measurement (see {@link WeatherMeasurement#packed()}) of one hour to the period with the
+     * given number.
+     */
+    public void measure(int index, long packedWeatherMeasurement) {
+        int i = this.slot(index);
+        int temperature = WeatherMeasurement.temperature(packedWeatherMeasurement);
+        this.minTemperature[i] = this.measuredHours[i] == 0 ? temperature : Math.min(this.minTemperature[i], temperature);
+        this.maxTemperature[i] = this.measuredHours[i] == 0 ? temperature : Math.max(this.maxTemperature[i], temperature);
+        this.temperatureSum[i] += temperature;
+        this.measuredHours[i]++;
+        if (WeatherMeasurement.rain(packedWeatherMeasurement)) {
+            this.rainHours[i]++;
+        }
+    }
+
+    /**
+     * Adds a row of another rollup (of a shorter period) to the period with the given number.
+     */
+    public void add(int index, Rollup rollup, int rollupIndex) {
+        int from = rollupIndex - rollup.origin;
+        if (from < 0 || from >= rollup.capacity || rollup.hours[from] == 0) {
+            return;
+        }
+        int i = this.slot(index);
+        this.users[i] += rollup.users[from];
+        this.newUsers[i] += rollup.newUsers[from];
+        this.sessions[i] += rollup.sessions[from];
+        this.hours[i] += rollup.hours[from];
+        if (rollup.measuredHours[from] > 0) {
+            this.minTemperature[i] = this.measuredHours[i] == 0 ? rollup.minTemperature[from] : Math.min(this.minTemperature[i], rollup.minTemperature[from]);
+            this.maxTemperature[i] = this.measuredHours[i] == 0 ? rollup.maxTemperature[from] : Math.max(this.maxTemperature[i], rollup.maxTemperature[from]);
+            this.temperatureSum[i] += rollup.temperatureSum[from];
+            this.measuredHours[i] += rollup.measuredHours[from];
+            this.rainHours[i] += rollup.rainHours[from];
+        }
+    }
+
+    /**
+     * @return the amount of periods with statistics.
+     */
+    public int size() {
+        int size = 0;
+        for (int i = 0; i < this.capacity; i++) {
+            if (this.hours[i] > 0) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * @return the periods with statistics in chronological order. The temperatures are in 0.1 degrees celsius and are
+     * left out of a period without weather measurements.
+     */
+    public JsonArray toJson() {
+        JsonArray rows = new JsonArray();
+        for (int i = 0; i < this.capacity; i++) {
+            if (this.hours[i] > 0) {
+                rows.add(this.row(i));
+            }
+        }
+        return rows;
+    }
+
+    private JsonObject row(int i) {
+        LocalDate start = this.period.start(this.origin + i);
+        JsonObject row = new JsonObject()
+                .put("period", this.period.label(start))
+                .put("start", start.toString())
+                .put("hours", this.hours[i])
+                .put("users", this.users[i])
+                .put("newUsers", this.newUsers[i])
+                .put("sessions", this.sessions[i])
+                .put("measuredHours", this.measuredHours[i])
+                .put("rainHours", this.rainHours[i]);
+        if (this.measuredHours[i] > 0) {
+            row.put("minTemperature", this.minTemperature[i])
+                    .put("meanTemperature", Math.round((double) this.temperatureSum[i] / this.measuredHours[i]))
+                    .put("maxTemperature", this.maxTemperature[i]);
+        }
+        return row;
+    }
+
+    // The index of the period in the columns, the columns are grown if they don't contain the period yet.
+    private int slot(int index) {
+        if (this.capacity == 0) {
+            this.origin = index;
+            this.allocate(0, INITIAL_CAPACITY);
+        }
+        long i = (long) index - this.origin;
+        if (i < 0 || i >= this.capacity) {
+            // Grow towards the side of the new period.
+            this.origin = ColumnGrowth.grow(this.origin, this.capacity, index, index, i < 0, Integer.MAX_VALUE,
+                    this::allocate);
+        }
+        return index - this.origin;
+    }
+
+    // Reallocates the columns with the given capacity and copies the current columns to the given offset.
+    private void allocate(int offset, int capacity) {
+        this.users = copy(this.users, new long[capacity], offset);
+        this.newUsers = copy(this.newUsers, new long[capacity], offset);
+        this.sessions = copy(this.sessions, new long[capacity], offset);
+        this.temperatureSum = copy(this.temperatureSum, new long[capacity], offset);
+        this.hours = copy(this.hours, new int[capacity], offset);
+        this.measuredHours = copy(this.measuredHours, new int[capacity], offset);
+        this.rainHours = copy(this.rainHours, new int[capacity], offset);
+        this.minTemperature = copy(this.minTemperature, new int[capacity], offset);
+        this.maxTemperature = copy(this.maxTemperature, new int[capacity], offset);
+        this.capacity = capacity;
+    }
+
+    private static long[] copy(long[] from, long[] to, int offset) {
+        System.arraycopy(from, 0, to, offset, from.length);
+        return to;
+    }
+
+    private static int[] copy(int[] from, int[] to, int offset) {
+        System.arraycopy(from, 0, to, offset, from.length);
+        return to;
+    }
+
+    @Override
+    public String toString() {
+        return "Rollup{" +
+                "period=" + period +
+                ", size=" + this.size() +
+                '}';
+    }
+}
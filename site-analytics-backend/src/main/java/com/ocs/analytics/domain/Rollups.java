@@ -0,0 +1,69 @@
+package com.ocs.analytics.domain;
+
+import io.vertx.core.json.JsonObject;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * The daily, ISO-weekly and monthly {@link Rollup}s of site statistics. The rollups are maintained day by day while
+ * the statistics are read: the hours of a day are added to the row of the day, which is then added to the rows of its
+ * week and month. Every day must be added once.
+ *
+ * @author Bas Piepers
+ */
+public class Rollups implements Serializable {
+    private final Rollup days = new Rollup(Rollup.Period.DAY);
+    private final Rollup weeks = new Rollup(Rollup.Period.WEEK);
+    private final Rollup months = new Rollup(Rollup.Period.MONTH);
+
+    /**
+     * Adds the statistics and weather measurements of the hours of one day of the columns.
+     *
+     * @param columns,  the columns with the statistics.
+     * @param epochDay, the day (see {@link HourOfDay#epochDay()}).
+     */
+    public void addDay(StatisticColumns columns, int epochDay) {
+        int midnight = epochDay * 24;
+        int hour = columns.contains(midnight) ? midnight : columns.nextHour(midnight);
+        if (hour == StatisticColumns.NONE || hour >= midnight + 24) {
+            return;
+        }
+        for (; hour != StatisticColumns.NONE && hour < midnight + 24; hour = columns.nextHour(hour)) {
+            this.days.add(epochDay, columns.users(hour), columns.newUsers(hour), columns.sessions(hour));
+            if (columns.isMeasured(hour)) {
+                this.days.measure(epochDay, columns.packedWeatherMeasurement(hour));
+            }
+        }
+        LocalDate date = LocalDate.ofEpochDay(epochDay);
+        this.weeks.add(Rollup.Period.WEEK.index(date), this.days, epochDay);
+        this.months.add(Rollup.Period.MONTH.index(date), this.days, epochDay);
+    }
+
+    public Rollup get(Rollup.Period period) {
+        switch (period) {
+            case WEEK:
+                return this.weeks;
+            case MONTH:
+                return this.months;
+            default:
+                return this.days;
+        }
+    }
+
+    public JsonObject toJson() {
+        return new JsonObject()
+                .put("days", this.days.toJson())
+                .put("weeks", this.weeks.toJson())
+                .put("months", this.months.toJson());
+    }
+
+    @Override
+    public String toString() {
+        return "Rollups{" +
+                "days=" + days +
+                ", weeks=" + weeks +
+                ", months=" + months +
+                '}';
+    }
+}
@@ -7,9 +7,7 @@ import io.vertx.core.json.JsonObject;
 import java.io.Serializable;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.Comparator;
 import java.util.Objects;
-import java.util.UUID;
 
 /**
  * Represents one statistic record of an imported file of a website enriched with (historical-) weather measurements. Is
@@ -17,6 +15,10 @@ import java.util.UUID;
  * <p>
  * SiteStatistic implements Comparable because we would like to be sure that we can sort it by the date
  * (the hour of the day).
+ * <p>
+ * Unless it is given one, a statistic is identified by its epoch hour (see {@link HourOfDay#epochHour()}). That id is
+ * unique within the statistics of an import because they contain one statistic per hour, and it is cheap to create
+ * and to send over the event bus.
  *
  * @author Bas Piepers
  */
@@ -26,7 +28,7 @@ public class SiteStatistic implements Comparable<SiteStatistic>, JsonDomainObjec
 
     private static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern(EXPECTED_FORMAT);
 
-    private final String id;
+    private final long id;
     @JsonUnwrapped
     private final HourOfDay hourOfDay;
     private final Long users;
@@ -36,7 +38,11 @@ public class SiteStatistic implements Comparable<SiteStatistic>, JsonDomainObjec
     private WeatherMeasurement weatherMeasurements;
 
 
-    public SiteStatistic(String id, HourOfDay hourOfDay, Long users, Long newUsers, Long sessions) {
+    public SiteStatistic(HourOfDay hourOfDay, Long users, Long newUsers, Long sessions) {
+        this(hourOfDay.epochHour(), hourOfDay, users, newUsers, sessions);
+    }
+
+    public SiteStatistic(long id, HourOfDay hourOfDay, Long users, Long newUsers, Long sessions) {
         this.id = id;
         this.hourOfDay = hourOfDay;
         this.users = users;
@@ -45,7 +51,7 @@ public class SiteStatistic implements Comparable<SiteStatistic>, JsonDomainObjec
     }
 
     public SiteStatistic(JsonObject jsonObject) {
-        this.id = jsonObject.getString("id");
+        this.id = jsonObject.getLong("id");
         this.hourOfDay = new HourOfDay(jsonObject);
         this.users = jsonObject.getLong("users");
         this.newUsers = jsonObject.getLong("newUsers");
@@ -73,17 +79,28 @@ public class SiteStatistic implements Comparable<SiteStatistic>, JsonDomainObjec
         Long newUsers = Long.valueOf(contents[2]);
         Long sessions = Long.valueOf(contents[3]);
 
-        return new SiteStatistic(UUID.randomUUID().toString(), new HourOfDay(Year.of(ldt.getYear()), Month.of(ldt.getMonthValue()),
+        return new SiteStatistic(new HourOfDay(Year.of(ldt.getYear()), Month.of(ldt.getMonthValue()),
                 Day.of(ldt.getDayOfMonth()), Hour.of(ldt.getHour())), users, newUsers, sessions);
     }
 
+    /**
+     * Maps the line that was last decoded by the given decoder to an instance of this class.
+     *
+     * @param decoder, a decoder that has successfully decoded a line from the site-statistics import.
+     * @return an instance of this class with time data and site statistics.
+     */
+    public static SiteStatistic from(SiteStatisticDecoder decoder) {
+        return new SiteStatistic(HourOfDay.of(decoder.year(), decoder.month(),
+                decoder.day(), decoder.hour()), decoder.users(), decoder.newUsers(), decoder.sessions());
+    }
+
     public static SiteStatistic ofZeroWithWeatherData(HourOfDay hourOfDay, WeatherMeasurement weatherMeasurement) {
-        SiteStatistic ss = new SiteStatistic(UUID.randomUUID().toString(), hourOfDay, 0L, 0L, 0L);
+        SiteStatistic ss = new SiteStatistic(hourOfDay, 0L, 0L, 0L);
         ss.weatherMeasurement(weatherMeasurement);
         return ss;
     }
 
-    public String getId() {
+    public long getId() {
         return id;
     }
 
@@ -140,16 +157,9 @@ public class SiteStatistic implements Comparable<SiteStatistic>, JsonDomainObjec
         return this;
     }
 
-    // Note: this is slower than an old nested if construct but makes it more readable.
-    private static final Comparator<SiteStatistic> COMPARATOR = Comparator
-            .comparingInt((SiteStatistic ss) -> ss.hourOfDay.getYear().getValue())
-            .thenComparingInt(ss -> ss.hourOfDay.getMonth().getValue())
-            .thenComparingInt(ss -> ss.hourOfDay.getDay().getValue())
-            .thenComparingInt(ss -> ss.hourOfDay.getHour().getValue());
-
     @Override
     public int compareTo(SiteStatistic o) {
-        return COMPARATOR.compare(this, o);
+        return this.hourOfDay.compareTo(o.hourOfDay);
     }
 
     @Override
@@ -159,18 +169,18 @@ public class SiteStatistic implements Comparable<SiteStatistic>, JsonDomainObjec
 
         SiteStatistic that = (SiteStatistic) o;
 
-        return id.equals(that.id);
+        return id == that.id;
     }
 
     @Override
     public int hashCode() {
-        return id.hashCode();
+        return Long.hashCode(id);
     }
 
     @Override
     public String toString() {
         return "SiteStatistic{" +
-                "id='" + id + '\'' +
+                "id=" + id +
                 ", hourOfDay=" + hourOfDay +
                 ", users=" + users +
                 ", newUsers=" + newUsers +
@@ -0,0 +1,207 @@
+package com.ocs.analytics.domain;
+
+import io.vertx.core.Handler;
+import io.vertx.core.buffer.Buffer;
+
+/**
+ * Decodes one line of the site-statistics CSV import straight from the bytes of a {@link Buffer} into primitive
+ * fields. The line is validated the way the import always expected it (ten digits with the hour of the day followed
+ * by four numerical columns) and parsed in the same pass, so no intermediate Strings, regular expressions or
+ * formatters are involved.
+ * <p>
+ * An instance holds the values of the last line that was decoded successfully so that one instance can be reused for
+ * all lines of an import. It is therefore not thread-safe: use one instance per import (or per thread).
+ *
+ * @author Bas Piepers
+ */
+public class SiteStatisticDecoder {
+    /**
+     * The range of years of a record. The weather data starts in 1900 and the statistics are kept per hour of the span
+     * of the import (see {@link StatisticColumns}), so a year outside of this range is not a valid record.
+     */
+    public static final int MIN_YEAR = 1900;
+    public static final int MAX_YEAR = 2100;
+    private static final int HOUR_OF_DAY_LENGTH = 10;
+    private static final byte SEPARATOR = ',';
+
+    private int year;
+    private int month;
+    private int day;
+    private int hour;
+    private long users;
+    private long newUsers;
+    private long sessions;
+
+    /**
+     * Decodes the entire buffer as one line.
+     *
+     * @param buffer, the buffer that contains one line of the import.
+     * @return true if the line is a site-statistics record, false if it is something else (eg. a header).
+     * @throws IllegalArgumentException in case the line is a site-statistics record with values that are out of range.
+     */
+    public boolean decode(Buffer buffer) {
+        return this.decode(buffer, 0, buffer.length());
+    }
+
+    /**
+     * Decodes the bytes from (inclusive) to (exclusive) as one line. Leading and trailing whitespace (including a
+     * carriage return) is ignored. The values are only changed if the line is a valid record.
+     * <p>
+     * Like the smart resolver of java.time, a day of month beyond the end of a shorter month is set to the last day of
+     * that month.
+     *
+     * @param buffer, the buffer that contains the line.
+     * @param from,   the index of the first byte of the line.
+     * @param to,     the index after the last byte of the line.
+     * @return true if the line is a site-statistics record, false if it is something else (eg. a header).
+     * @throws IllegalArgumentException in case the line is a site-statistics record with values that are out of range.
+     */
+    public boolean decode(Buffer buffer, int from, int to) {
+        int start = from;
+        int end = to;
+        while (start < end && (buffer.getByte(start) & 0xFF) <= ' ') {
+            start++;
+        }
+        while (end > start && (buffer.getByte(end - 1) & 0xFF) <= ' ') {
+            end--;
+        }
+
+        if (end - start < HOUR_OF_DAY_LENGTH + 8) {
+            return false;
+        }
+
+        int yearValue = digits(buffer, start, 4);
+        int monthValue = digits(buffer, start + 4, 2);
+        int dayValue = digits(buffer, start + 6, 2);
+        int hourValue = digits(buffer, start + 8, 2);
+        if (yearValue < 0 || monthValue < 0 || dayValue < 0 || hourValue < 0) {
+            return false;
+        }
+
+        // Four numerical columns of which only the first three are used. Overflow is only reported once we know the
+        // whole line is a record.
+        long usersValue = 0L, newUsersValue = 0L, sessionsValue = 0L;
+        boolean overflow = false;
+        int pos = start + HOUR_OF_DAY_LENGTH;
+        for (int column = 0; column < 4; column++) {
+            if (pos >= end || buffer.getByte(pos) != SEPARATOR) {
+                return false;
+            }
+            pos++;
+            int columnStart = pos;
+            long value = 0L;
+            while (pos < end && buffer.getByte(pos) != SEPARATOR) {
+                int digit = buffer.getByte(pos) - '0';
+                if (digit < 0 || digit > 9) {
+                    return false;
+                }
+                if (value > (Long.MAX_VALUE - digit) / 10) {
+                    overflow |= column < 3;
+                } else {
+                    value = value * 10 + digit;
+                }
+                pos++;
+            }
+            if (pos == columnStart) {
+                return false;
+            }
+            if (column == 0) {
+                usersValue = value;
+            } else if (column == 1) {
+                newUsersValue = value;
+            } else if (column == 2) {
+                sessionsValue = value;
+            }
+        }
+        if (pos != end) {
+            return false;
+        }
+
+        if (overflow) {
+            throw new NumberFormatException("Numerical column out of range in record: " + buffer.getString(start, end));
+        }
+        if (yearValue < 1 || monthValue < 1 || monthValue > 12 || dayValue < 1 || dayValue > 31 || hourValue > 23) {
+            throw new IllegalArgumentException("Invalid hour of the day in record: " + buffer.getString(start, end));
+        }
+        if (yearValue < MIN_YEAR || yearValue > MAX_YEAR) {
+            throw new IllegalArgumentException("The year of the record must be from " + MIN_YEAR + " up to and including " +
+                    MAX_YEAR + ": " + buffer.getString(start, end));
+        }
+        int lengthOfMonth = java.time.Month.of(monthValue).length(java.time.Year.isLeap(yearValue));
+
+        this.year = yearValue;
+        this.month = monthValue;
+        this.day = dayValue > lengthOfMonth ? lengthOfMonth : dayValue;
+        this.hour = hourValue;
+        this.users = usersValue;
+        this.newUsers = newUsersValue;
+        this.sessions = sessionsValue;
+        return true;
+    }
+
+    /**
+     * Decodes every complete (newline terminated) line between from (inclusive) and to (exclusive) and passes this
+     * decoder to the handler for every line that is a site-statistics record. Bytes after the last newline are not
+     * decoded: just like the {@link io.vertx.core.parsetools.RecordParser} of the import, an unterminated last line
+     * is not a record.
+     *
+     * @param buffer,  the buffer that contains the lines.
+     * @param from,    the index of the first byte of the first line.
+     * @param to,      the index after the last byte that may be decoded.
+     * @param handler, the handler that reads the values of each record from this decoder.
+     * @return the index of the first byte that was not decoded (to if the last line was complete).
+     */
+    public int decodeLines(Buffer buffer, int from, int to, Handler<SiteStatisticDecoder> handler) {
+        int lineStart = from;
+        for (int i = from; i < to; i++) {
+            if (buffer.getByte(i) == '\n') {
+                if (this.decode(buffer, lineStart, i)) {
+                    handler.handle(this);
+                }
+                lineStart = i + 1;
+            }
+        }
+        return lineStart;
+    }
+
+    // Returns the value of a fixed amount of digits or -1 if one of the bytes is not a digit.
+    private static int digits(Buffer buffer, int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            int digit = buffer.getByte(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    public int year() {
+        return year;
+    }
+
+    public int month() {
+        return month;
+    }
+
+    public int day() {
+        return day;
+    }
+
+    public int hour() {
+        return hour;
+    }
+
+    public long users() {
+        return users;
+    }
+
+    public long newUsers() {
+        return newUsers;
+    }
+
+    public long sessions() {
+        return sessions;
+    }
+}
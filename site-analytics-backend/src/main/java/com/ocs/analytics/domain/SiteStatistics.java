@@ -6,18 +6,23 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.Serializable;
-import java.time.LocalDate;
-import java.time.Period;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Optional;
+import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.SortedSet;
 import java.util.TreeSet;
-import java.util.stream.Collectors;
 
 /**
  * Wrapper for {@link SiteStatistic} that represents the file that was imported and the enriched {@link SiteStatistic}
  * records that contain the weather measurements. This object will be returned as a response to importing a site-
  * statistics file.
+ * <p>
+ * The statistics are stored in {@link StatisticColumns}, {@link SiteStatistic} instances are only created when they
+ * are asked for. Like a set, only the first statistic of an hour is kept.
  *
  * @author Bas Piepers
  */
@@ -25,137 +30,98 @@ import java.util.stream.Collectors;
 public class SiteStatistics implements JsonDomainObject, Serializable {
     private static final Logger LOGGER = LoggerFactory.getLogger(SiteStatistics.class);
 
-    private final Set<SiteStatistic> statistics;
+    private final StatisticColumns columns;
 
     public SiteStatistics(TreeSet<SiteStatistic> statistics) {
-        this.statistics = statistics;
+        this();
+        statistics.forEach(this.columns::add);
     }
 
     public SiteStatistics() {
-        this.statistics = new TreeSet<>();
+        this(new StatisticColumns());
+    }
+
+    private SiteStatistics(StatisticColumns columns) {
+        this.columns = columns;
     }
 
     public SiteStatistics(JsonObject jsonObject) {
-        this.statistics = jsonObject
+        this();
+        jsonObject
                 .getJsonArray("statistics")
-                .stream()
-                .map(o -> new SiteStatistic((JsonObject) o))
-                .collect(Collectors.toCollection(() -> new TreeSet<>()));
+                .forEach(o -> this.columns.add(new SiteStatistic((JsonObject) o)));
     }
 
+    /**
+     * Creates the statistics of every hour. The set is a copy, changes to it are not reflected in this instance.
+     * <p>
+     * The columns are already in order, so the set is built in linear time instead of inserting every statistic into
+     * the tree.
+     *
+     * @return an ordered set with the statistics.
+     */
     public Set<SiteStatistic> getStatistics() {
-        return statistics;
+        return new TreeSet<>(new OrderedStatistics(this.columns));
     }
 
     public List<SiteStatistic> getAsSortedList() {
-        return statistics
-                .stream()
-                .sorted()
-                .collect(Collectors
-                        .toList());
+        return new ArrayList<>(new OrderedStatistics(this.columns));
+    }
+
+    /**
+     * @return the columns that contain the statistics, to read them without creating {@link SiteStatistic} instances.
+     */
+    public StatisticColumns columns() {
+        return this.columns;
+    }
+
+    public int size() {
+        return this.columns.size();
     }
 
     public SiteStatistics addStatistic(SiteStatistic siteStatistic) {
-        this.statistics.add(siteStatistic);
+        this.columns.add(siteStatistic);
         return this;
     }
 
     /**
-     * Add an instance of statistics based on the incoming csv.
+     * Adds the statistics of the hours that are not in this instance yet.
      *
-     * @param csv, the csv record of which we assume that it contains certain columns in certain formats.
+     * @return an instance of this class for fluent API building.
      */
-    public void addStatisticsFromCsv(String csv) {
-        this.statistics.add(SiteStatistic.from(csv));
-
+    public SiteStatistics mergeWith(SiteStatistics siteStatistics) {
+        this.columns.addAll(siteStatistics.columns);
+        return this;
     }
 
     /**
-     * Based on a CSV record, extract the hour-of-day and find the corresponding {@link SiteStatistic}. Map the CSV
-     * record to a {@link WeatherMeasurement} instance and add it to the {@link SiteStatistic}. If no corresponding
-     * {@link SiteStatistic} was found, create one with 0 values and add the weathermeasurement to it.
-     * <p>
-     * Naive implementation: probably better to allow a lookup by the time portions rather than iterating the Set over
-     * and over again.
-     *
-     * @param csv, the csv record as obtained from a web site with weather data of a weather station.
-     * @return an instance of this class for fluent API building.
+     * @param epochDay, the day (see {@link HourOfDay#epochDay()}).
+     * @return a copy of the statistics of one day.
      */
-    public SiteStatistics addMeasurementBasedOnRecord(String csv) {
-        String[] contents = csv.split(",");
-        WeatherMeasurement weatherMeasurement = WeatherMeasurement.from(contents);
-        // Expecting year-month-day in second position
-        String date = contents[1];
-
-        int year = Integer.valueOf(date.substring(0, 4));
-        int month = Integer.valueOf(date.substring(4, 6));
-        int day = Integer.valueOf(date.substring(6));
-
-        // Expecting the third position to contain a hour of day.
-        int hour = (Integer.valueOf(contents[2])) - 1;
-
-        HourOfDay hourOfDay = HourOfDay.of(year, month, day, hour);
-
-        // Find the corresponding SiteStatistic (if not found, we assume that no statistics exist) based on the hour of day (not all hours may be present) taking the difference in hour notation into account
-        Optional<SiteStatistic> s = this.statistics
-                .stream()
-                .filter(siteStatistic -> siteStatistic
-                        .getHourOfDay()
-                        .equals(hourOfDay))
-                .findFirst();
-
-        if (s.isPresent()) {
-            s.get().weatherMeasurement(weatherMeasurement);
-        } else {
-            this.statistics.add(SiteStatistic.ofZeroWithWeatherData(hourOfDay, weatherMeasurement));
-        }
-        return this;
+    public SiteStatistics day(long epochDay) {
+        int midnight = Math.toIntExact(epochDay * 24);
+        return new SiteStatistics(this.columns.copyOf(midnight, midnight + 23));
     }
 
     /**
-     * Convenience method to validate whether the statistics do not span a longer period than one year (12 months).
-     * Note: will also return true if no statistics exist yet. Uses {@link LocalDate} and {@link Period} to determine
-     * these rules. Does not take timezone difference into account.
+     * Add an instance of statistics based on the incoming csv.
      *
-     * @return true if the statistics are populated and do not span more than a year.
+     * @param csv, the csv record of which we assume that it contains certain columns in certain formats.
      */
-    public boolean spansMoreThanAYear() {
-
-        boolean result = false;
-        if (!this.statistics.isEmpty()) {
-            SiteStatistic first = ((TreeSet<SiteStatistic>) this.statistics).first();
-            SiteStatistic last = ((TreeSet<SiteStatistic>) this.statistics).last();
-
-            // Don't continue if the period spans more than a year.
-            LocalDate start = LocalDate.of(first.getHourOfDay().getYear().getValue(),
-                    first.getHourOfDay().getMonth().getValue(),
-                    first.getHourOfDay().getDay().getValue());
-
-            LocalDate end = LocalDate.of(last.getHourOfDay().getYear().getValue(),
-                    last.getHourOfDay().getMonth().getValue(),
-                    last.getHourOfDay().getDay().getValue());
-
-            Period p = Period.between(start, end);
-            int days = p.getDays();
-            long months = p.toTotalMonths();
-            if (months > 12 || (months == 12 && days > 0)) {
-                result = true;
-            }
-        }
+    public void addStatisticsFromCsv(String csv) {
+        this.columns.add(SiteStatistic.from(csv));
 
-        return result;
     }
 
     /**
-     * Gets the first record in the {@link TreeSet} if its not empty. Casts it to a {@link TreeSet} because we want to use
-     * {@link TreeSet} in this class but Vert.x doesn't allow the field to be of that type.
+     * Gets the first record if the statistics are not empty.
      *
-     * @return the first record of the {@link TreeSet}
+     * @return the first record or null.
      */
     public SiteStatistic first() {
         SiteStatistic result = null;
-        if (!statistics.isEmpty()) {
-            result = ((TreeSet<SiteStatistic>) this.statistics).first();
+        if (!this.columns.isEmpty()) {
+            result = this.columns.statistic(this.columns.firstHour());
         }
 
         return result;
@@ -163,15 +129,14 @@ public class SiteStatistics implements JsonDomainObject, Serializable {
 
 
     /**
-     * Gets the last record in the {@link TreeSet} if it is not empty. Casts it to a {@link TreeSet} because we want to
-     * use {@link TreeSet} in this class but Vert.x doesn't allow the field to be of that type.
+     * Gets the last record if the statistics are not empty.
      *
-     * @return the last record of the {@link TreeSet}
+     * @return the last record or null.
      */
     public SiteStatistic last() {
         SiteStatistic result = null;
-        if (!statistics.isEmpty()) {
-            result = ((TreeSet<SiteStatistic>) this.statistics).last();
+        if (!this.columns.isEmpty()) {
+            result = this.columns.statistic(this.columns.lastHour());
         }
         return result;
     }
@@ -183,18 +148,144 @@ public class SiteStatistics implements JsonDomainObject, Serializable {
 
         SiteStatistics that = (SiteStatistics) o;
 
-        return statistics.equals(that.statistics);
+        return columns.equals(that.columns);
     }
 
     @Override
     public int hashCode() {
-        return statistics.hashCode();
+        return columns.hashCode();
     }
 
     @Override
     public String toString() {
         return "SiteStatistics{" +
-                "statistics=" + statistics +
+                "columns=" + columns +
                 '}';
     }
+
+    // A sorted view of the hours of the columns from one epoch hour (inclusive) up to another (exclusive), used to
+    // build ordered collections of statistics in one pass.
+    static class OrderedStatistics extends AbstractSet<SiteStatistic> implements SortedSet<SiteStatistic> {
+        private final StatisticColumns columns;
+        private final long fromHour;
+        private final long toHour;
+
+        OrderedStatistics(StatisticColumns columns) {
+            this(columns, Long.MIN_VALUE, Long.MAX_VALUE);
+        }
+
+        private OrderedStatistics(StatisticColumns columns, long fromHour, long toHour) {
+            this.columns = columns;
+            this.fromHour = fromHour;
+            this.toHour = toHour;
+        }
+
+        @Override
+        public Iterator<SiteStatistic> iterator() {
+            return new Iterator<SiteStatistic>() {
+                private int hour = firstHour();
+
+                @Override
+                public boolean hasNext() {
+                    return this.hour != StatisticColumns.NONE;
+                }
+
+                @Override
+                public SiteStatistic next() {
+                    if (!this.hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    SiteStatistic statistic = columns.statistic(this.hour);
+                    int next = columns.nextHour(this.hour);
+                    this.hour = next < toHour ? next : StatisticColumns.NONE;
+                    return statistic;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            if (this.fromHour == Long.MIN_VALUE && this.toHour == Long.MAX_VALUE) {
+                return this.columns.size();
+            }
+            int size = 0;
+            for (Iterator<SiteStatistic> iterator = this.iterator(); iterator.hasNext(); iterator.next()) {
+                size++;
+            }
+            return size;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof SiteStatistic)) {
+                return false;
+            }
+            int hour = ((SiteStatistic) o).getHourOfDay().epochHour();
+            return hour >= this.fromHour && hour < this.toHour && this.columns.contains(hour) &&
+                    this.columns.statistic(hour).equals(o);
+        }
+
+        @Override
+        public Comparator<? super SiteStatistic> comparator() {
+            // The natural order of the statistics.
+            return null;
+        }
+
+        @Override
+        public SiteStatistic first() {
+            int hour = this.firstHour();
+            if (hour == StatisticColumns.NONE) {
+                throw new NoSuchElementException();
+            }
+            return this.columns.statistic(hour);
+        }
+
+        @Override
+        public SiteStatistic last() {
+            int hour = this.lastHour();
+            if (hour == StatisticColumns.NONE) {
+                throw new NoSuchElementException();
+            }
+            return this.columns.statistic(hour);
+        }
+
+        @Override
+        public SortedSet<SiteStatistic> subSet(SiteStatistic fromElement, SiteStatistic toElement) {
+            long from = fromElement.getHourOfDay().epochHour();
+            long to = toElement.getHourOfDay().epochHour();
+            if (from > to) {
+                throw new IllegalArgumentException("The first statistic " + fromElement + " is after the last statistic " +
+                        toElement + ".");
+            }
+            return new OrderedStatistics(this.columns, Math.max(this.fromHour, from), Math.min(this.toHour, to));
+        }
+
+        @Override
+        public SortedSet<SiteStatistic> headSet(SiteStatistic toElement) {
+            return new OrderedStatistics(this.columns, this.fromHour,
+                    Math.min(this.toHour, toElement.getHourOfDay().epochHour()));
+        }
+
+        @Override
+        public SortedSet<SiteStatistic> tailSet(SiteStatistic fromElement) {
+            return new OrderedStatistics(this.columns, Math.max(this.fromHour, fromElement.getHourOfDay().epochHour()),
+                    this.toHour);
+        }
+
+        // The first hour of the view with statistics or NONE.
+        private int firstHour() {
+            int first = this.columns.firstHour();
+            int hour = first == StatisticColumns.NONE || first >= this.fromHour ? first :
+                    this.columns.nextHour((int) (this.fromHour - 1));
+            return hour != StatisticColumns.NONE && hour < this.toHour ? hour : StatisticColumns.NONE;
+        }
+
+        // The last hour of the view with statistics or NONE.
+        private int lastHour() {
+            int last = this.columns.lastHour();
+            int hour = last == StatisticColumns.NONE || last < this.toHour ? last :
+                    this.columns.previousHour((int) this.toHour);
+            return hour != StatisticColumns.NONE && hour >= this.fromHour ? hour : StatisticColumns.NONE;
+        }
+    }
 }
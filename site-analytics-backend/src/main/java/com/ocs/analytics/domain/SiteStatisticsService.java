@@ -6,6 +6,7 @@ import io.vertx.codegen.annotations.VertxGen;
 import io.vertx.core.AsyncResult;
 import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
 import io.vertx.serviceproxy.ServiceException;
 
 /**
@@ -20,8 +21,12 @@ public interface SiteStatisticsService {
 
     String EVENT_BUS_ADDRESS = "com.ocs.analytics.domain.SiteStatisticsService";
 
-    static SiteStatisticsService create(Vertx vertx) {
-        return new SiteStatisticsServiceImpl(vertx);
+    /**
+     * @param configuration, the "enrichment" object of the application configuration (see
+     *                       {@link SiteStatisticsServiceImpl}).
+     */
+    static SiteStatisticsService create(Vertx vertx, JsonObject configuration) {
+        return new SiteStatisticsServiceImpl(vertx, configuration);
     }
 
     static SiteStatisticsService createProxy(Vertx vertx) {
@@ -30,7 +35,8 @@ public interface SiteStatisticsService {
 
     /**
      * Based on a fixed url, this method will enrich the already existing analytics records with weather data from a
-     * weather station in The Netherlands so that a user can compare weather data with the site visits.
+     * weather station in The Netherlands so that a user can compare weather data with the site visits. The statistics
+     * may span any range, the weather data of a long range is retrieved in windows.
      *
      * @param statistics, the statistics that are expected to contain {@link SiteStatistic} records.
      * @param result,     the result of the enrichment. Might throw a {@link io.vertx.serviceproxy.ServiceException} in case
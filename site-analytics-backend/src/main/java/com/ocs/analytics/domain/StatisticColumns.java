@@ -0,0 +1,398 @@
+package com.ocs.analytics.domain;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.BitSet;
+import java.util.Objects;
+
+/**
+ * Columnar storage of the site statistics and weather measurements per hour. Every value is kept in a column of longs
+ * that is indexed by the amount of hours since the first hour of the columns, so one hour of data takes 32 bytes
+ * instead of the few hundred bytes of a {@link SiteStatistic} with its {@link HourOfDay}, {@link WeatherMeasurement}
+ * and boxed values. Which hours contain statistics and which contain weather measurements is kept in two bitmaps.
+ * <p>
+ * The columns are kept one after the other in one buffer that is allocated by {@link ColumnMemory}, which puts the
+ * columns of large datasets outside of the heap as long as they fit in its budget.
+ * <p>
+ * Hours are identified by their epoch hour (see {@link HourOfDay#epochHour()}). The columns grow in both directions
+ * when an hour before the first or after the last hour is added. The columns are sized by the span of the hours, so
+ * the span is limited to {@link #MAXIMUM_YEARS} years: two rows that are far apart would otherwise allocate gigabytes.
+ * <p>
+ * The columns can be read without creating objects by iterating the hours with {@link #firstHour()} and
+ * {@link #nextHour(int)} and reading the columns of each hour. {@link #statistic(int)} creates a {@link SiteStatistic}
+ * for an hour for code that needs one. An instance is not thread safe.
+ *
+ * @author Bas Piepers
+ */
+public class StatisticColumns implements Serializable {
+    /**
+     * Returned by the iteration methods if there is no (next) hour.
+     */
+    public static final int NONE = Integer.MIN_VALUE;
+    private static final int INITIAL_CAPACITY = 24 * 32;
+    private static final int USERS = 0;
+    private static final int NEW_USERS = 1;
+    private static final int SESSIONS = 2;
+    // The packed weather measurements (see WeatherMeasurement#packed()).
+    private static final int WEATHER = 3;
+    private static final int COLUMNS = 4;
+    /**
+     * The maximum amount of years between the first and the last hour of the columns.
+     */
+    public static final int MAXIMUM_YEARS = 50;
+    // About 14 MB of columns.
+    private static final int MAXIMUM_CAPACITY = MAXIMUM_YEARS * 366 * 24;
+
+    // The epoch hour of index 0 of the columns.
+    private int origin;
+    private int capacity;
+    private BitSet present = new BitSet();
+    private BitSet measured = new BitSet();
+    private transient ByteBuffer data = ByteBuffer.allocate(0);
+
+    /**
+     * Adds the statistics of an hour unless the hour already has statistics, in which case the first statistics of the
+     * hour are kept.
+     *
+     * @return true if the statistics were added.
+     */
+    public boolean add(int epochHour, long users, long newUsers, long sessions) {
+        int index = this.index(epochHour);
+        if (this.present.get(index)) {
+            return false;
+        }
+        this.present.set(index);
+        this.put(USERS, index, users);
+        this.put(NEW_USERS, index, newUsers);
+        this.put(SESSIONS, index, sessions);
+        return true;
+    }
+
+    /**
+     * Sets the weather measurement of an hour. An hour without statistics gets statistics with 0 values.
+     */
+    public void measure(int epochHour, WeatherMeasurement weatherMeasurement) {
+        this.measure(epochHour, weatherMeasurement.packed());
+    }
+
+    /**
+     * Sets the packed weather measurement (see {@link WeatherMeasurement#packed()}) of an hour. An hour without
+     * statistics gets statistics with 0 values.
+     */
+    public void measure(int epochHour, long packedWeatherMeasurement) {
+        int index = this.index(epochHour);
+        this.present.set(index);
+        this.measured.set(index);
+        this.put(WEATHER, index, packedWeatherMeasurement);
+    }
+
+    /**
+     * Adds a site statistic and its weather measurement (if it has one).
+     */
+    public void add(SiteStatistic siteStatistic) {
+        int epochHour = siteStatistic.getHourOfDay().epochHour();
+        if (this.add(epochHour, siteStatistic.getUsers(), siteStatistic.getNewUsers(), siteStatistic.getSessions()) &&
+                Objects.nonNull(siteStatistic.getWeatherMeasurements())) {
+            this.measure(epochHour, siteStatistic.getWeatherMeasurements());
+        }
+    }
+
+    /**
+     * Adds the statistics and weather measurements of the given columns for the hours in which these columns don't
+     * have statistics yet.
+     */
+    public void addAll(StatisticColumns columns) {
+        this.addRange(columns, columns.firstHour(), columns.lastHour());
+    }
+
+    /**
+     * Copies the hours of these columns from one hour up to and including another into new columns.
+     */
+    public StatisticColumns copyOf(int fromHour, int toHour) {
+        StatisticColumns copy = new StatisticColumns();
+        copy.addRange(this, fromHour, toHour);
+        return copy;
+    }
+
+    /**
+     * Makes sure that the columns contain the given range of hours, so that the hours of a range of which the bounds
+     * are known in advance are added without growing the columns one hour at a time. Like adding an hour, the columns
+     * grow at least to twice their capacity, so reserving one day after another copies the columns a logarithmic amount
+     * of times.
+     */
+    public void reserve(int firstHour, int lastHour) {
+        if (firstHour > lastHour) {
+            throw new IllegalArgumentException("The first hour " + firstHour + " is after the last hour " + lastHour + ".");
+        }
+        if (this.capacity == 0) {
+            this.origin = Math.floorDiv(firstHour, 24) * 24;
+            checkSpan(this.origin, (long) lastHour + 1);
+            this.allocate(0, Math.max(INITIAL_CAPACITY, Math.toIntExact((long) lastHour - this.origin + 1)));
+        } else if (firstHour < this.origin || lastHour >= this.origin + this.capacity) {
+            // Grow towards the side of the last hour, unless only hours before the origin are reserved.
+            this.grow(firstHour, lastHour, lastHour < this.origin + this.capacity);
+        }
+    }
+
+    public int size() {
+        return this.present.cardinality();
+    }
+
+    public boolean isEmpty() {
+        return this.present.isEmpty();
+    }
+
+    /**
+     * @return true if the columns are kept outside of the heap.
+     */
+    public boolean isOffHeap() {
+        return this.data.isDirect();
+    }
+
+    public boolean contains(int epochHour) {
+        int index = epochHour - this.origin;
+        return index >= 0 && index < this.capacity && this.present.get(index);
+    }
+
+    public boolean isMeasured(int epochHour) {
+        int index = epochHour - this.origin;
+        return index >= 0 && index < this.capacity && this.measured.get(index);
+    }
+
+    /**
+     * @return the first hour with statistics or {@link #NONE}.
+     */
+    public int firstHour() {
+        return this.toHour(this.present.nextSetBit(0));
+    }
+
+    /**
+     * @return the last hour with statistics or {@link #NONE}.
+     */
+    public int lastHour() {
+        return this.toHour(this.present.previousSetBit(this.capacity - 1));
+    }
+
+    /**
+     * @return the first hour with statistics after the given hour or {@link #NONE}.
+     */
+    public int nextHour(int epochHour) {
+        int index = Math.max(0, epochHour - this.origin + 1);
+        return index >= this.capacity ? NONE : this.toHour(this.present.nextSetBit(index));
+    }
+
+    /**
+     * @return the last hour with statistics before the given hour or {@link #NONE}.
+     */
+    public int previousHour(int epochHour) {
+        long index = Math.min((long) epochHour - this.origin - 1, this.capacity - 1L);
+        return index < 0 ? NONE : this.toHour(this.present.previousSetBit((int) index));
+    }
+
+    public long users(int epochHour) {
+        return this.get(USERS, this.checkedIndex(epochHour));
+    }
+
+    public long newUsers(int epochHour) {
+        return this.get(NEW_USERS, this.checkedIndex(epochHour));
+    }
+
+    public long sessions(int epochHour) {
+        return this.get(SESSIONS, this.checkedIndex(epochHour));
+    }
+
+    /**
+     * @return the temperature in 0.1 degrees celsius or 0 if the hour has no weather measurement.
+     */
+    public int temperature(int epochHour) {
+        return WeatherMeasurement.temperature(this.get(WEATHER, this.checkedIndex(epochHour)));
+    }
+
+    /**
+     * @return the packed weather measurement (see {@link WeatherMeasurement#packed()}) of an hour or 0 if the hour has
+     * no weather measurement.
+     */
+    public long packedWeatherMeasurement(int epochHour) {
+        return this.get(WEATHER, this.checkedIndex(epochHour));
+    }
+
+    /**
+     * @return the weather measurement of an hour or null if the hour has no weather measurement.
+     */
+    public WeatherMeasurement weatherMeasurement(int epochHour) {
+        int index = this.checkedIndex(epochHour);
+        if (!this.measured.get(index)) {
+            return null;
+        }
+        return WeatherMeasurement.ofPacked(this.get(WEATHER, index));
+    }
+
+    /**
+     * Creates a site statistic for an hour with statistics.
+     */
+    public SiteStatistic statistic(int epochHour) {
+        int index = this.checkedIndex(epochHour);
+        return new SiteStatistic(HourOfDay.ofEpochHour(epochHour), this.get(USERS, index),
+                this.get(NEW_USERS, index), this.get(SESSIONS, index))
+                .weatherMeasurement(this.weatherMeasurement(epochHour));
+    }
+
+    // Adds the hours of the given columns within the range, the first statistics of an hour are kept.
+    private void addRange(StatisticColumns columns, int fromHour, int toHour) {
+        int first = Math.max(fromHour, columns.origin);
+        int last = Math.min(toHour, columns.origin + columns.capacity - 1);
+        int hour = columns.contains(first) ? first : columns.nextHour(first);
+        if (hour == NONE || hour > last) {
+            return;
+        }
+        this.reserve(hour, last);
+        for (; hour != NONE && hour <= last; hour = columns.nextHour(hour)) {
+            int index = hour - columns.origin;
+            if (this.add(hour, columns.get(USERS, index), columns.get(NEW_USERS, index), columns.get(SESSIONS, index)) &&
+                    columns.measured.get(index)) {
+                this.measure(hour, columns.get(WEATHER, index));
+            }
+        }
+    }
+
+    private int checkedIndex(int epochHour) {
+        if (!this.contains(epochHour)) {
+            throw new IllegalArgumentException("There are no statistics for hour " + epochHour + ".");
+        }
+        return epochHour - this.origin;
+    }
+
+    private long get(int column, int index) {
+        return this.data.getLong((column * this.capacity + index) * Long.BYTES);
+    }
+
+    private void put(int column, int index, long value) {
+        this.data.putLong((column * this.capacity + index) * Long.BYTES, value);
+    }
+
+    private int toHour(int index) {
+        return index < 0 ? NONE : this.origin + index;
+    }
+
+    // The index of the hour in the columns, the columns are grown if they don't contain the hour yet.
+    private int index(int epochHour) {
+        if (this.capacity == 0) {
+            // Start at the beginning of the day so that whole days fit in the columns.
+            this.origin = Math.floorDiv(epochHour, 24) * 24;
+            this.allocate(0, INITIAL_CAPACITY);
+        }
+        long index = (long) epochHour - this.origin;
+        if (index < 0 || index >= this.capacity) {
+            // Grow towards the side of the new hour.
+            this.grow(epochHour, epochHour, index < 0);
+        }
+        return epochHour - this.origin;
+    }
+
+    // Grows the columns to at least twice their capacity so that they contain the range of hours.
+    private void grow(int firstHour, int lastHour, boolean downwards) {
+        checkSpan(Math.min(this.origin, firstHour), Math.max((long) this.origin + this.capacity, (long) lastHour + 1));
+        this.origin = ColumnGrowth.grow(this.origin, this.capacity, firstHour, lastHour, downwards, MAXIMUM_CAPACITY,
+                this::allocate);
+    }
+
+    // Fails if the hours from (inclusive) up to (exclusive) span more than the maximum amount of years.
+    private static void checkSpan(long from, long to) {
+        if (to - from > MAXIMUM_CAPACITY) {
+            throw new IllegalStateException("The statistics can't span more than " + MAXIMUM_YEARS + " years (from " +
+                    HourOfDay.ofEpochHour((int) from) + " up to " + HourOfDay.ofEpochHour((int) (to - 1)) + ").");
+        }
+    }
+
+    // Reallocates the columns with the given capacity and copies the current columns to the given offset.
+    private void allocate(int offset, int capacity) {
+        ByteBuffer data = ColumnMemory.allocate(COLUMNS * capacity * Long.BYTES);
+        for (int column = 0; column < COLUMNS; column++) {
+            ByteBuffer from = this.data.duplicate();
+            from.limit((column + 1) * this.capacity * Long.BYTES);
+            from.position(column * this.capacity * Long.BYTES);
+            ByteBuffer to = data.duplicate();
+            to.position((column * capacity + offset) * Long.BYTES);
+            to.put(from);
+        }
+        this.data = data;
+        this.present = shift(this.present, offset);
+        this.measured = shift(this.measured, offset);
+        this.capacity = capacity;
+    }
+
+    private static BitSet shift(BitSet bitSet, int offset) {
+        if (offset == 0) {
+            return bitSet;
+        }
+        BitSet shifted = new BitSet();
+        for (int i = bitSet.nextSetBit(0); i >= 0; i = bitSet.nextSetBit(i + 1)) {
+            shifted.set(i + offset);
+        }
+        return shifted;
+    }
+
+    private boolean sameHour(StatisticColumns that, int epochHour) {
+        int index = epochHour - this.origin;
+        int other = epochHour - that.origin;
+        if (this.get(USERS, index) != that.get(USERS, other) || this.get(NEW_USERS, index) != that.get(NEW_USERS, other) ||
+                this.get(SESSIONS, index) != that.get(SESSIONS, other) || this.measured.get(index) != that.measured.get(other)) {
+            return false;
+        }
+        return !this.measured.get(index) || this.get(WEATHER, index) == that.get(WEATHER, other);
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        for (int i = 0; i < COLUMNS * this.capacity; i++) {
+            out.writeLong(this.data.getLong(i * Long.BYTES));
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        this.data = ColumnMemory.allocate(COLUMNS * this.capacity * Long.BYTES);
+        for (int i = 0; i < COLUMNS * this.capacity; i++) {
+            this.data.putLong(i * Long.BYTES, in.readLong());
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        StatisticColumns that = (StatisticColumns) o;
+
+        if (this.size() != that.size()) return false;
+        for (int hour = this.firstHour(); hour != NONE; hour = this.nextHour(hour)) {
+            if (!that.contains(hour) || !this.sameHour(that, hour)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 1;
+        for (int hour = this.firstHour(); hour != NONE; hour = this.nextHour(hour)) {
+            result = 31 * result + hour;
+            result = 31 * result + Long.hashCode(this.users(hour));
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "StatisticColumns{" +
+                "firstHour=" + this.firstHour() +
+                ", lastHour=" + this.lastHour() +
+                ", size=" + this.size() +
+                ", offHeap=" + this.isOffHeap() +
+                '}';
+    }
+}
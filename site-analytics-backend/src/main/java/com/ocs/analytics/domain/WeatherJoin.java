@@ -0,0 +1,36 @@
+package com.ocs.analytics.domain;
+
+/**
+ * Joins the hourly weather measurements of a weather station with the {@link SiteStatistics} in one pass. The
+ * measurements are joined by epoch hour, so the records of the weather station must have been parsed and their dates
+ * converted before (the response of the weather site is parsed into days of packed measurements while it arrives). An
+ * hour that has no statistics gets statistics with 0 values and the weather measurement (like
+ * {@link SiteStatistic#ofZeroWithWeatherData(HourOfDay, WeatherMeasurement)}).
+ * <p>
+ * An instance is not thread safe.
+ *
+ * @author Bas Piepers
+ */
+public class WeatherJoin {
+    private final StatisticColumns columns;
+    private int joined;
+
+    public WeatherJoin(SiteStatistics siteStatistics) {
+        this.columns = siteStatistics.columns();
+    }
+
+    /**
+     * Joins the packed weather measurement (see {@link WeatherMeasurement#packed()}) of an hour.
+     */
+    public void add(int epochHour, long packedWeatherMeasurement) {
+        this.columns.measure(epochHour, packedWeatherMeasurement);
+        this.joined++;
+    }
+
+    /**
+     * @return the amount of records that were joined.
+     */
+    public int joined() {
+        return this.joined;
+    }
+}
@@ -2,11 +2,11 @@ package com.ocs.analytics.domain;
 
 import io.vertx.codegen.annotations.DataObject;
 import io.vertx.core.json.JsonObject;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 import java.io.Serializable;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * A measurement record as obtained from weather station historical data that contains information about temperatures,
@@ -14,69 +14,76 @@ import java.util.Arrays;
  * <p>
  * Is referenced to from {@link SiteStatistic} with which this data is enriched.
  * <p>
- * Is capable of mapping from an incoming record to an object of this instance.
+ * The numerical columns of a record of the weather station are packed by {@link #pack(int[])}.
+ * <p>
+ * All values of a measurement are packed into one long (see {@link #packed()}) so that a measurement takes no more
+ * memory than the long and its object header, and so that measurements can be stored as a primitive column. The
+ * getters unpack the values. Missing values are stored as 0 (or false).
  *
  * @author Bas Piepers
  */
 @DataObject
 public class WeatherMeasurement implements JsonDomainObject, Serializable {
-    private static final Logger LOGGER = LoggerFactory.getLogger(WeatherMeasurement.class);
-    // The pattern we assume the weathermeasurement contains. 15 columns of numerical data where the second  column contains a date pattern.
-    public static final String POSNEG_NR_PATTERN = "(-?[1-9]\\d*|0|\\s?)(,|$)";
-    public static final String RECORD_PATTERN = "^[0-9]{3},[0-9]{8},(" + POSNEG_NR_PATTERN + "){13}";
-    private final Integer temperature; // in 0.1 degrees celsius
-    private final Integer durPrec; // duration of the precipitation. Can be 0 for no rainfall. in 0.1 hours.
-    private final Integer sumPrec; // hourly sum of precipitation or -1 in case it was less than 0.05mm.
-    private final Integer humPerc; // humidity in percentage
-    private final Boolean rain; // did it rain in the previous hour?
-    private final Boolean snow; // did it snow in the previous hour?
-    private final Boolean fog; // did we have fog
-    private final Boolean thunder; // did we have thunder
-    private final Boolean ice; // did we have ice
-    private final Integer sun; // sun hours in 0.1 hours. Can be -1 for <0.05 hours
-    private final Integer clouds; // the amount of clouds in 1/8th and 9 in case sky was not visible
+    // The variables of the weather site that are read into a measurement, in the order in which the site returns them
+    // after the station, the date and the hour. Nothing else is requested.
+    public static final List<String> VARIABLES = Collections.unmodifiableList(Arrays.asList("T", "SQ", "DR", "RH",
+            "N", "U", "M", "R", "S", "O", "Y"));
+    private static final int FIRST_VARIABLE_COLUMN = 3;
+    public static final int COLUMNS = FIRST_VARIABLE_COLUMN + VARIABLES.size();
+
+    private static final int TEMPERATURE_COLUMN = column("T");
+    private static final int SUN_COLUMN = column("SQ");
+    private static final int DUR_PREC_COLUMN = column("DR");
+    private static final int SUM_PREC_COLUMN = column("RH");
+    private static final int CLOUDS_COLUMN = column("N");
+    private static final int HUM_PERC_COLUMN = column("U");
+    private static final int FOG_COLUMN = column("M");
+    private static final int RAIN_COLUMN = column("R");
+    private static final int SNOW_COLUMN = column("S");
+    private static final int THUNDER_COLUMN = column("O");
+    private static final int ICE_COLUMN = column("Y");
+
+    // The layout of the packed long, from the lowest to the highest bits.
+    private static final int FLAGS_SHIFT = 0; // 5 bits: rain, snow, fog, thunder and ice.
+    private static final int CLOUDS_SHIFT = 5; // 4 bits: the amount of clouds in 1/8th and 9 in case sky was not visible.
+    private static final int HUM_PERC_SHIFT = 9; // 7 bits: humidity in percentage.
+    private static final int SUN_SHIFT = 16; // 8 bits (signed): sun hours in 0.1 hours. Can be -1 for <0.05 hours.
+    private static final int DUR_PREC_SHIFT = 24; // 8 bits (signed): duration of the precipitation in 0.1 hours.
+    private static final int SUM_PREC_SHIFT = 32; // 16 bits (signed): hourly sum of precipitation or -1 in case it was less than 0.05mm.
+    private static final int TEMPERATURE_SHIFT = 48; // 16 bits (signed): in 0.1 degrees celsius.
+
+    private static final int RAIN = 1;
+    private static final int SNOW = 1 << 1;
+    private static final int FOG = 1 << 2;
+    private static final int THUNDER = 1 << 3;
+    private static final int ICE = 1 << 4;
+
+    private final long packed;
 
     public WeatherMeasurement(JsonObject jsonObject) {
-        this.temperature = jsonObject.getInteger("temperature");
-        this.durPrec = jsonObject.getInteger("durPrec");
-        this.sumPrec = jsonObject.getInteger("sumPrec");
-        this.humPerc = jsonObject.getInteger("humPerc");
-        this.rain = jsonObject.getBoolean("rain");
-        this.snow = jsonObject.getBoolean("snow");
-        this.fog = jsonObject.getBoolean("fog");
-        this.thunder = jsonObject.getBoolean("thunder");
-        this.ice = jsonObject.getBoolean("ics");
-        this.sun = jsonObject.getInteger("sun");
-        this.clouds = jsonObject.getInteger("clouds");
+        this(jsonObject.getInteger("temperature"), jsonObject.getInteger("durPrec"), jsonObject.getInteger("sumPrec"),
+                jsonObject.getInteger("humPerc"), jsonObject.getBoolean("rain"), jsonObject.getBoolean("snow"),
+                jsonObject.getBoolean("fog"), jsonObject.getBoolean("thunder"), jsonObject.getBoolean("ice"),
+                jsonObject.getInteger("sun"), jsonObject.getInteger("clouds"));
+    }
+
+    private WeatherMeasurement(long packed) {
+        this.packed = packed;
     }
 
     /**
-     * Maps a record from the weather station data to an instance of this class.
+     * Packs the values of a record that has already been parsed into numbers, so that a record can be read without
+     * creating strings.
      *
-     * @param measurementRecord, a measurement record as obtained from the KNMI website.
-     * @return an instance of this class.
+     * @param columns, the {@link #COLUMNS} numerical columns of a record: the station, the date, the hour and the
+     *                 {@link #VARIABLES}.
+     * @return the packed measurement of the record (see {@link #packed()}).
      */
-    public static WeatherMeasurement from(String[] measurementRecord) {
-
-        if (measurementRecord.length < 15) {
-            LOGGER.debug("The record was smaller than expected");
-            // We received something we didn't expect. Throw an exception
-            throw new IllegalArgumentException("The measurement record did not contain the expected content (" + Arrays.toString(measurementRecord) + ")");
-        }
-
-        Integer temperature = Integer.valueOf(measurementRecord[3]);
-        Integer sun = Integer.valueOf(measurementRecord[5]);
-        Integer durPerc = Integer.valueOf(measurementRecord[6]);
-        Integer sumPerc = Integer.valueOf(measurementRecord[7]);
-        Integer clouds = Integer.valueOf(measurementRecord[8]);
-        Integer humPerc = Integer.valueOf(measurementRecord[9]);
-        Boolean fog = Integer.valueOf(measurementRecord[10]) == 0 ? false : true;
-        Boolean rain = Integer.valueOf(measurementRecord[11]) == 0 ? false : true;
-        Boolean snow = Integer.valueOf(measurementRecord[12]) == 0 ? false : true;
-        Boolean thunder = Integer.valueOf(measurementRecord[13]) == 0 ? false : true;
-        Boolean ice = Integer.valueOf(measurementRecord[14]) == 0 ? false : true;
-
-        return new WeatherMeasurement(temperature, durPerc, sumPerc, humPerc, rain, snow, fog, thunder, ice, sun, clouds);
+    public static long pack(int[] columns) {
+        return pack(columns[TEMPERATURE_COLUMN], columns[DUR_PREC_COLUMN], columns[SUM_PREC_COLUMN],
+                columns[HUM_PERC_COLUMN], columns[RAIN_COLUMN] != 0, columns[SNOW_COLUMN] != 0,
+                columns[FOG_COLUMN] != 0, columns[THUNDER_COLUMN] != 0, columns[ICE_COLUMN] != 0,
+                columns[SUN_COLUMN], columns[CLOUDS_COLUMN]);
     }
 
     /**
@@ -91,74 +98,149 @@ public class WeatherMeasurement implements JsonDomainObject, Serializable {
 
     }
 
+    /**
+     * @param packed, a measurement as returned by {@link #packed()}.
+     * @return a measurement with the packed values.
+     */
+    public static WeatherMeasurement ofPacked(long packed) {
+        return new WeatherMeasurement(packed);
+    }
+
     public WeatherMeasurement(Integer temperature, Integer durPrec, Integer sumPrec, Integer humPerc, Boolean rain, Boolean snow, Boolean fog, Boolean thunder, Boolean ice, Integer sun, Integer clouds) {
-        this.temperature = temperature;
-        this.durPrec = durPrec;
-        this.sumPrec = sumPrec;
-        this.humPerc = humPerc;
-        this.rain = rain;
-        this.snow = snow;
-        this.fog = fog;
-        this.thunder = thunder;
-        this.ice = ice;
-        this.sun = sun;
-        this.clouds = clouds;
+        this(pack(orZero(temperature), orZero(durPrec), orZero(sumPrec), orZero(humPerc), Boolean.TRUE.equals(rain),
+                Boolean.TRUE.equals(snow), Boolean.TRUE.equals(fog), Boolean.TRUE.equals(thunder),
+                Boolean.TRUE.equals(ice), orZero(sun), orZero(clouds)));
+    }
+
+    /**
+     * Packs the values of a measurement into one long.
+     *
+     * @throws IllegalArgumentException if a value doesn't fit in the bits that are reserved for it.
+     */
+    public static long pack(int temperature, int durPrec, int sumPrec, int humPerc, boolean rain, boolean snow,
+                            boolean fog, boolean thunder, boolean ice, int sun, int clouds) {
+        int flags = (rain ? RAIN : 0) | (snow ? SNOW : 0) | (fog ? FOG : 0) | (thunder ? THUNDER : 0) | (ice ? ICE : 0);
+        return (long) flags << FLAGS_SHIFT |
+                unsigned(clouds, 4, "clouds") << CLOUDS_SHIFT |
+                unsigned(humPerc, 7, "humPerc") << HUM_PERC_SHIFT |
+                signed(sun, 8, "sun") << SUN_SHIFT |
+                signed(durPrec, 8, "durPrec") << DUR_PREC_SHIFT |
+                signed(sumPrec, 16, "sumPrec") << SUM_PREC_SHIFT |
+                signed(temperature, 16, "temperature") << TEMPERATURE_SHIFT;
+    }
+
+    /**
+     * @return all values of this measurement packed into one long.
+     */
+    public long packed() {
+        return packed;
+    }
+
+    /**
+     * @return the temperature of a packed measurement, without creating an instance.
+     */
+    public static int temperature(long packed) {
+        return (short) (packed >>> TEMPERATURE_SHIFT);
+    }
+
+    /**
+     * @return whether it rained according to a packed measurement, without creating an instance.
+     */
+    public static boolean rain(long packed) {
+        return (packed & RAIN) != 0;
     }
 
     public Integer getTemperature() {
-        return temperature;
+        return temperature(packed);
     }
 
 
     public Integer getDurPrec() {
-        return durPrec;
+        return (int) (byte) (packed >>> DUR_PREC_SHIFT);
     }
 
     public Integer getSumPrec() {
-        return sumPrec;
+        return (int) (short) (packed >>> SUM_PREC_SHIFT);
     }
 
     public Integer getHumPerc() {
-        return humPerc;
+        return (int) (packed >>> HUM_PERC_SHIFT) & 0x7F;
     }
 
     public Boolean getRain() {
-        return rain;
+        return rain(packed);
     }
 
     public Boolean getSnow() {
-        return snow;
+        return (packed & SNOW) != 0;
     }
 
     public Boolean getFog() {
-        return fog;
+        return (packed & FOG) != 0;
     }
 
     public Boolean getThunder() {
-        return thunder;
+        return (packed & THUNDER) != 0;
     }
 
     public Boolean getIce() {
-        return ice;
+        return (packed & ICE) != 0;
     }
 
     public Integer getSun() {
-        return sun;
+        return (int) (byte) (packed >>> SUN_SHIFT);
     }
 
     public Integer getClouds() {
-        return clouds;
+        return (int) (packed >>> CLOUDS_SHIFT) & 0xF;
+    }
+
+    private static int column(String variable) {
+        return FIRST_VARIABLE_COLUMN + VARIABLES.indexOf(variable);
+    }
+
+    private static int orZero(Integer value) {
+        return value == null ? 0 : value;
+    }
+
+    private static long signed(int value, int bits, String name) {
+        if (value < -(1 << (bits - 1)) || value >= 1 << (bits - 1)) {
+            throw new IllegalArgumentException("The value of " + name + " is out of range (" + value + ").");
+        }
+        return value & ((1L << bits) - 1);
+    }
+
+    private static long unsigned(int value, int bits, String name) {
+        if (value < 0 || value >= 1 << bits) {
+            throw new IllegalArgumentException("The value of " + name + " is out of range (" + value + ").");
+        }
+        return value;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        WeatherMeasurement that = (WeatherMeasurement) o;
+
+        return packed == that.packed;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(packed);
     }
 
     @Override
     public String toString() {
         return "Measurement{" +
-                "temperature=" + temperature +
-                ", durPrec=" + durPrec +
-                ", sumPrec=" + sumPrec +
-                ", humPerc=" + humPerc +
-                ", rain=" + rain +
-                ", snow=" + snow +
+                "temperature=" + getTemperature() +
+                ", durPrec=" + getDurPrec() +
+                ", sumPrec=" + getSumPrec() +
+                ", humPerc=" + getHumPerc() +
+                ", rain=" + getRain() +
+                ", snow=" + getSnow() +
                 '}';
     }
 }
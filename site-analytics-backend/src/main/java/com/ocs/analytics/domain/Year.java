@@ -12,8 +12,17 @@ import java.io.Serializable;
  */
 @DataObject
 public class Year implements Serializable {
+    // The years that are likely to be used are interned so that getting them doesn't create an instance.
+    private static final int FIRST_CACHED = 1900;
+    private static final Year[] CACHE = new Year[256];
 
-    private int value;
+    static {
+        for (int i = 0; i < CACHE.length; i++) {
+            CACHE[i] = new Year(FIRST_CACHED + i);
+        }
+    }
+
+    private final int value;
 
     public Year(JsonObject jsonObject) {
         this.value = jsonObject.getInteger("year");
@@ -23,7 +32,8 @@ public class Year implements Serializable {
         if (value < 0) {
             throw new IllegalArgumentException("Invalid value for year (" + value + ").");
         }
-        return new Year(value);
+        int index = value - FIRST_CACHED;
+        return index >= 0 && index < CACHE.length ? CACHE[index] : new Year(value);
     }
 
     private Year(int value) {
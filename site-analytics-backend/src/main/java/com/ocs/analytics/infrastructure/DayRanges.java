@@ -0,0 +1,96 @@
+package com.ocs.analytics.infrastructure;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * A set of epoch days that is kept as disjoint ranges of consecutive days, ordered by their first day. Overlapping and
+ * adjacent ranges are coalesced when they are added, so the set always consists of the minimal amount of ranges.
+ *
+ * @author Bas Piepers
+ */
+class DayRanges {
+    // The last day (inclusive) of every range by the first day of the range.
+    private final TreeMap<Integer, Integer> ranges = new TreeMap<>();
+
+    /**
+     * @return the ranges of the days from the first up to and including the last day that are not in the given days.
+     */
+    static DayRanges missing(Set<Integer> days, int firstDay, int lastDay) {
+        DayRanges missing = new DayRanges();
+        for (int day = firstDay; day <= lastDay; day++) {
+            if (!days.contains(day)) {
+                int first = day;
+                while (day < lastDay && !days.contains(day + 1)) {
+                    day++;
+                }
+                missing.add(first, day);
+            }
+        }
+        return missing;
+    }
+
+    /**
+     * Adds the days from the first up to and including the last day.
+     */
+    void add(int firstDay, int lastDay) {
+        if (firstDay > lastDay) {
+            throw new IllegalArgumentException("The first day " + firstDay + " is after the last day " + lastDay + ".");
+        }
+        int first = firstDay;
+        int last = lastDay;
+        // Coalesce with the range that starts before (or at) the first day if it overlaps or is adjacent.
+        Map.Entry<Integer, Integer> before = this.ranges.floorEntry(first);
+        if (before != null && (long) before.getValue() + 1 >= first) {
+            first = before.getKey();
+            last = Math.max(last, before.getValue());
+        }
+        // Coalesce with the ranges that start within or right after the new range.
+        Map.Entry<Integer, Integer> after = this.ranges.ceilingEntry(first);
+        while (after != null && after.getKey() <= (long) last + 1) {
+            last = Math.max(last, after.getValue());
+            this.ranges.remove(after.getKey());
+            after = this.ranges.ceilingEntry(first);
+        }
+        this.ranges.put(first, last);
+    }
+
+    boolean contains(int day) {
+        Map.Entry<Integer, Integer> range = this.ranges.floorEntry(day);
+        return range != null && range.getValue() >= day;
+    }
+
+    boolean isEmpty() {
+        return this.ranges.isEmpty();
+    }
+
+    /**
+     * @return the first and last day (inclusive) of every range, in chronological order.
+     */
+    List<int[]> ranges() {
+        List<int[]> result = new ArrayList<>(this.ranges.size());
+        this.ranges.forEach((first, last) -> result.add(new int[]{first, last}));
+        return result;
+    }
+
+    /**
+     * @return the amount of days in the ranges.
+     */
+    long days() {
+        return this.ranges
+                .entrySet()
+                .stream()
+                .mapToLong(range -> (long) range.getValue() - range.getKey() + 1)
+                .sum();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("DayRanges{");
+        this.ranges.forEach((first, last) -> builder.append('[').append(first).append(", ").append(last).append(']'));
+        return builder.append('}').toString();
+    }
+}
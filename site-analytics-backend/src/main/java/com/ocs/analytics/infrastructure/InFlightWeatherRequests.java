@@ -0,0 +1,149 @@
+package com.ocs.analytics.infrastructure;
+
+import com.ocs.analytics.domain.HistoricalParameters;
+import io.reactivex.Observable;
+import io.reactivex.Single;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Keeps track of the requests for weather data that are in flight, so that concurrent enrichments of overlapping
+ * ranges share one request per day instead of each sending their own (single-flight). Every day of a request is
+ * registered with the hours it covers; a day that is needed while a request that covers its hours is in flight is
+ * taken from the response of that request. Only the remaining days are requested, in windows.
+ * <p>
+ * The response of a request is shared by everyone that waits for it and a request is forgotten as soon as it
+ * completes or fails, after which its complete days are in the {@link WeatherCache}. The requests of a retrieval are
+ * also forgotten when the retrieval ends in any other way (it fails or is disposed), so a request that is never sent
+ * isn't waited for.
+ *
+ * @author Bas Piepers
+ */
+class InFlightWeatherRequests {
+    private static final Logger LOGGER = LoggerFactory.getLogger(InFlightWeatherRequests.class);
+
+    private final Function<HistoricalParameters, Single<List<WeatherDay>>> request;
+    // The request that is in flight for a day of a station.
+    private final Map<Long, InFlight> inFlight = new HashMap<>();
+
+    /**
+     * @param request, requests the days of a window from the weather site.
+     */
+    InFlightWeatherRequests(Function<HistoricalParameters, Single<List<WeatherDay>>> request) {
+        this.request = request;
+    }
+
+    /**
+     * Retrieves the missing days of the parameters. The days that are covered by a request in flight are taken from
+     * that request, the other days are requested in windows of the given amount of months.
+     *
+     * @param parameters,  the range of which days are missing.
+     * @param missing,     the missing days of the range.
+     * @param months,      the maximum amount of calendar months of one window.
+     * @param parallelism, the maximum amount of requests that are waited for concurrently.
+     * @return the retrieved days, a day is emitted once. The requests are registered when it is subscribed to.
+     */
+    Observable<WeatherDay> retrieve(HistoricalParameters parameters, DayRanges missing, int months, int parallelism) {
+        return Observable.defer(() -> this.register(parameters, missing, months, parallelism));
+    }
+
+    /**
+     * @return the amount of days of a station for which a request is in flight.
+     */
+    synchronized int size() {
+        return this.inFlight.size();
+    }
+
+    private synchronized Observable<WeatherDay> register(HistoricalParameters parameters, DayRanges missing,
+                                                         int months, int parallelism) {
+        String station = parameters.getStations();
+        Map<InFlight, Set<Integer>> attached = new LinkedHashMap<>();
+        DayRanges requested = new DayRanges();
+        for (int[] range : missing.ranges()) {
+            for (int day = range[0]; day <= range[1]; day++) {
+                InFlight request = this.inFlight.get(key(station, day));
+                if (Objects.nonNull(request) && request.covers(day, hours(parameters, day))) {
+                    attached.computeIfAbsent(request, r -> new HashSet<>()).add(day);
+                } else {
+                    requested.add(day, day);
+                }
+            }
+        }
+
+        List<Observable<WeatherDay>> days = new ArrayList<>();
+        List<InFlight> created = new ArrayList<>();
+        attached.forEach((request, wanted) -> days.add(request.days(wanted)));
+        for (int[] range : requested.ranges()) {
+            for (HistoricalParameters window : parameters
+                    .between(LocalDate.ofEpochDay(range[0]), LocalDate.ofEpochDay(range[1]))
+                    .split(months)) {
+                InFlight request = new InFlight(station, window);
+                created.add(request);
+                days.add(request.days(request.hours.keySet()));
+            }
+        }
+        LOGGER.debug("Waiting for {} requests in flight for {} days, requesting {} days {}.", attached.size(),
+                missing.days() - requested.days(), requested.days(), requested);
+        return Observable
+                .fromIterable(days)
+                .flatMap(retrieved -> retrieved, parallelism)
+                // The windows that were not subscribed to yet won't be requested anymore.
+                .doFinally(() -> created.forEach(request -> this.remove(station, request)));
+    }
+
+    private synchronized void remove(String station, InFlight request) {
+        request.hours.keySet().forEach(day -> this.inFlight.remove(key(station, day), request));
+    }
+
+    // The bits of the hours (0 to 23) of the day that are within the range of the parameters.
+    private static int hours(HistoricalParameters parameters, int epochDay) {
+        int first = epochDay == epochDay(parameters.getStartYear(), parameters.getStartMonth(),
+                parameters.getStartDay()) ? parameters.getStartHour() - 1 : 0;
+        int last = epochDay == epochDay(parameters.getEndYear(), parameters.getEndMonth(),
+                parameters.getEndDay()) ? parameters.getEndHour() - 1 : 23;
+        return (1 << last + 1) - (1 << first);
+    }
+
+    private static int epochDay(int year, int month, int day) {
+        return Math.toIntExact(LocalDate.of(year, month, day).toEpochDay());
+    }
+
+    private static long key(String station, int epochDay) {
+        return (long) Integer.parseInt(station) << 32 | epochDay & 0xFFFFFFFFL;
+    }
+
+    // A request of a window, of which the response is shared.
+    private final class InFlight {
+        // The hours of the days of the window by epoch day.
+        private final Map<Integer, Integer> hours = new HashMap<>();
+        private final Single<List<WeatherDay>> response;
+
+        // Registers the days of the window, the window is requested when the response is first subscribed to.
+        private InFlight(String station, HistoricalParameters window) {
+            int first = epochDay(window.getStartYear(), window.getStartMonth(), window.getStartDay());
+            int last = epochDay(window.getEndYear(), window.getEndMonth(), window.getEndDay());
+            for (int day = first; day <= last; day++) {
+                this.hours.put(day, InFlightWeatherRequests.hours(window, day));
+                InFlightWeatherRequests.this.inFlight.put(key(station, day), this);
+            }
+            this.response = Single
+                    .defer(() -> InFlightWeatherRequests.this.request.apply(window))
+                    .doFinally(() -> InFlightWeatherRequests.this.remove(station, this))
+                    .cache();
+        }
+
+        private boolean covers(int day, int hours) {
+            return (this.hours.getOrDefault(day, 0) & hours) == hours;
+        }
+
+        private Observable<WeatherDay> days(Set<Integer> wanted) {
+            return this.response
+                    .flattenAsObservable(days -> days)
+                    .filter(day -> wanted.contains(day.epochDay()));
+        }
+    }
+}
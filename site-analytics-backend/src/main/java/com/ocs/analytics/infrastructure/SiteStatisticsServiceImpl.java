@@ -2,24 +2,41 @@ package com.ocs.analytics.infrastructure;
 
 import com.ocs.analytics.domain.*;
 import io.reactivex.Observable;
+import io.reactivex.Single;
 import io.vertx.core.AsyncResult;
 import io.vertx.core.Future;
 import io.vertx.core.Handler;
+import io.vertx.core.json.JsonObject;
 import io.vertx.ext.web.client.WebClientOptions;
 import io.vertx.reactivex.core.MultiMap;
 import io.vertx.reactivex.core.Vertx;
 import io.vertx.reactivex.core.buffer.Buffer;
-import io.vertx.reactivex.core.parsetools.RecordParser;
+import io.vertx.reactivex.core.streams.WriteStream;
 import io.vertx.reactivex.ext.web.client.HttpResponse;
 import io.vertx.reactivex.ext.web.client.WebClient;
+import io.vertx.reactivex.ext.web.codec.BodyCodec;
 import io.vertx.serviceproxy.ServiceException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.List;
+
 /**
  * Implementation of the {@link SiteStatisticsService} that instantiates a webclient with a webclient pool (because
  * there is only one instance of this service in the application). This webclient is used to invoke requests to a
  * site that contains historical weather data.
+ * <p>
+ * The weather data is retrieved in windows of "window_months" calendar months (1 by default) so that any range can be
+ * enriched. At most "parallelism" windows (the pool size of the webclient by default) are retrieved concurrently, so a
+ * large range is enriched in about the time of its slowest window.
+ * <p>
+ * The measurements of the days that were retrieved before are taken from a {@link WeatherCache} of "cache_days" days
+ * in memory and, if a "cache_directory" is configured, on disk. Only the gaps of the range that are not cached are
+ * requested from the site: consecutive missing days are coalesced into ranges that are then split into windows, so
+ * re-importing a file with one extra week of statistics requests one week of weather data.
+ * <p>
+ * Concurrent enrichments of overlapping ranges share the requests that are in flight (see
+ * {@link InFlightWeatherRequests}), so a burst of imports of the same period sends one request per window.
  *
  * @author Bas Piepers
  */
@@ -28,16 +45,41 @@ public class SiteStatisticsServiceImpl implements SiteStatisticsService {
     private static final Logger LOGGER = LoggerFactory.getLogger(SiteStatisticsServiceImpl.class);
     private static final String WEATHER_BASE_URL = "projects.knmi.nl";
     private static final String WEATHER_REQUEST_PER_HOUR_URL = "/klimatologie/uurgegevens/getdata_uur.cgi";
+    private static final int MAX_POOL_SIZE = 10;
+    private static final int DEFAULT_WINDOW_MONTHS = 1;
+    private static final int DEFAULT_CACHE_DAYS = 3660;
 
     private WebClient webClient;
     private Vertx rxVertx;
+    private final int windowMonths;
+    private final int parallelism;
+    private final WeatherCache weatherCache;
+    private final InFlightWeatherRequests inFlightRequests;
 
     public SiteStatisticsServiceImpl(io.vertx.core.Vertx vertx) {
+        this(vertx, new JsonObject());
+    }
+
+    public SiteStatisticsServiceImpl(io.vertx.core.Vertx vertx, JsonObject configuration) {
+        this.windowMonths = configuration.getInteger("window_months", DEFAULT_WINDOW_MONTHS);
+        this.parallelism = configuration.getInteger("parallelism", MAX_POOL_SIZE);
+
+        if (this.windowMonths < 1) {
+            throw new IllegalArgumentException("The window of the enrichment must be at least 1 month (" + this.windowMonths + ").");
+        }
+        if (this.parallelism < 1 || this.parallelism > MAX_POOL_SIZE) {
+            throw new IllegalArgumentException("The parallelism of the enrichment must be at least 1 and at most the pool size of " +
+                    MAX_POOL_SIZE + " (" + this.parallelism + ").");
+        }
+
         this.rxVertx = new Vertx(vertx);
+        this.weatherCache = new WeatherCache(this.rxVertx, configuration.getInteger("cache_days", DEFAULT_CACHE_DAYS),
+                configuration.getString("cache_directory"));
+        this.inFlightRequests = new InFlightWeatherRequests(this::retrieveWindow);
         this.webClient = WebClient.create(rxVertx,
                 new WebClientOptions().
                         setUserAgent("Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/69.0.3497.100 Safari/537.36")
-                        .setMaxPoolSize(10)
+                        .setMaxPoolSize(MAX_POOL_SIZE)
                         .setLogActivity(false));
     }
 
@@ -49,48 +91,78 @@ public class SiteStatisticsServiceImpl implements SiteStatisticsService {
 
         LOGGER.debug("Received first statistic of {}.\nLast statistic of {}.", first, last);
 
-        if (statistics.spansMoreThanAYear()) {
-            throw new ServiceException(500, "This service does not allow a longer time range than 12 months for the site-statistics.");
+        if (first == null) {
+            result.handle(Future.succeededFuture(statistics));
+            return;
         }
 
         HistoricalParameters parameters = HistoricalParameters.forWeatherMeasurement(first.year(), first.month(),
                 first.day(), last.year(), last.month(), last.day(), first.hour(), last.hour());
+        String station = parameters.getStations();
+        int firstDay = first.getHourOfDay().epochDay();
+        int lastDay = last.getHourOfDay().epochDay();
+        int firstHour = first.getHourOfDay().epochHour();
+        int lastHour = last.getHourOfDay().epochHour();
 
-        // Create the map to be sent to the website.
-        MultiMap form = parameters.asMultiMapForForm();
-
-        webClient
-                .post(443, WEATHER_BASE_URL, WEATHER_REQUEST_PER_HOUR_URL)
-                .ssl(true)
-                .putHeader("Accept", "text/html,application/xhtml+xml,application/xml;q=0.9,image/webp,image/apng,*/*;q=0.8")
-                .putHeader("Accept-Encoding", "gzip, deflate, br")
-                .putHeader("Content-Type", "application/x-www-form-urlencoded")
-                .rxSendForm(form)
-                .doOnError(throwable -> LOGGER.error("Something went wrong while sending a form.", throwable))
-                .flatMapObservable(response -> this.processResponse(response))
-                .doOnComplete(() -> LOGGER.debug("Completed processing the response"))
-                .subscribe(string -> this.processOneRecord(statistics, string),
+        // The days of the cache and the windows are merged into one stream, so they are joined with the statistics
+        // one at a time.
+        WeatherJoin join = new WeatherJoin(statistics);
+        this.weatherCache
+                .find(station, firstDay, lastDay)
+                .flatMapObservable(cached -> {
+                    DayRanges gaps = DayRanges.missing(cached.keySet(), firstDay, lastDay);
+                    LOGGER.debug("Took {} days from the cache, retrieving {} days for the gaps {}.", cached.size(),
+                            gaps.days(), gaps);
+                    return Observable
+                            .fromIterable(cached.values())
+                            .concatWith(this.inFlightRequests.retrieve(parameters, gaps, this.windowMonths,
+                                    this.parallelism));
+                })
+                .doOnComplete(() -> LOGGER.debug("Completed processing the responses, joined {} records.", join.joined()))
+                .subscribe(day -> day.joinWith(join, firstHour, lastHour),
                         throwable -> result.handle(Future.failedFuture(throwable)),
                         () -> result.handle(Future.succeededFuture(statistics)));
     }
 
-    private Observable<String> processResponse(HttpResponse<Buffer> response) {
+    // Requests the days of the window and caches them.
+    private Single<List<WeatherDay>> retrieveWindow(HistoricalParameters window) {
+        return this.requestWindow(window)
+                .doOnSuccess(days -> this.weatherCache
+                        .put(window.getStations(), days)
+                        .subscribe(() -> LOGGER.debug("Cached the days of {}.", window),
+                                throwable -> LOGGER.warn("Could not cache the days of {}.", window, throwable)));
+    }
+
+    // The response is piped into a parser, so its records are parsed while it is received.
+    private Single<List<WeatherDay>> requestWindow(HistoricalParameters window) {
+        return Single.defer(() -> {
+            // Create the map to be sent to the website.
+            MultiMap form = window.asMultiMapForForm();
+            WeatherRecordParser parser = new WeatherRecordParser();
+
+            return webClient
+                    .post(443, WEATHER_BASE_URL, WEATHER_REQUEST_PER_HOUR_URL)
+                    .ssl(true)
+                    .putHeader("Accept", "text/html,application/xhtml+xml,application/xml;q=0.9,image/webp,image/apng,*/*;q=0.8")
+                    .putHeader("Accept-Encoding", "gzip, deflate, br")
+                    .putHeader("Content-Type", "application/x-www-form-urlencoded")
+                    .as(BodyCodec.pipe(WriteStream.<Buffer>newInstance(parser)))
+                    .rxSendForm(form)
+                    .doOnError(throwable -> LOGGER.error("Something went wrong while sending a form for {}.", window, throwable))
+                    .flatMap(response -> this.processResponse(response, parser, window));
+        });
+    }
+
+    private Single<List<WeatherDay>> processResponse(HttpResponse<Void> response, WeatherRecordParser parser,
+                                                     HistoricalParameters window) {
         if (response.statusCode() == 200) {
-            LOGGER.debug("Response received {}", response.statusMessage());
-            return RecordParser
-                    .newDelimited("\n", Observable.just(response.body()))
-                    .toObservable()
-                    .map(buffer -> buffer.toString())
-                    .map(string -> string.replaceAll("\\s", ""))
-                    .filter(string -> string.matches(WeatherMeasurement.RECORD_PATTERN));
+            LOGGER.debug("Response received {}, parsed {} records and skipped {} with missing values for the {} hours of {}.",
+                    response.statusMessage(), parser.records(), parser.incomplete(), window.hours(), window);
+            return Single.fromCallable(parser::days);
         } else {
-            return Observable
+            return Single
                     .error(() -> new ServiceException(response.statusCode(), response.statusMessage()));
         }
 
     }
-
-    private SiteStatistics processOneRecord(SiteStatistics siteStatistics, String record) {
-        return siteStatistics.addMeasurementBasedOnRecord(record);
-    }
 }
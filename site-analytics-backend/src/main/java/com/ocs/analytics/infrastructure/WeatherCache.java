@@ -0,0 +1,245 @@
+package com.ocs.analytics.infrastructure;
+
+import io.reactivex.Completable;
+import io.reactivex.Observable;
+import io.reactivex.Single;
+import io.vertx.core.file.CopyOptions;
+import io.vertx.reactivex.core.Vertx;
+import io.vertx.reactivex.core.buffer.Buffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * A cache of the hourly weather measurements of weather stations. Historical weather data doesn't change, so a day of
+ * which every hour has been measured is kept:
+ * <ul>
+ * <li>in memory, for at most a configured amount of days. The days that were used least recently are evicted
+ * first.</li>
+ * <li>on disk (if a directory is configured), so that the cache survives a restart. Every month of a station is kept
+ * in its own file (directory/station/yyyyMM.bin) that contains the epoch day and the 24 packed measurements of each
+ * of its days.</li>
+ * </ul>
+ * The files are read and written with the asynchronous file system of Vert.x, so the cache can be used on the event
+ * loop. The writes of the file of a month are done one after the other, and every write replaces the file with an
+ * atomic move of a temporary file of its own, so a reader never sees a partially written file.
+ *
+ * @author Bas Piepers
+ */
+class WeatherCache {
+    private static final Logger LOGGER = LoggerFactory.getLogger(WeatherCache.class);
+    private static final int DAY_BYTES = Integer.BYTES + 24 * Long.BYTES;
+
+    private final Vertx vertx;
+    private final String directory;
+    private final Map<Long, WeatherDay> days;
+    // The last write of the file of a month by path, a write waits for the previous write of its file.
+    private final Map<String, Completable> writes = new HashMap<>();
+
+    /**
+     * @param maxDays,   the maximum amount of days that are kept in memory.
+     * @param directory, the directory of the files of the cache or null to only keep the days in memory.
+     */
+    WeatherCache(Vertx vertx, int maxDays, String directory) {
+        if (maxDays < 0) {
+            throw new IllegalArgumentException("The weather cache must be able to contain at least 0 days (" + maxDays + ").");
+        }
+        this.vertx = vertx;
+        this.directory = directory;
+        this.days = new LinkedHashMap<Long, WeatherDay>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, WeatherDay> eldest) {
+                return this.size() > maxDays;
+            }
+        };
+    }
+
+    /**
+     * Finds the cached days of a range of a station. The days that are not in memory are read from disk, only the
+     * files of the months that have days that are not in memory are read.
+     *
+     * @param station,  the weather station.
+     * @param firstDay, the first epoch day of the range.
+     * @param lastDay,  the last epoch day (inclusive) of the range.
+     * @return the cached days of the range by their epoch day, in chronological order.
+     */
+    Single<TreeMap<Integer, WeatherDay>> find(String station, int firstDay, int lastDay) {
+        TreeMap<Integer, WeatherDay> found = this.fromMemory(station, firstDay, lastDay);
+        if (found.size() == lastDay - firstDay + 1 || Objects.isNull(this.directory)) {
+            return Single.just(found);
+        }
+        return Observable
+                .fromIterable(months(firstDay, lastDay))
+                .filter(month -> this.isMissingDays(found, month, firstDay, lastDay))
+                .concatMap(month -> this.readMonth(station, month).toObservable())
+                .flatMapIterable(monthDays -> monthDays)
+                .filter(day -> day.epochDay() >= firstDay && day.epochDay() <= lastDay)
+                .doOnNext(day -> {
+                    found.put(day.epochDay(), day);
+                    this.toMemory(station, day);
+                })
+                .ignoreElements()
+                .andThen(Single.fromCallable(() -> found));
+    }
+
+    /**
+     * Caches the complete days of a station, the other days are ignored.
+     *
+     * @return completes when the days have been written to disk.
+     */
+    Completable put(String station, List<WeatherDay> days) {
+        List<WeatherDay> complete = days
+                .stream()
+                .filter(WeatherDay::isComplete)
+                .collect(Collectors.toList());
+        complete.forEach(day -> this.toMemory(station, day));
+        if (Objects.isNull(this.directory) || complete.isEmpty()) {
+            return Completable.complete();
+        }
+        return Observable
+                .fromIterable(complete
+                        .stream()
+                        .collect(Collectors.groupingBy(day -> month(day.epochDay()), TreeMap::new, Collectors.toList()))
+                        .entrySet())
+                .concatMapCompletable(month -> this.writeMonth(station, month.getKey(), month.getValue()));
+    }
+
+    private synchronized TreeMap<Integer, WeatherDay> fromMemory(String station, int firstDay, int lastDay) {
+        TreeMap<Integer, WeatherDay> found = new TreeMap<>();
+        for (int day = firstDay; day <= lastDay; day++) {
+            WeatherDay weatherDay = this.days.get(key(station, day));
+            if (Objects.nonNull(weatherDay)) {
+                found.put(day, weatherDay);
+            }
+        }
+        return found;
+    }
+
+    private synchronized void toMemory(String station, WeatherDay day) {
+        this.days.put(key(station, day.epochDay()), day);
+    }
+
+    // Whether days of the range in the month (yyyyMM) were not found.
+    private boolean isMissingDays(TreeMap<Integer, WeatherDay> found, int month, int firstDay, int lastDay) {
+        LocalDate start = LocalDate.of(month / 100, month % 100, 1);
+        int first = Math.max(firstDay, Math.toIntExact(start.toEpochDay()));
+        int last = Math.min(lastDay, Math.toIntExact(start.plusMonths(1).toEpochDay()) - 1);
+        return found.subMap(first, true, last, true).size() < last - first + 1;
+    }
+
+    private Single<List<WeatherDay>> readMonth(String station, int month) {
+        String path = this.path(station, month);
+        return this.vertx
+                .fileSystem()
+                .rxExists(path)
+                .flatMap(exists -> exists ? this.vertx.fileSystem().rxReadFile(path).map(WeatherCache::decode) :
+                        Single.just(Collections.<WeatherDay>emptyList()))
+                .onErrorReturn(throwable -> {
+                    LOGGER.warn("Could not read the weather cache file {}.", path, throwable);
+                    return Collections.emptyList();
+                });
+    }
+
+    // Merges the days with the days that are already in the file of the month and replaces the file, after the
+    // previous write of the file (whether it succeeded or not).
+    private synchronized Completable writeMonth(String station, int month, List<WeatherDay> days) {
+        String path = this.path(station, month);
+        Completable previous = this.writes.getOrDefault(path, Completable.complete());
+        Completable[] write = new Completable[1];
+        write[0] = previous
+                .onErrorComplete()
+                .andThen(this.replaceMonth(station, month, days))
+                .doFinally(() -> this.written(path, write[0]))
+                .cache();
+        this.writes.put(path, write[0]);
+        return write[0];
+    }
+
+    private synchronized void written(String path, Completable write) {
+        this.writes.remove(path, write);
+    }
+
+    private Completable replaceMonth(String station, int month, List<WeatherDay> days) {
+        String path = this.path(station, month);
+        String parent = new File(path).getParent();
+        return this.readMonth(station, month)
+                .map(existing -> {
+                    TreeMap<Integer, WeatherDay> merged = new TreeMap<>();
+                    existing.forEach(day -> merged.put(day.epochDay(), day));
+                    days.forEach(day -> merged.put(day.epochDay(), day));
+                    return encode(merged.values());
+                })
+                .flatMapCompletable(buffer -> this.vertx
+                        .fileSystem()
+                        .rxMkdirs(parent)
+                        .andThen(this.vertx.<String>rxExecuteBlocking(future -> {
+                            try {
+                                future.complete(Files.createTempFile(Paths.get(parent), month + "-", ".tmp").toString());
+                            } catch (Exception e) {
+                                future.fail(e);
+                            }
+                        }, false))
+                        .flatMapCompletable(temporary -> this.vertx
+                                .fileSystem()
+                                .rxWriteFile(temporary, buffer)
+                                .andThen(this.vertx.fileSystem().rxMove(temporary, path,
+                                        new CopyOptions().setReplaceExisting(true).setAtomicMove(true)))
+                                .onErrorResumeNext(throwable -> this.vertx
+                                        .fileSystem()
+                                        .rxDelete(temporary)
+                                        .onErrorComplete()
+                                        .andThen(Completable.error(throwable)))));
+    }
+
+    private String path(String station, int month) {
+        return this.directory + File.separator + station + File.separator + month + ".bin";
+    }
+
+    private static Buffer encode(Collection<WeatherDay> days) {
+        Buffer buffer = Buffer.buffer(days.size() * DAY_BYTES);
+        for (WeatherDay day : days) {
+            buffer.appendInt(day.epochDay());
+            for (int hour = 0; hour < 24; hour++) {
+                buffer.appendLong(day.get(hour));
+            }
+        }
+        return buffer;
+    }
+
+    // A partially written day at the end of the file is ignored.
+    private static List<WeatherDay> decode(Buffer buffer) {
+        List<WeatherDay> days = new ArrayList<>(buffer.length() / DAY_BYTES);
+        for (int position = 0; position + DAY_BYTES <= buffer.length(); position += DAY_BYTES) {
+            WeatherDay day = new WeatherDay(buffer.getInt(position));
+            for (int hour = 0; hour < 24; hour++) {
+                day.put(hour, buffer.getLong(position + Integer.BYTES + hour * Long.BYTES));
+            }
+            days.add(day);
+        }
+        return days;
+    }
+
+    private static List<Integer> months(int firstDay, int lastDay) {
+        List<Integer> months = new ArrayList<>();
+        for (LocalDate date = LocalDate.ofEpochDay(firstDay).withDayOfMonth(1); !date.isAfter(LocalDate.ofEpochDay(lastDay));
+             date = date.plusMonths(1)) {
+            months.add(date.getYear() * 100 + date.getMonthValue());
+        }
+        return months;
+    }
+
+    private static int month(int epochDay) {
+        LocalDate date = LocalDate.ofEpochDay(epochDay);
+        return date.getYear() * 100 + date.getMonthValue();
+    }
+
+    private static long key(String station, int epochDay) {
+        return (long) Integer.parseInt(station) << 32 | epochDay & 0xFFFFFFFFL;
+    }
+}
@@ -0,0 +1,60 @@
+package com.ocs.analytics.infrastructure;
+
+import com.ocs.analytics.domain.WeatherJoin;
+import com.ocs.analytics.domain.WeatherMeasurement;
+
+/**
+ * The packed weather measurements (see {@link WeatherMeasurement#packed()}) of the hours of one day of a weather
+ * station. Historical weather data doesn't change, so a day of which every hour has been measured is kept in the
+ * {@link WeatherCache}.
+ *
+ * @author Bas Piepers
+ */
+class WeatherDay {
+    private static final int ALL_HOURS = (1 << 24) - 1;
+
+    private final int epochDay;
+    private final long[] measurements = new long[24];
+    // A bit for every hour that has a measurement.
+    private int hours;
+
+    WeatherDay(int epochDay) {
+        this.epochDay = epochDay;
+    }
+
+    int epochDay() {
+        return this.epochDay;
+    }
+
+    void put(int hour, long packedWeatherMeasurement) {
+        if (hour < 0 || hour > 23) {
+            throw new IllegalArgumentException("Invalid hour of a weather measurement (" + hour + ").");
+        }
+        this.measurements[hour] = packedWeatherMeasurement;
+        this.hours |= 1 << hour;
+    }
+
+    long get(int hour) {
+        return this.measurements[hour];
+    }
+
+    /**
+     * @return true if every hour of the day has a measurement.
+     */
+    boolean isComplete() {
+        return this.hours == ALL_HOURS;
+    }
+
+    /**
+     * Adds the measured hours of the day from the first up to and including the last epoch hour to the statistics. A
+     * cached or shared day can contain more hours than the statistics, those hours are not added.
+     */
+    void joinWith(WeatherJoin join, int firstEpochHour, int lastEpochHour) {
+        for (int hour = 0; hour < 24; hour++) {
+            int epochHour = this.epochDay * 24 + hour;
+            if ((this.hours & 1 << hour) != 0 && epochHour >= firstEpochHour && epochHour <= lastEpochHour) {
+                join.add(epochHour, this.measurements[hour]);
+            }
+        }
+    }
+}
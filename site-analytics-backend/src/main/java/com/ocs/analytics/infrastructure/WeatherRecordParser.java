@@ -0,0 +1,177 @@
+package com.ocs.analytics.infrastructure;
+
+import com.ocs.analytics.domain.HourOfDay;
+import com.ocs.analytics.domain.WeatherMeasurement;
+import io.vertx.core.Handler;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.streams.WriteStream;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Parses the response of the weather site into {@link WeatherDay}s while the chunks of the response arrive, so the
+ * response is never buffered and no strings are created for its lines. The bytes of a line are tokenized straight into
+ * the numerical columns of a record (see {@link WeatherMeasurement#pack(int[])}); whitespace is ignored.
+ * <p>
+ * A record with an empty column (a value that hasn't been measured) is skipped, so its hour is absent. Such a day
+ * isn't complete and therefore isn't cached, so the missing value is requested again later instead of being kept as 0.
+ * <p>
+ * Lines that aren't records (the header and the comments of the response) are skipped: a line is a record if it only
+ * contains numbers, has {@link WeatherMeasurement#COLUMNS} columns, a station of 3 digits and a date of 8 digits.
+ * <p>
+ * The records are expected to be ordered by date, the date of a record is only converted to an epoch day when it
+ * differs from the date of the previous record. A record with an hour outside of 1 to 24 fails the stream.
+ *
+ * @author Bas Piepers
+ */
+class WeatherRecordParser implements WriteStream<Buffer> {
+    private final List<WeatherDay> days = new ArrayList<>();
+    private final int[] columns = new int[WeatherMeasurement.COLUMNS];
+    private Handler<Throwable> exceptionHandler;
+    private Throwable failure;
+    private int records;
+    private int incomplete;
+
+    // The state of the line that is being parsed.
+    private int column;
+    private int value;
+    private int digits;
+    private boolean negative;
+    private boolean skipLine;
+    private boolean missing;
+
+    // The day of the previous record.
+    private WeatherDay day;
+    private int date;
+
+    @Override
+    public WeatherRecordParser exceptionHandler(Handler<Throwable> handler) {
+        this.exceptionHandler = handler;
+        return this;
+    }
+
+    @Override
+    public WeatherRecordParser write(Buffer chunk) {
+        for (int i = 0; i < chunk.length() && Objects.isNull(this.failure); i++) {
+            this.parse(chunk.getByte(i));
+        }
+        return this;
+    }
+
+    @Override
+    public void end() {
+        this.parse((byte) '\n');
+    }
+
+    @Override
+    public WeatherRecordParser setWriteQueueMaxSize(int maxSize) {
+        return this;
+    }
+
+    @Override
+    public boolean writeQueueFull() {
+        // Every chunk is parsed when it is written.
+        return false;
+    }
+
+    @Override
+    public WeatherRecordParser drainHandler(Handler<Void> handler) {
+        return this;
+    }
+
+    /**
+     * @return the days of the records that have been parsed, in the order of the records.
+     * @throws IllegalArgumentException if a record could not be parsed.
+     */
+    List<WeatherDay> days() {
+        if (Objects.nonNull(this.failure)) {
+            throw new IllegalArgumentException(this.failure.getMessage(), this.failure);
+        }
+        return this.days;
+    }
+
+    /**
+     * @return the amount of records that have been parsed.
+     */
+    int records() {
+        return this.records;
+    }
+
+    /**
+     * @return the amount of records that have been skipped because a value was missing.
+     */
+    int incomplete() {
+        return this.incomplete;
+    }
+
+    private void parse(byte b) {
+        if (b == '\n') {
+            this.endLine();
+        } else if (this.skipLine || b == ' ' || b == '\t' || b == '\r') {
+            return;
+        } else if (b >= '0' && b <= '9') {
+            this.value = this.value * 10 + (b - '0');
+            this.digits++;
+        } else if (b == '-' && this.digits == 0 && !this.negative) {
+            this.negative = true;
+        } else if (b == ',') {
+            this.endColumn();
+        } else {
+            this.skipLine = true;
+        }
+    }
+
+    private void endColumn() {
+        if (this.column == this.columns.length) {
+            this.skipLine = true;
+            return;
+        }
+        this.missing |= this.digits == 0;
+        this.columns[this.column++] = this.negative ? -this.value : this.value;
+        this.value = 0;
+        this.negative = false;
+        this.digits = 0;
+    }
+
+    private void endLine() {
+        boolean empty = this.column == 0 && this.digits == 0 && !this.negative;
+        if (!this.skipLine && !empty) {
+            this.endColumn();
+            if (!this.skipLine && this.column == this.columns.length && this.columns[0] < 1000 &&
+                    this.columns[1] >= 10000000 && this.columns[1] <= 99999999) {
+                if (this.missing) {
+                    this.incomplete++;
+                } else {
+                    this.add();
+                }
+            }
+        }
+        this.column = 0;
+        this.value = 0;
+        this.digits = 0;
+        this.negative = false;
+        this.skipLine = false;
+        this.missing = false;
+    }
+
+    private void add() {
+        int recordDate = this.columns[1];
+        if (Objects.isNull(this.day) || recordDate != this.date) {
+            this.date = recordDate;
+            this.day = new WeatherDay(HourOfDay.epochHour(recordDate / 10000, recordDate / 100 % 100,
+                    recordDate % 100, 0) / 24);
+            this.days.add(this.day);
+        }
+        try {
+            this.day.put(this.columns[2] - 1, WeatherMeasurement.pack(this.columns));
+            this.records++;
+        } catch (IllegalArgumentException e) {
+            this.failure = e;
+            if (Objects.nonNull(this.exceptionHandler)) {
+                this.exceptionHandler.handle(e);
+            }
+        }
+    }
+}
@@ -17,9 +17,30 @@
     const client = Stomp.client(url);
     let statisticsData;
     let chart;
+    let partialPages = [];
+    let partialStartKey;
 
     let callback = function (frame) {
         let statistics = JSON.parse(frame.body);
+        if (statistics.partial) {
+            // Show the first days while the rest of the file is still being processed.
+            if (partialPages.length < 3) {
+                if (partialPages.length === 0) {
+                    partialStartKey = statistics.startKey;
+                }
+                partialPages = partialPages.concat(statistics.page);
+                processData({
+                    startKey: partialStartKey,
+                    endKey: statistics.endKey,
+                    sop: partialStartKey,
+                    eop: statistics.eop,
+                    page: partialPages
+                });
+                document.getElementById("site-chart").hidden = false;
+            }
+            return;
+        }
+        partialPages = [];
         processData(statistics);
         document.getElementById("processing").innerText = "";
         document.getElementById("button-row").hidden = false;
@@ -9,7 +9,7 @@
             </p>
             <form class="form-inline" action="/import" method="post" enctype="multipart/form-data">
                 <div class="form-group">
-                    <input type="file" class="form-control-file" id="csv" accept=".csv" name="file"/>
+                    <input type="file" class="form-control-file" id="csv" accept=".csv,.gz,.zip" name="file"/>
                 </div>
                 <div class="button">
                     <button type="submit" class="btn btn-primary">Send</button>
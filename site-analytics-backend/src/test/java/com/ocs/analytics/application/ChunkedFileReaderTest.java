@@ -0,0 +1,65 @@
+package com.ocs.analytics.application;
+
+import com.ocs.analytics.domain.SiteStatistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ChunkedFileReaderTest {
+    private Path file;
+
+    @BeforeEach
+    public void init() throws IOException {
+        this.file = ImportFile.create("chunked-import");
+    }
+
+    @AfterEach
+    public void cleanup() throws IOException {
+        Files.deleteIfExists(this.file);
+    }
+
+    @Test
+    public void test_that_the_boundaries_are_at_the_start_of_lines() throws IOException {
+        // Given
+        ChunkedFileReader reader = new ChunkedFileReader(this.file.toString());
+        byte[] bytes = Files.readAllBytes(this.file);
+
+        // When
+        List<Long> boundaries = reader.split(7);
+
+        // Then
+        assertThat(boundaries.size()).isEqualTo(8);
+        assertThat(boundaries.get(0)).isEqualTo(0L);
+        assertThat(boundaries.get(boundaries.size() - 1)).isEqualTo((long) bytes.length);
+        assertThat(boundaries).isSorted();
+        boundaries
+                .subList(1, boundaries.size() - 1)
+                .forEach(boundary -> assertThat(bytes[(int) (boundary - 1)]).isEqualTo((byte) '\n'));
+    }
+
+    @Test
+    public void test_that_when_the_file_is_read_in_chunks_that_the_result_is_identical_to_reading_it_sequentially() throws IOException {
+        // Given
+        ChunkedFileReader reader = new ChunkedFileReader(this.file.toString());
+        List<String> expected = ImportFile.asStrings(ImportFile.readSequentially(this.file));
+
+        for (int chunks = 1; chunks <= 50; chunks++) {
+            // When
+            List<Long> boundaries = reader.split(chunks);
+            SiteStatistics result = new SiteStatistics();
+            for (int i = 0; i < boundaries.size() - 1; i++) {
+                reader.read(boundaries.get(i), boundaries.get(i + 1)).forEach(result::addStatistic);
+            }
+
+            // Then
+            assertThat(ImportFile.asStrings(result)).isEqualTo(expected);
+        }
+    }
+}
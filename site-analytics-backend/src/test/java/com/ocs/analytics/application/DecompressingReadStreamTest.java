@@ -0,0 +1,354 @@
+package com.ocs.analytics.application;
+
+import io.vertx.core.Handler;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.streams.ReadStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DecompressingReadStreamTest {
+    private byte[] content;
+
+    @BeforeEach
+    public void init() {
+        StringBuilder builder = new StringBuilder("Uur van de dag,Gebruikers,Nieuwe gebruikers,Sessies \n");
+        for (int day = 1; day <= 28; day++) {
+            for (int hour = 0; hour < 24; hour++) {
+                builder.append(String.format("201802%02d%02d,%d,%d,%d,0\n", day, hour, day * hour, hour, day));
+            }
+        }
+        this.content = builder.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void test_that_a_gzip_file_is_decompressed() throws IOException {
+        // Given
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(this.content);
+        }
+
+        // When Then
+        this.assertDecompressed(compressed.toByteArray(), this.content);
+    }
+
+    @Test
+    public void test_that_a_gzip_file_with_a_file_name_is_decompressed() throws IOException {
+        // Given
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(this.content);
+        }
+        byte[] bytes = compressed.toByteArray();
+        // Set the file name flag and insert the name after the fixed header, like gzip on the command line does.
+        ByteArrayOutputStream named = new ByteArrayOutputStream();
+        named.write(bytes, 0, 3);
+        named.write(8);
+        named.write(bytes, 4, 6);
+        named.write("analytics.csv\0".getBytes(StandardCharsets.US_ASCII));
+        named.write(bytes, 10, bytes.length - 10);
+
+        // When Then
+        this.assertDecompressed(named.toByteArray(), this.content);
+    }
+
+    @Test
+    public void test_that_a_deflated_zip_entry_is_decompressed() throws IOException {
+        // Given
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(compressed)) {
+            zip.putNextEntry(new ZipEntry("analytics.csv"));
+            zip.write(this.content);
+            zip.closeEntry();
+        }
+
+        // When Then
+        this.assertDecompressed(compressed.toByteArray(), this.content);
+    }
+
+    @Test
+    public void test_that_a_stored_zip_entry_is_read() throws IOException {
+        // Given
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        CRC32 crc = new CRC32();
+        crc.update(this.content);
+        try (ZipOutputStream zip = new ZipOutputStream(compressed)) {
+            ZipEntry entry = new ZipEntry("analytics.csv");
+            entry.setMethod(ZipEntry.STORED);
+            entry.setSize(this.content.length);
+            entry.setCrc(crc.getValue());
+            zip.putNextEntry(entry);
+            zip.write(this.content);
+            zip.closeEntry();
+        }
+
+        // When Then
+        this.assertDecompressed(compressed.toByteArray(), this.content);
+    }
+
+    @Test
+    public void test_that_all_members_of_a_gzip_file_are_decompressed() throws IOException {
+        // Given
+        int half = this.content.length / 2;
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        // Like files that are concatenated with cat or compressed in parallel with pigz.
+        for (int[] member : new int[][]{{0, half}, {half, this.content.length - half}}) {
+            try (GZIPOutputStream gzip = new GZIPOutputStream(new NonClosingOutputStream(compressed))) {
+                gzip.write(this.content, member[0], member[1]);
+            }
+        }
+
+        // When Then
+        this.assertDecompressed(compressed.toByteArray(), this.content);
+    }
+
+    @Test
+    public void test_that_all_entries_of_a_zip_file_are_decompressed() throws IOException {
+        // Given
+        CRC32 crc = new CRC32();
+        crc.update(this.content);
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(compressed)) {
+            zip.putNextEntry(new ZipEntry("january.csv"));
+            zip.write(this.content);
+            zip.closeEntry();
+            ZipEntry stored = new ZipEntry("february.csv");
+            stored.setMethod(ZipEntry.STORED);
+            stored.setSize(this.content.length);
+            stored.setCrc(crc.getValue());
+            zip.putNextEntry(stored);
+            zip.write(this.content);
+            zip.closeEntry();
+        }
+        byte[] expected = Buffer.buffer(this.content).appendString("\n").appendBytes(this.content).getBytes();
+
+        // When Then
+        this.assertDecompressed(compressed.toByteArray(), expected);
+    }
+
+    @Test
+    public void test_that_when_a_gzip_file_is_followed_by_other_bytes_that_this_fails() throws IOException {
+        // Given
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(new NonClosingOutputStream(compressed))) {
+            gzip.write(this.content);
+        }
+        compressed.write(this.content);
+        ChunkedReadStream stream = new ChunkedReadStream(Buffer.buffer(compressed.toByteArray()), 100);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        // When
+        new DecompressingReadStream(stream)
+                .exceptionHandler(failure::set)
+                .endHandler(end -> failure.set(null))
+                .handler(buffer -> {
+                });
+        stream.emit();
+
+        // Then
+        assertThat(failure.get()).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    public void test_that_nothing_is_emitted_while_the_stream_is_paused() throws IOException {
+        // Given
+        Buffer large = Buffer.buffer();
+        for (int i = 0; i < 10; i++) {
+            large.appendBytes(this.content);
+        }
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(large.getBytes());
+        }
+        // All bytes arrive at once, so the inflater has more output than fits in a single buffer.
+        byte[] bytes = compressed.toByteArray();
+        ChunkedReadStream stream = new ChunkedReadStream(Buffer.buffer(bytes), bytes.length);
+        Buffer result = Buffer.buffer();
+        AtomicReference<Boolean> ended = new AtomicReference<>(false);
+        DecompressingReadStream decompressing = new DecompressingReadStream(stream);
+        decompressing
+                .endHandler(end -> ended.set(true))
+                .handler(buffer -> {
+                    result.appendBuffer(buffer);
+                    decompressing.pause();
+                });
+
+        // When
+        stream.emit();
+
+        // Then
+        assertThat(stream.paused).isTrue();
+        assertThat(result.length()).isGreaterThan(0).isLessThan(large.length());
+        assertThat(ended.get()).isFalse();
+
+        // When
+        int emitted = result.length();
+        decompressing.resume();
+
+        // Then
+        assertThat(result.length()).isGreaterThan(emitted);
+        assertThat(ended.get()).isFalse();
+
+        // When
+        decompressing.handler(result::appendBuffer);
+        decompressing.resume();
+
+        // Then
+        assertThat(ended.get()).isTrue();
+        assertThat(result.getBytes()).isEqualTo(large.getBytes());
+    }
+
+    @Test
+    public void test_that_a_plain_file_is_passed_on_as_it_is() {
+        byte[] shorterThanAHeader = "2018".getBytes(StandardCharsets.US_ASCII);
+
+        this.assertDecompressed(this.content, this.content);
+        this.assertDecompressed(shorterThanAHeader, shorterThanAHeader);
+    }
+
+    @Test
+    public void test_that_when_a_compressed_file_is_incomplete_that_this_fails() throws IOException {
+        // Given
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(this.content);
+        }
+        byte[] bytes = compressed.toByteArray();
+        ChunkedReadStream stream = new ChunkedReadStream(Buffer.buffer().appendBytes(bytes, 0, bytes.length / 2), 100);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        // When
+        new DecompressingReadStream(stream)
+                .exceptionHandler(failure::set)
+                .endHandler(end -> failure.set(null))
+                .handler(buffer -> {
+                });
+        stream.emit();
+
+        // Then
+        assertThat(failure.get()).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    public void test_that_compressed_files_are_detected_from_their_first_bytes() throws IOException {
+        // Given
+        ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(gzipped)) {
+            gzip.write(this.content);
+        }
+        ByteArrayOutputStream zipped = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(zipped)) {
+            zip.putNextEntry(new ZipEntry("analytics.csv"));
+            zip.write(this.content);
+            zip.closeEntry();
+        }
+        int length = DecompressingReadStream.SIGNATURE_SIZE;
+
+        // When Then
+        assertThat(DecompressingReadStream.isCompressed(Buffer.buffer().appendBytes(gzipped.toByteArray(), 0, length)))
+                .isTrue();
+        assertThat(DecompressingReadStream.isCompressed(Buffer.buffer().appendBytes(zipped.toByteArray(), 0, length)))
+                .isTrue();
+        assertThat(DecompressingReadStream.isCompressed(Buffer.buffer().appendBytes(this.content, 0, length))).isFalse();
+        assertThat(DecompressingReadStream.isCompressed(Buffer.buffer())).isFalse();
+    }
+
+    private void assertDecompressed(byte[] bytes, byte[] expected) {
+        for (int chunkSize : new int[]{1, 7, 64, 1000, bytes.length}) {
+            ChunkedReadStream stream = new ChunkedReadStream(Buffer.buffer(bytes), chunkSize);
+            Buffer result = Buffer.buffer();
+            AtomicReference<Boolean> ended = new AtomicReference<>(false);
+
+            new DecompressingReadStream(stream)
+                    .exceptionHandler(throwable -> {
+                        throw new AssertionError(throwable);
+                    })
+                    .endHandler(end -> ended.set(true))
+                    .handler(result::appendBuffer);
+            stream.emit();
+
+            assertThat(ended.get()).isTrue();
+            assertThat(result.getBytes()).isEqualTo(expected);
+        }
+    }
+
+    /**
+     * Keeps the underlying stream open, so that several gzip members are written to the same stream.
+     */
+    private static class NonClosingOutputStream extends FilterOutputStream {
+        private NonClosingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.flush();
+        }
+    }
+
+    /**
+     * Emits the bytes in chunks of a fixed size, like a file or an upload does. Pausing is only recorded, the chunks are
+     * emitted regardless, like the chunks that are already on their way when a stream is paused.
+     */
+    private static class ChunkedReadStream implements ReadStream<Buffer> {
+        private final Buffer bytes;
+        private final int chunkSize;
+        private Handler<Buffer> handler;
+        private Handler<Void> endHandler;
+        private boolean paused;
+
+        private ChunkedReadStream(Buffer bytes, int chunkSize) {
+            this.bytes = bytes;
+            this.chunkSize = chunkSize;
+        }
+
+        private void emit() {
+            for (int i = 0; i < this.bytes.length(); i += this.chunkSize) {
+                this.handler.handle(this.bytes.getBuffer(i, Math.min(i + this.chunkSize, this.bytes.length())));
+            }
+            this.endHandler.handle(null);
+        }
+
+        @Override
+        public ReadStream<Buffer> exceptionHandler(Handler<Throwable> handler) {
+            return this;
+        }
+
+        @Override
+        public ReadStream<Buffer> handler(Handler<Buffer> handler) {
+            this.handler = handler;
+            return this;
+        }
+
+        @Override
+        public ReadStream<Buffer> pause() {
+            this.paused = true;
+            return this;
+        }
+
+        @Override
+        public ReadStream<Buffer> resume() {
+            this.paused = false;
+            return this;
+        }
+
+        @Override
+        public ReadStream<Buffer> endHandler(Handler<Void> endHandler) {
+            this.endHandler = endHandler;
+            return this;
+        }
+    }
+}
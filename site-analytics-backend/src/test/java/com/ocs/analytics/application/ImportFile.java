@@ -0,0 +1,64 @@
+package com.ocs.analytics.application;
+
+import com.ocs.analytics.domain.SiteStatistic;
+import com.ocs.analytics.domain.SiteStatistics;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * The file of a site statistics import for the tests of the readers of an import: a header, a record for every hour
+ * of the first 20 days of January 2018 with both line endings, a duplicate hour and an unterminated last line.
+ */
+final class ImportFile {
+    static final String IMPORT_PATTERN = "^[0-9]{10},\\d+?,\\d+?,\\d+?,\\d+?$";
+    /**
+     * The amount of distinct hours in the file.
+     */
+    static final int HOURS = 20 * 24;
+
+    private ImportFile() {
+    }
+
+    static Path create(String prefix) throws IOException {
+        StringBuilder content = new StringBuilder("ALLEEN DE EERSTE 4 KOLOMMEN PARSEN\nUur van de dag,Gebruikers,Nieuwe gebruikers,Sessies \n");
+        for (int day = 1; day <= 20; day++) {
+            for (int hour = 0; hour < 24; hour++) {
+                content.append(String.format("201801%02d%02d,%d,%d,%d,0", day, hour, day + hour, hour, day * hour))
+                        .append(hour % 5 == 0 ? "\r\n" : "\n");
+            }
+        }
+        // Duplicate hours are ignored by the statistics and an unterminated last line is not a record.
+        content.append("2018010105,999,999,999,0\n");
+        content.append("2018012200,1,1,1,0");
+        Path file = Files.createTempFile(prefix, ".csv");
+        Files.write(file, content.toString().getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    // Reads the file line by line with the string mapping of a site statistic.
+    static SiteStatistics readSequentially(Path file) throws IOException {
+        String content = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+        List<String> lines = Arrays.asList(content.split("\n", -1));
+        SiteStatistics siteStatistics = new SiteStatistics();
+        lines.subList(0, lines.size() - 1)
+                .stream()
+                .filter(line -> line.trim().matches(IMPORT_PATTERN))
+                .map(line -> SiteStatistic.from(line.trim()))
+                .forEach(siteStatistics::addStatistic);
+        return siteStatistics;
+    }
+
+    static List<String> asStrings(SiteStatistics siteStatistics) {
+        return siteStatistics
+                .getStatistics()
+                .stream()
+                .map(ss -> ss.getHourOfDay() + "," + ss.getUsers() + "," + ss.getNewUsers() + "," + ss.getSessions())
+                .collect(Collectors.toList());
+    }
+}
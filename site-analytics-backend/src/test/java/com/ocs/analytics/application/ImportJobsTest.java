@@ -0,0 +1,83 @@
+package com.ocs.analytics.application;
+
+import io.reactivex.disposables.Disposable;
+import io.reactivex.disposables.Disposables;
+import io.vertx.core.Vertx;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ImportJobsTest {
+    private Vertx vertx;
+    private ImportJobs importJobs;
+
+    @BeforeEach
+    public void init() {
+        this.vertx = Vertx.vertx();
+        this.importJobs = new ImportJobs(this.vertx);
+    }
+
+    @AfterEach
+    public void close() {
+        this.importJobs.close();
+        this.vertx.close();
+    }
+
+    @Test
+    public void test_that_the_progress_of_a_job_is_visible_after_it_was_published() {
+        // Given
+        ImportJob job = this.importJobs.create("analytics.csv", 100L);
+
+        // When
+        job.start();
+        job.addRows(10);
+        job.addBytes(50);
+        this.importJobs.publish(job);
+
+        // Then
+        ImportJob snapshot = this.importJobs.get(job.getId()).get();
+        assertThat(snapshot.getState()).isEqualTo(ImportJob.State.RUNNING);
+        assertThat(snapshot.getRowsParsed()).isEqualTo(10);
+        assertThat(snapshot.getBytesRead()).isEqualTo(50);
+        assertThat(this.importJobs.active()).isEqualTo(1);
+    }
+
+    @Test
+    public void test_that_when_a_queued_job_is_cancelled_that_it_is_no_longer_active() {
+        // Given
+        ImportJob job = this.importJobs.create("analytics.csv", 100L);
+
+        // When
+        boolean cancelled = this.importJobs.cancel(job.getId());
+
+        // Then
+        assertThat(cancelled).isTrue();
+        assertThat(this.importJobs.get(job.getId()).get().getState()).isEqualTo(ImportJob.State.CANCELLED);
+        assertThat(this.importJobs.active()).isEqualTo(0);
+        assertThat(this.importJobs.cancel(job.getId())).isFalse();
+        assertThat(this.importJobs.cancel("unknown")).isFalse();
+    }
+
+    @Test
+    public void test_that_when_a_running_job_is_cancelled_that_its_processing_is_disposed() throws InterruptedException {
+        // Given
+        ImportJob job = this.importJobs.create("analytics.csv", 100L);
+        Disposable disposable = Disposables.empty();
+        CountDownLatch latch = new CountDownLatch(1);
+        job.start();
+        this.importJobs.run(job, disposable, latch::countDown);
+
+        // When
+        this.importJobs.cancel(job.getId());
+
+        // Then
+        assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(disposable.isDisposed()).isTrue();
+        assertThat(this.importJobs.get(job.getId()).get().getState()).isEqualTo(ImportJob.State.CANCELLED);
+    }
+}
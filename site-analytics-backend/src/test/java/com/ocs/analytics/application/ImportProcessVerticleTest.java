@@ -0,0 +1,115 @@
+package com.ocs.analytics.application;
+
+import com.ocs.analytics.domain.SiteStatisticsService;
+import io.reactivex.observers.TestObserver;
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.eventbus.ReplyException;
+import io.vertx.core.json.JsonObject;
+import io.vertx.reactivex.core.Vertx;
+import io.vertx.reactivex.core.eventbus.Message;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ImportProcessVerticleTest {
+    private static final int INSTANCES = 2;
+
+    private Vertx vertx;
+    // The enrichments that the imports are waiting for, which are only replied to when a test says so.
+    private List<Message<JsonObject>> enrichments;
+
+    @BeforeEach
+    public void init() {
+        this.vertx = Vertx.vertx();
+        this.enrichments = new CopyOnWriteArrayList<>();
+        this.vertx.eventBus().<JsonObject>consumer(SiteStatisticsService.EVENT_BUS_ADDRESS, this.enrichments::add);
+        JsonObject configuration = new JsonObject()
+                .put("import", new JsonObject().put("instances", INSTANCES).put("queue_size", 1));
+        this.vertx
+                .rxDeployVerticle(ImportProcessVerticle.class.getName(), new DeploymentOptions()
+                        .setConfig(configuration)
+                        .setInstances(INSTANCES))
+                .blockingGet();
+    }
+
+    @AfterEach
+    public void close() {
+        this.vertx.close();
+    }
+
+    @Test
+    public void test_that_when_the_queue_of_an_instance_is_full_that_the_import_goes_to_another_instance() throws IOException {
+        // Given
+        TestObserver<Message<JsonObject>> first = this.sendImport();
+        this.await(() -> this.enrichments.size() == 1);
+        TestObserver<Message<JsonObject>> second = this.sendImport();
+        this.await(() -> this.enrichments.size() == 2);
+        // The instance of the second import is idle again, the event bus delivers the next import to the first one.
+        this.enrich(this.enrichments.get(1));
+        second.awaitTerminalEvent(10, TimeUnit.SECONDS);
+
+        // When
+        TestObserver<Message<JsonObject>> third = this.sendImport();
+
+        // Then
+        this.await(() -> this.enrichments.size() == 3);
+        this.enrich(this.enrichments.get(0));
+        this.enrich(this.enrichments.get(2));
+        third.awaitTerminalEvent(10, TimeUnit.SECONDS);
+        first.awaitTerminalEvent(10, TimeUnit.SECONDS);
+        assertThat(third.errors()).isEmpty();
+        assertThat(third.values()).hasSize(1);
+        assertThat(first.values()).hasSize(1);
+    }
+
+    @Test
+    public void test_that_when_the_queues_of_all_instances_are_full_that_the_import_is_rejected() throws IOException {
+        // Given
+        this.sendImport();
+        this.sendImport();
+        this.await(() -> this.enrichments.size() == 2);
+
+        // When
+        TestObserver<Message<JsonObject>> third = this.sendImport();
+        third.awaitTerminalEvent(10, TimeUnit.SECONDS);
+
+        // Then
+        assertThat(third.errors()).hasSize(1);
+        assertThat(third.errors().get(0)).isInstanceOf(ReplyException.class);
+        assertThat(((ReplyException) third.errors().get(0)).failureCode()).isEqualTo(3);
+        assertThat(this.enrichments).hasSize(2);
+    }
+
+    private TestObserver<Message<JsonObject>> sendImport() throws IOException {
+        JsonObject fileUpload = new JsonObject()
+                .put("fileName", "analytics.csv")
+                .put("uploadedFileName", ImportFile.create("import-process-verticle").toString());
+        return HttpServerVerticle.sendImport(this.vertx, fileUpload, INSTANCES).test();
+    }
+
+    // Replies with the statistics as they were sent, like an enrichment without weather data.
+    private void enrich(Message<JsonObject> enrichment) {
+        enrichment.reply(enrichment.body().getJsonObject("statistics"));
+    }
+
+    private void await(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 10_000L;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(10L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        assertThat(condition.getAsBoolean()).isTrue();
+    }
+}
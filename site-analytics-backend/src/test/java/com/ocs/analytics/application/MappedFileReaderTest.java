@@ -0,0 +1,67 @@
+package com.ocs.analytics.application;
+
+import com.ocs.analytics.domain.SiteStatistic;
+import com.ocs.analytics.domain.SiteStatistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class MappedFileReaderTest {
+    private Path file;
+
+    @BeforeEach
+    public void init() throws IOException {
+        this.file = ImportFile.create("mapped-import");
+    }
+
+    @AfterEach
+    public void cleanup() throws IOException {
+        Files.deleteIfExists(this.file);
+    }
+
+    @Test
+    public void test_that_when_the_file_is_mapped_that_all_records_are_read() throws IOException {
+        // Given
+        MappedFileReader reader = new MappedFileReader(this.file.toString());
+        SiteStatistics result = new SiteStatistics();
+
+        // When
+        reader.read(decoder -> result.addStatistic(SiteStatistic.from(decoder)));
+
+        // Then
+        assertThat(ImportFile.asStrings(result)).isEqualTo(ImportFile.asStrings(ImportFile.readSequentially(this.file)));
+        assertThat(result.getStatistics().size()).isEqualTo(ImportFile.HOURS);
+    }
+
+    @Test
+    public void test_that_when_the_file_is_mapped_in_windows_that_the_result_is_identical_to_reading_it_at_once() throws IOException {
+        // Given
+        List<String> expected = ImportFile.asStrings(ImportFile.readSequentially(this.file));
+
+        for (long windowSize = 128; windowSize <= 4096; windowSize += 61) {
+            MappedFileReader reader = new MappedFileReader(this.file.toString(), windowSize);
+            SiteStatistics result = new SiteStatistics();
+
+            // When
+            reader.read(decoder -> result.addStatistic(SiteStatistic.from(decoder)));
+
+            // Then
+            assertThat(ImportFile.asStrings(result)).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    public void test_that_when_a_line_is_longer_than_a_window_that_this_throws_exception() {
+        MappedFileReader reader = new MappedFileReader(this.file.toString(), 16);
+        assertThatThrownBy(() -> reader.read(decoder -> {
+        })).isInstanceOf(IOException.class);
+    }
+}
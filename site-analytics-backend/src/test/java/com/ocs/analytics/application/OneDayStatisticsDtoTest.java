@@ -24,31 +24,31 @@ public class OneDayStatisticsDtoTest {
     public void test_that_when_site_statics_source_are_more_than_one_day_that_exception_is_thrown() {
         // Given
         TreeSet<SiteStatistic> longerThanADay = new TreeSet<>();
-        longerThanADay.add(new SiteStatistic("1", HourOfDay.of(2018, 1, 1, 0), 1L, 1L, 1L));
-        longerThanADay.add(new SiteStatistic("2", HourOfDay.of(2018, 1, 1, 1), 1L, 1L, 1L));
-        longerThanADay.add(new SiteStatistic("3", HourOfDay.of(2018, 1, 1, 2), 1L, 1L, 1L));
-        longerThanADay.add(new SiteStatistic("4", HourOfDay.of(2018, 1, 1, 3), 1L, 1L, 1L));
-        longerThanADay.add(new SiteStatistic("5", HourOfDay.of(2018, 1, 1, 4), 1L, 1L, 1L));
-        longerThanADay.add(new SiteStatistic("6", HourOfDay.of(2018, 1, 1, 5), 1L, 1L, 1L));
-        longerThanADay.add(new SiteStatistic("7", HourOfDay.of(2018, 1, 1, 6), 1L, 1L, 1L));
-        longerThanADay.add(new SiteStatistic("8", HourOfDay.of(2018, 1, 1, 7), 1L, 1L, 1L));
-        longerThanADay.add(new SiteStatistic("9", HourOfDay.of(2018, 1, 1, 8), 1L, 1L, 1L));
-        longerThanADay.add(new SiteStatistic("10", HourOfDay.of(2018, 1, 1, 9), 1L, 1L, 1L));
-        longerThanADay.add(new SiteStatistic("11", HourOfDay.of(2018, 1, 1, 10), 1L, 1L, 1L));
-        longerThanADay.add(new SiteStatistic("12", HourOfDay.of(2018, 1, 1, 11), 1L, 1L, 1L));
-        longerThanADay.add(new SiteStatistic("13", HourOfDay.of(2018, 1, 1, 12), 1L, 1L, 1L));
-        longerThanADay.add(new SiteStatistic("14", HourOfDay.of(2018, 1, 1, 13), 1L, 1L, 1L));
-        longerThanADay.add(new SiteStatistic("15", HourOfDay.of(2018, 1, 1, 14), 1L, 1L, 1L));
-        longerThanADay.add(new SiteStatistic("16", HourOfDay.of(2018, 1, 1, 15), 1L, 1L, 1L));
-        longerThanADay.add(new SiteStatistic("17", HourOfDay.of(2018, 1, 1, 16), 1L, 1L, 1L));
-        longerThanADay.add(new SiteStatistic("18", HourOfDay.of(2018, 1, 1, 17), 1L, 1L, 1L));
-        longerThanADay.add(new SiteStatistic("19", HourOfDay.of(2018, 1, 1, 18), 1L, 1L, 1L));
-        longerThanADay.add(new SiteStatistic("20", HourOfDay.of(2018, 1, 1, 19), 1L, 1L, 1L));
-        longerThanADay.add(new SiteStatistic("21", HourOfDay.of(2018, 1, 1, 20), 1L, 1L, 1L));
-        longerThanADay.add(new SiteStatistic("22", HourOfDay.of(2018, 1, 1, 21), 1L, 1L, 1L));
-        longerThanADay.add(new SiteStatistic("23", HourOfDay.of(2018, 1, 1, 22), 1L, 1L, 1L));
-        longerThanADay.add(new SiteStatistic("24", HourOfDay.of(2018, 1, 1, 23), 1L, 1L, 1L));
-        longerThanADay.add(new SiteStatistic("25", HourOfDay.of(2018, 1, 2, 0), 1L, 1L, 1L));
+        longerThanADay.add(new SiteStatistic(1L, HourOfDay.of(2018, 1, 1, 0), 1L, 1L, 1L));
+        longerThanADay.add(new SiteStatistic(2L, HourOfDay.of(2018, 1, 1, 1), 1L, 1L, 1L));
+        longerThanADay.add(new SiteStatistic(3L, HourOfDay.of(2018, 1, 1, 2), 1L, 1L, 1L));
+        longerThanADay.add(new SiteStatistic(4L, HourOfDay.of(2018, 1, 1, 3), 1L, 1L, 1L));
+        longerThanADay.add(new SiteStatistic(5L, HourOfDay.of(2018, 1, 1, 4), 1L, 1L, 1L));
+        longerThanADay.add(new SiteStatistic(6L, HourOfDay.of(2018, 1, 1, 5), 1L, 1L, 1L));
+        longerThanADay.add(new SiteStatistic(7L, HourOfDay.of(2018, 1, 1, 6), 1L, 1L, 1L));
+        longerThanADay.add(new SiteStatistic(8L, HourOfDay.of(2018, 1, 1, 7), 1L, 1L, 1L));
+        longerThanADay.add(new SiteStatistic(9L, HourOfDay.of(2018, 1, 1, 8), 1L, 1L, 1L));
+        longerThanADay.add(new SiteStatistic(10L, HourOfDay.of(2018, 1, 1, 9), 1L, 1L, 1L));
+        longerThanADay.add(new SiteStatistic(11L, HourOfDay.of(2018, 1, 1, 10), 1L, 1L, 1L));
+        longerThanADay.add(new SiteStatistic(12L, HourOfDay.of(2018, 1, 1, 11), 1L, 1L, 1L));
+        longerThanADay.add(new SiteStatistic(13L, HourOfDay.of(2018, 1, 1, 12), 1L, 1L, 1L));
+        longerThanADay.add(new SiteStatistic(14L, HourOfDay.of(2018, 1, 1, 13), 1L, 1L, 1L));
+        longerThanADay.add(new SiteStatistic(15L, HourOfDay.of(2018, 1, 1, 14), 1L, 1L, 1L));
+        longerThanADay.add(new SiteStatistic(16L, HourOfDay.of(2018, 1, 1, 15), 1L, 1L, 1L));
+        longerThanADay.add(new SiteStatistic(17L, HourOfDay.of(2018, 1, 1, 16), 1L, 1L, 1L));
+        longerThanADay.add(new SiteStatistic(18L, HourOfDay.of(2018, 1, 1, 17), 1L, 1L, 1L));
+        longerThanADay.add(new SiteStatistic(19L, HourOfDay.of(2018, 1, 1, 18), 1L, 1L, 1L));
+        longerThanADay.add(new SiteStatistic(20L, HourOfDay.of(2018, 1, 1, 19), 1L, 1L, 1L));
+        longerThanADay.add(new SiteStatistic(21L, HourOfDay.of(2018, 1, 1, 20), 1L, 1L, 1L));
+        longerThanADay.add(new SiteStatistic(22L, HourOfDay.of(2018, 1, 1, 21), 1L, 1L, 1L));
+        longerThanADay.add(new SiteStatistic(23L, HourOfDay.of(2018, 1, 1, 22), 1L, 1L, 1L));
+        longerThanADay.add(new SiteStatistic(24L, HourOfDay.of(2018, 1, 1, 23), 1L, 1L, 1L));
+        longerThanADay.add(new SiteStatistic(25L, HourOfDay.of(2018, 1, 2, 0), 1L, 1L, 1L));
 
         // When/Then
         assertThatThrownBy(() -> OneDayStatisticsDto
@@ -61,8 +61,8 @@ public class OneDayStatisticsDtoTest {
     public void test_that_when_first_hour_doesnt_start_at_midnight_that_exception_is_thrown() {
         // Given
         TreeSet<SiteStatistic> invalid = new TreeSet<>();
-        invalid.add(new SiteStatistic("1", HourOfDay.of(2018, 1, 1, 12), 1L, 1L, 1L));
-        invalid.add(new SiteStatistic("2", HourOfDay.of(2018, 1, 1, 13), 1L, 1L, 1L));
+        invalid.add(new SiteStatistic(1L, HourOfDay.of(2018, 1, 1, 12), 1L, 1L, 1L));
+        invalid.add(new SiteStatistic(2L, HourOfDay.of(2018, 1, 1, 13), 1L, 1L, 1L));
 
         // When/Then
         assertThatThrownBy(() -> OneDayStatisticsDto
@@ -75,30 +75,30 @@ public class OneDayStatisticsDtoTest {
     public void test_that_expected_dto_is_returned_for_full_day() {
         // Given
         TreeSet<SiteStatistic> aDay = new TreeSet<>();
-        aDay.add(new SiteStatistic("1", HourOfDay.of(2018, 1, 1, 0), 1L, 1L, 0L).weatherMeasurement(new WeatherMeasurement(1, 0, 0, 0, false, false, false, false, false, 0, 0)));
-        aDay.add(new SiteStatistic("2", HourOfDay.of(2018, 1, 1, 1), 2L, 11L, 56L).weatherMeasurement(new WeatherMeasurement(2, 0, 0, 0, false, false, false, false, false, 0, 0)));
-        aDay.add(new SiteStatistic("3", HourOfDay.of(2018, 1, 1, 2), 0L, 13L, 15L).weatherMeasurement(new WeatherMeasurement(3, 0, 0, 0, false, false, false, false, false, 0, 0)));
-        aDay.add(new SiteStatistic("4", HourOfDay.of(2018, 1, 1, 3), 50L, 14L, 7L).weatherMeasurement(new WeatherMeasurement(4, 0, 0, 0, false, false, false, false, false, 0, 0)));
-        aDay.add(new SiteStatistic("5", HourOfDay.of(2018, 1, 1, 4), 12L, 11L, 6L).weatherMeasurement(new WeatherMeasurement(5, 0, 0, 0, false, false, false, false, false, 0, 0)));
-        aDay.add(new SiteStatistic("6", HourOfDay.of(2018, 1, 1, 5), 5L, 6L, 2L).weatherMeasurement(new WeatherMeasurement(6, 0, 0, 0, false, false, false, false, false, 0, 0)));
-        aDay.add(new SiteStatistic("7", HourOfDay.of(2018, 1, 1, 6), 3L, 8L, 89L).weatherMeasurement(new WeatherMeasurement(7, 0, 0, 0, false, false, false, false, false, 0, 0)));
-        aDay.add(new SiteStatistic("8", HourOfDay.of(2018, 1, 1, 7), 12L, 5L, 6L).weatherMeasurement(new WeatherMeasurement(8, 0, 0, 0, false, false, false, false, false, 0, 0)));
-        aDay.add(new SiteStatistic("9", HourOfDay.of(2018, 1, 1, 8), 11L, 4L, 7L).weatherMeasurement(new WeatherMeasurement(9, 0, 0, 0, false, false, false, false, false, 0, 0)));
-        aDay.add(new SiteStatistic("10", HourOfDay.of(2018, 1, 1, 9), 89L, 3L, 2L).weatherMeasurement(new WeatherMeasurement(10, 0, 0, 0, false, false, false, false, false, 0, 0)));
-        aDay.add(new SiteStatistic("11", HourOfDay.of(2018, 1, 1, 10), 3L, 0L, 3L).weatherMeasurement(new WeatherMeasurement(11, 0, 0, 0, false, false, false, false, false, 0, 0)));
-        aDay.add(new SiteStatistic("12", HourOfDay.of(2018, 1, 1, 11), 1L, 1L, 4L).weatherMeasurement(new WeatherMeasurement(12, 0, 0, 0, false, false, false, false, false, 0, 0)));
-        aDay.add(new SiteStatistic("13", HourOfDay.of(2018, 1, 1, 12), 55L, 15L, 789L).weatherMeasurement(new WeatherMeasurement(13, 0, 0, 0, false, false, false, false, false, 0, 0)));
-        aDay.add(new SiteStatistic("14", HourOfDay.of(2018, 1, 1, 13), 44L, 13L, 987L).weatherMeasurement(new WeatherMeasurement(14, 0, 0, 0, false, false, false, false, false, 0, 0)));
-        aDay.add(new SiteStatistic("15", HourOfDay.of(2018, 1, 1, 14), 33L, 89L, 654L).weatherMeasurement(new WeatherMeasurement(15, 0, 0, 0, false, false, false, false, false, 0, 0)));
-        aDay.add(new SiteStatistic("16", HourOfDay.of(2018, 1, 1, 15), 22L, 301L, 456L).weatherMeasurement(new WeatherMeasurement(16, 0, 0, 0, false, false, false, false, false, 0, 0)));
-        aDay.add(new SiteStatistic("17", HourOfDay.of(2018, 1, 1, 16), 12L, 4L, 123L).weatherMeasurement(new WeatherMeasurement(17, 0, 0, 0, false, false, false, false, false, 0, 0)));
-        aDay.add(new SiteStatistic("18", HourOfDay.of(2018, 1, 1, 17), 900L, 1L, 321L).weatherMeasurement(new WeatherMeasurement(18, 0, 0, 0, false, false, false, false, false, 0, 0)));
-        aDay.add(new SiteStatistic("19", HourOfDay.of(2018, 1, 1, 18), 777L, 5L, 1L).weatherMeasurement(new WeatherMeasurement(19, 0, 0, 0, false, false, false, false, false, 0, 0)));
-        aDay.add(new SiteStatistic("20", HourOfDay.of(2018, 1, 1, 19), 222L, 6L, 2L).weatherMeasurement(new WeatherMeasurement(18, 0, 0, 0, false, false, false, false, false, 0, 0)));
-        aDay.add(new SiteStatistic("21", HourOfDay.of(2018, 1, 1, 20), 111L, 6L, 3L).weatherMeasurement(new WeatherMeasurement(17, 0, 0, 0, false, false, false, false, false, 0, 0)));
-        aDay.add(new SiteStatistic("22", HourOfDay.of(2018, 1, 1, 21), 333L, 2L, 4L).weatherMeasurement(new WeatherMeasurement(16, 0, 0, 0, false, false, false, false, false, 0, 0)));
-        aDay.add(new SiteStatistic("23", HourOfDay.of(2018, 1, 1, 22), 45L, 98L, 5L).weatherMeasurement(new WeatherMeasurement(15, 0, 0, 0, false, false, false, false, false, 0, 0)));
-        aDay.add(new SiteStatistic("24", HourOfDay.of(2018, 1, 1, 23), 89L, 7L, 1L).weatherMeasurement(new WeatherMeasurement(14, 0, 0, 0, false, false, false, false, false, 0, 0)));
+        aDay.add(new SiteStatistic(1L, HourOfDay.of(2018, 1, 1, 0), 1L, 1L, 0L).weatherMeasurement(new WeatherMeasurement(1, 0, 0, 0, false, false, false, false, false, 0, 0)));
+        aDay.add(new SiteStatistic(2L, HourOfDay.of(2018, 1, 1, 1), 2L, 11L, 56L).weatherMeasurement(new WeatherMeasurement(2, 0, 0, 0, false, false, false, false, false, 0, 0)));
+        aDay.add(new SiteStatistic(3L, HourOfDay.of(2018, 1, 1, 2), 0L, 13L, 15L).weatherMeasurement(new WeatherMeasurement(3, 0, 0, 0, false, false, false, false, false, 0, 0)));
+        aDay.add(new SiteStatistic(4L, HourOfDay.of(2018, 1, 1, 3), 50L, 14L, 7L).weatherMeasurement(new WeatherMeasurement(4, 0, 0, 0, false, false, false, false, false, 0, 0)));
+        aDay.add(new SiteStatistic(5L, HourOfDay.of(2018, 1, 1, 4), 12L, 11L, 6L).weatherMeasurement(new WeatherMeasurement(5, 0, 0, 0, false, false, false, false, false, 0, 0)));
+        aDay.add(new SiteStatistic(6L, HourOfDay.of(2018, 1, 1, 5), 5L, 6L, 2L).weatherMeasurement(new WeatherMeasurement(6, 0, 0, 0, false, false, false, false, false, 0, 0)));
+        aDay.add(new SiteStatistic(7L, HourOfDay.of(2018, 1, 1, 6), 3L, 8L, 89L).weatherMeasurement(new WeatherMeasurement(7, 0, 0, 0, false, false, false, false, false, 0, 0)));
+        aDay.add(new SiteStatistic(8L, HourOfDay.of(2018, 1, 1, 7), 12L, 5L, 6L).weatherMeasurement(new WeatherMeasurement(8, 0, 0, 0, false, false, false, false, false, 0, 0)));
+        aDay.add(new SiteStatistic(9L, HourOfDay.of(2018, 1, 1, 8), 11L, 4L, 7L).weatherMeasurement(new WeatherMeasurement(9, 0, 0, 0, false, false, false, false, false, 0, 0)));
+        aDay.add(new SiteStatistic(10L, HourOfDay.of(2018, 1, 1, 9), 89L, 3L, 2L).weatherMeasurement(new WeatherMeasurement(10, 0, 0, 0, false, false, false, false, false, 0, 0)));
+        aDay.add(new SiteStatistic(11L, HourOfDay.of(2018, 1, 1, 10), 3L, 0L, 3L).weatherMeasurement(new WeatherMeasurement(11, 0, 0, 0, false, false, false, false, false, 0, 0)));
+        aDay.add(new SiteStatistic(12L, HourOfDay.of(2018, 1, 1, 11), 1L, 1L, 4L).weatherMeasurement(new WeatherMeasurement(12, 0, 0, 0, false, false, false, false, false, 0, 0)));
+        aDay.add(new SiteStatistic(13L, HourOfDay.of(2018, 1, 1, 12), 55L, 15L, 789L).weatherMeasurement(new WeatherMeasurement(13, 0, 0, 0, false, false, false, false, false, 0, 0)));
+        aDay.add(new SiteStatistic(14L, HourOfDay.of(2018, 1, 1, 13), 44L, 13L, 987L).weatherMeasurement(new WeatherMeasurement(14, 0, 0, 0, false, false, false, false, false, 0, 0)));
+        aDay.add(new SiteStatistic(15L, HourOfDay.of(2018, 1, 1, 14), 33L, 89L, 654L).weatherMeasurement(new WeatherMeasurement(15, 0, 0, 0, false, false, false, false, false, 0, 0)));
+        aDay.add(new SiteStatistic(16L, HourOfDay.of(2018, 1, 1, 15), 22L, 301L, 456L).weatherMeasurement(new WeatherMeasurement(16, 0, 0, 0, false, false, false, false, false, 0, 0)));
+        aDay.add(new SiteStatistic(17L, HourOfDay.of(2018, 1, 1, 16), 12L, 4L, 123L).weatherMeasurement(new WeatherMeasurement(17, 0, 0, 0, false, false, false, false, false, 0, 0)));
+        aDay.add(new SiteStatistic(18L, HourOfDay.of(2018, 1, 1, 17), 900L, 1L, 321L).weatherMeasurement(new WeatherMeasurement(18, 0, 0, 0, false, false, false, false, false, 0, 0)));
+        aDay.add(new SiteStatistic(19L, HourOfDay.of(2018, 1, 1, 18), 777L, 5L, 1L).weatherMeasurement(new WeatherMeasurement(19, 0, 0, 0, false, false, false, false, false, 0, 0)));
+        aDay.add(new SiteStatistic(20L, HourOfDay.of(2018, 1, 1, 19), 222L, 6L, 2L).weatherMeasurement(new WeatherMeasurement(18, 0, 0, 0, false, false, false, false, false, 0, 0)));
+        aDay.add(new SiteStatistic(21L, HourOfDay.of(2018, 1, 1, 20), 111L, 6L, 3L).weatherMeasurement(new WeatherMeasurement(17, 0, 0, 0, false, false, false, false, false, 0, 0)));
+        aDay.add(new SiteStatistic(22L, HourOfDay.of(2018, 1, 1, 21), 333L, 2L, 4L).weatherMeasurement(new WeatherMeasurement(16, 0, 0, 0, false, false, false, false, false, 0, 0)));
+        aDay.add(new SiteStatistic(23L, HourOfDay.of(2018, 1, 1, 22), 45L, 98L, 5L).weatherMeasurement(new WeatherMeasurement(15, 0, 0, 0, false, false, false, false, false, 0, 0)));
+        aDay.add(new SiteStatistic(24L, HourOfDay.of(2018, 1, 1, 23), 89L, 7L, 1L).weatherMeasurement(new WeatherMeasurement(14, 0, 0, 0, false, false, false, false, false, 0, 0)));
 
         // When
         OneDayStatisticsDto dto = OneDayStatisticsDto.from(aDay);
@@ -245,11 +245,11 @@ public class OneDayStatisticsDtoTest {
     public void test_that_expected_dto_is_returned_for_partial_day() {
         // Given
         TreeSet<SiteStatistic> aDay = new TreeSet<>();
-        aDay.add(new SiteStatistic("1", HourOfDay.of(2018, 1, 1, 0), 1L, 1L, 0L).weatherMeasurement(new WeatherMeasurement(1, 0, 0, 0, false, false, false, false, false, 0, 0)));
-        aDay.add(new SiteStatistic("2", HourOfDay.of(2018, 1, 1, 1), 2L, 11L, 56L).weatherMeasurement(new WeatherMeasurement(2, 0, 0, 0, false, false, false, false, false, 0, 0)));
-        aDay.add(new SiteStatistic("3", HourOfDay.of(2018, 1, 1, 2), 0L, 13L, 15L).weatherMeasurement(new WeatherMeasurement(3, 0, 0, 0, false, false, false, false, false, 0, 0)));
-        aDay.add(new SiteStatistic("4", HourOfDay.of(2018, 1, 1, 3), 50L, 14L, 7L).weatherMeasurement(new WeatherMeasurement(4, 0, 0, 0, false, false, false, false, false, 0, 0)));
-        aDay.add(new SiteStatistic("5", HourOfDay.of(2018, 1, 1, 4), 12L, 11L, 6L).weatherMeasurement(new WeatherMeasurement(5, 0, 0, 0, false, false, false, false, false, 0, 0)));
+        aDay.add(new SiteStatistic(1L, HourOfDay.of(2018, 1, 1, 0), 1L, 1L, 0L).weatherMeasurement(new WeatherMeasurement(1, 0, 0, 0, false, false, false, false, false, 0, 0)));
+        aDay.add(new SiteStatistic(2L, HourOfDay.of(2018, 1, 1, 1), 2L, 11L, 56L).weatherMeasurement(new WeatherMeasurement(2, 0, 0, 0, false, false, false, false, false, 0, 0)));
+        aDay.add(new SiteStatistic(3L, HourOfDay.of(2018, 1, 1, 2), 0L, 13L, 15L).weatherMeasurement(new WeatherMeasurement(3, 0, 0, 0, false, false, false, false, false, 0, 0)));
+        aDay.add(new SiteStatistic(4L, HourOfDay.of(2018, 1, 1, 3), 50L, 14L, 7L).weatherMeasurement(new WeatherMeasurement(4, 0, 0, 0, false, false, false, false, false, 0, 0)));
+        aDay.add(new SiteStatistic(5L, HourOfDay.of(2018, 1, 1, 4), 12L, 11L, 6L).weatherMeasurement(new WeatherMeasurement(5, 0, 0, 0, false, false, false, false, false, 0, 0)));
 
         // When
         OneDayStatisticsDto dto = OneDayStatisticsDto.from(aDay);
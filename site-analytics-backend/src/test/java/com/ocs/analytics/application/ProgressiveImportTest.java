@@ -0,0 +1,98 @@
+package com.ocs.analytics.application;
+
+import com.ocs.analytics.domain.HourOfDay;
+import com.ocs.analytics.domain.SiteStatistic;
+import com.ocs.analytics.domain.SiteStatistics;
+import io.reactivex.Flowable;
+import io.reactivex.Single;
+import io.vertx.core.json.JsonObject;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ProgressiveImportTest {
+
+    @Test
+    public void test_that_consecutive_statistics_of_the_same_day_are_aggregated_into_one_day() {
+        // Given
+        ProgressiveImport instanceUnderTest = new ProgressiveImport(new ImportOptions(new JsonObject()
+                .put("aggregation", "sum")), Single::just, day -> {
+        });
+        Flowable<SiteStatistic> statistics = Flowable.just(
+                new SiteStatistic(HourOfDay.of(2018, 1, 1, 0), 1L, 1L, 1L),
+                new SiteStatistic(HourOfDay.of(2018, 1, 1, 5), 2L, 2L, 2L),
+                new SiteStatistic(HourOfDay.of(2018, 1, 1, 5), 3L, 3L, 3L),
+                new SiteStatistic(HourOfDay.of(2018, 1, 2, 23), 4L, 4L, 4L),
+                // A day that was complete already starts a new day.
+                new SiteStatistic(HourOfDay.of(2018, 1, 1, 6), 5L, 5L, 5L));
+
+        // When
+        List<SiteStatistics> days = instanceUnderTest.perDay(statistics).toList().blockingGet();
+
+        // Then
+        assertThat(days).extracting(ProgressiveImport::epochDay).containsExactly(this.epochDay(2018, 1, 1),
+                this.epochDay(2018, 1, 2), this.epochDay(2018, 1, 1));
+        assertThat(days).extracting(SiteStatistics::size).containsExactly(2, 1, 1);
+        assertThat(days.get(0).columns().users(HourOfDay.epochHour(2018, 1, 1, 5))).isEqualTo(5L);
+        assertThat(days.get(2).columns().users(HourOfDay.epochHour(2018, 1, 1, 6))).isEqualTo(5L);
+    }
+
+    @Test
+    public void test_that_consecutive_days_of_the_same_month_are_collected_into_one_window() {
+        // Given
+        ProgressiveImport instanceUnderTest = new ProgressiveImport(new ImportOptions(new JsonObject()), Single::just,
+                day -> {
+                });
+        Flowable<SiteStatistics> days = Flowable.just(this.day(2018, 1, 30), this.day(2018, 1, 31),
+                this.day(2018, 2, 1), this.day(2018, 3, 5), this.day(2018, 3, 6));
+
+        // When
+        List<List<SiteStatistics>> windows = instanceUnderTest.perMonth(days).toList().blockingGet();
+
+        // Then
+        assertThat(windows).extracting(List::size).containsExactly(2, 1, 2);
+        assertThat(ProgressiveImport.epochDay(windows.get(1).get(0))).isEqualTo(this.epochDay(2018, 2, 1));
+    }
+
+    @Test
+    public void test_that_every_month_is_enriched_once_and_the_days_are_published_in_the_order_of_the_file() {
+        // Given
+        List<SiteStatistics> enrichments = new CopyOnWriteArrayList<>();
+        List<Long> published = new CopyOnWriteArrayList<>();
+        ProgressiveImport instanceUnderTest = new ProgressiveImport(new ImportOptions(new JsonObject()
+                .put("parallelism", 4)), window -> {
+            enrichments.add(window);
+            // The first months take longest to enrich, so the windows complete in the reverse order.
+            long delay = 10L * (12 - window.first().month());
+            return Single.just(window).delay(delay, TimeUnit.MILLISECONDS);
+        }, day -> published.add(ProgressiveImport.epochDay(day)));
+        List<SiteStatistic> statistics = new ArrayList<>();
+        for (LocalDate date = LocalDate.of(2018, 1, 1); date.getMonthValue() < 5; date = date.plusDays(1)) {
+            statistics.add(new SiteStatistic(HourOfDay.of(date.getYear(), date.getMonthValue(), date.getDayOfMonth(),
+                    12), 1L, 1L, 1L));
+        }
+
+        // When
+        SiteStatistics result = instanceUnderTest.importStatistics(Flowable.fromIterable(statistics)).blockingGet();
+
+        // Then
+        assertThat(enrichments).hasSize(4);
+        assertThat(published).hasSize(statistics.size());
+        assertThat(published).isSorted();
+        assertThat(result.size()).isEqualTo(statistics.size());
+    }
+
+    private SiteStatistics day(int year, int month, int day) {
+        return new SiteStatistics().addStatistic(new SiteStatistic(HourOfDay.of(year, month, day, 0), 1L, 1L, 1L));
+    }
+
+    private long epochDay(int year, int month, int day) {
+        return LocalDate.of(year, month, day).toEpochDay();
+    }
+}
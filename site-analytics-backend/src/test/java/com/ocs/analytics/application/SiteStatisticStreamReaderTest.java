@@ -0,0 +1,126 @@
+package com.ocs.analytics.application;
+
+import com.ocs.analytics.domain.SiteStatistic;
+import io.reactivex.subscribers.TestSubscriber;
+import io.vertx.core.Handler;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.streams.ReadStream;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SiteStatisticStreamReaderTest {
+    private static final int WINDOW = 16;
+    private static final int BATCH_SIZE = 4;
+
+    @Test
+    public void test_that_the_stream_is_paused_while_a_slow_consumer_has_a_window_of_rows_outstanding() {
+        // Given
+        List<Buffer> lines = new ArrayList<>();
+        for (int day = 1; day <= 20; day++) {
+            for (int hour = 0; hour < 24; hour++) {
+                lines.add(Buffer.buffer(String.format("201801%02d%02d,%d,%d,%d,0\n", day, hour, day, hour, day + hour)));
+            }
+        }
+        LineStream stream = new LineStream(lines);
+        SiteStatisticStreamReader instanceUnderTest = new SiteStatisticStreamReader(new ImportOptions(new JsonObject()
+                .put("window", WINDOW)
+                .put("batch_size", BATCH_SIZE)));
+        ImportJob job = new ImportJob("analytics.csv", null);
+
+        // When
+        // The consumer processes one row at a time and only asks for the next row when it is done.
+        TestSubscriber<SiteStatistic> consumer = instanceUnderTest.read(stream, job).test(0);
+        int outstanding = 0;
+        for (int row = 0; row < lines.size(); row++) {
+            consumer.request(1);
+            outstanding = Math.max(outstanding, stream.emitted() - consumer.valueCount());
+        }
+
+        // Then
+        consumer.assertComplete();
+        assertThat(consumer.valueCount()).isEqualTo(lines.size());
+        assertThat(stream.pauses()).isGreaterThan(0);
+        assertThat(outstanding).isLessThanOrEqualTo(WINDOW);
+        assertThat(job.getRowsParsed()).isEqualTo(lines.size());
+    }
+
+    /**
+     * Emits a line per chunk for as long as it isn't paused, like a file does.
+     */
+    private static class LineStream implements ReadStream<Buffer> {
+        private final List<Buffer> lines;
+        private Handler<Buffer> handler;
+        private Handler<Void> endHandler;
+        private boolean paused;
+        private boolean emitting;
+        private int emitted;
+        private int pauses;
+
+        private LineStream(List<Buffer> lines) {
+            this.lines = lines;
+        }
+
+        private int emitted() {
+            return this.emitted;
+        }
+
+        private int pauses() {
+            return this.pauses;
+        }
+
+        private void emit() {
+            if (this.emitting) {
+                return;
+            }
+            this.emitting = true;
+            while (!this.paused && this.handler != null && this.emitted < this.lines.size()) {
+                this.handler.handle(this.lines.get(this.emitted++));
+            }
+            this.emitting = false;
+            if (!this.paused && this.emitted == this.lines.size() && this.endHandler != null) {
+                Handler<Void> end = this.endHandler;
+                this.endHandler = null;
+                end.handle(null);
+            }
+        }
+
+        @Override
+        public ReadStream<Buffer> exceptionHandler(Handler<Throwable> handler) {
+            return this;
+        }
+
+        @Override
+        public ReadStream<Buffer> handler(Handler<Buffer> handler) {
+            this.handler = handler;
+            this.emit();
+            return this;
+        }
+
+        @Override
+        public ReadStream<Buffer> pause() {
+            if (!this.paused) {
+                this.pauses++;
+            }
+            this.paused = true;
+            return this;
+        }
+
+        @Override
+        public ReadStream<Buffer> resume() {
+            this.paused = false;
+            this.emit();
+            return this;
+        }
+
+        @Override
+        public ReadStream<Buffer> endHandler(Handler<Void> endHandler) {
+            this.endHandler = endHandler;
+            return this;
+        }
+    }
+}
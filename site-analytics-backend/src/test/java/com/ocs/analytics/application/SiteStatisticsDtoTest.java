@@ -10,7 +10,6 @@ import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
 import java.util.TreeSet;
-import java.util.UUID;
 import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -363,30 +362,30 @@ public class SiteStatisticsDtoTest {
         Long sessionCount = 20L;
 
         while (!start.isAfter(end)) {
-            siteStatistics.add(new SiteStatistic(UUID.randomUUID().toString(), HourOfDay.of(start.getYear(), start.getMonthValue(), start.getDayOfMonth(), 0), userCount++, newUserCount++, sessionCount++).weatherMeasurement(WeatherMeasurement.withTemp(1)));
-            siteStatistics.add(new SiteStatistic(UUID.randomUUID().toString(), HourOfDay.of(start.getYear(), start.getMonthValue(), start.getDayOfMonth(), 1), userCount++, newUserCount++, sessionCount++).weatherMeasurement(WeatherMeasurement.withTemp(2)));
-            siteStatistics.add(new SiteStatistic(UUID.randomUUID().toString(), HourOfDay.of(start.getYear(), start.getMonthValue(), start.getDayOfMonth(), 2), userCount++, newUserCount++, sessionCount++).weatherMeasurement(WeatherMeasurement.withTemp(3)));
-            siteStatistics.add(new SiteStatistic(UUID.randomUUID().toString(), HourOfDay.of(start.getYear(), start.getMonthValue(), start.getDayOfMonth(), 3), userCount++, newUserCount++, sessionCount++).weatherMeasurement(WeatherMeasurement.withTemp(4)));
-            siteStatistics.add(new SiteStatistic(UUID.randomUUID().toString(), HourOfDay.of(start.getYear(), start.getMonthValue(), start.getDayOfMonth(), 4), userCount++, newUserCount++, sessionCount++).weatherMeasurement(WeatherMeasurement.withTemp(5)));
-            siteStatistics.add(new SiteStatistic(UUID.randomUUID().toString(), HourOfDay.of(start.getYear(), start.getMonthValue(), start.getDayOfMonth(), 5), userCount++, newUserCount++, sessionCount++).weatherMeasurement(WeatherMeasurement.withTemp(6)));
-            siteStatistics.add(new SiteStatistic(UUID.randomUUID().toString(), HourOfDay.of(start.getYear(), start.getMonthValue(), start.getDayOfMonth(), 6), userCount++, newUserCount++, sessionCount++).weatherMeasurement(WeatherMeasurement.withTemp(7)));
-            siteStatistics.add(new SiteStatistic(UUID.randomUUID().toString(), HourOfDay.of(start.getYear(), start.getMonthValue(), start.getDayOfMonth(), 7), userCount++, newUserCount++, sessionCount++).weatherMeasurement(WeatherMeasurement.withTemp(8)));
-            siteStatistics.add(new SiteStatistic(UUID.randomUUID().toString(), HourOfDay.of(start.getYear(), start.getMonthValue(), start.getDayOfMonth(), 8), userCount++, newUserCount++, sessionCount++).weatherMeasurement(WeatherMeasurement.withTemp(9)));
-            siteStatistics.add(new SiteStatistic(UUID.randomUUID().toString(), HourOfDay.of(start.getYear(), start.getMonthValue(), start.getDayOfMonth(), 9), userCount++, newUserCount++, sessionCount++).weatherMeasurement(WeatherMeasurement.withTemp(10)));
-            siteStatistics.add(new SiteStatistic(UUID.randomUUID().toString(), HourOfDay.of(start.getYear(), start.getMonthValue(), start.getDayOfMonth(), 10), userCount++, newUserCount++, sessionCount++).weatherMeasurement(WeatherMeasurement.withTemp(11)));
-            siteStatistics.add(new SiteStatistic(UUID.randomUUID().toString(), HourOfDay.of(start.getYear(), start.getMonthValue(), start.getDayOfMonth(), 11), userCount++, newUserCount++, sessionCount++).weatherMeasurement(WeatherMeasurement.withTemp(12)));
-            siteStatistics.add(new SiteStatistic(UUID.randomUUID().toString(), HourOfDay.of(start.getYear(), start.getMonthValue(), start.getDayOfMonth(), 12), userCount++, newUserCount++, sessionCount++).weatherMeasurement(WeatherMeasurement.withTemp(13)));
-            siteStatistics.add(new SiteStatistic(UUID.randomUUID().toString(), HourOfDay.of(start.getYear(), start.getMonthValue(), start.getDayOfMonth(), 13), userCount++, newUserCount++, sessionCount++).weatherMeasurement(WeatherMeasurement.withTemp(14)));
-            siteStatistics.add(new SiteStatistic(UUID.randomUUID().toString(), HourOfDay.of(start.getYear(), start.getMonthValue(), start.getDayOfMonth(), 14), userCount++, newUserCount++, sessionCount++).weatherMeasurement(WeatherMeasurement.withTemp(15)));
-            siteStatistics.add(new SiteStatistic(UUID.randomUUID().toString(), HourOfDay.of(start.getYear(), start.getMonthValue(), start.getDayOfMonth(), 15), userCount++, newUserCount++, sessionCount++).weatherMeasurement(WeatherMeasurement.withTemp(16)));
-            siteStatistics.add(new SiteStatistic(UUID.randomUUID().toString(), HourOfDay.of(start.getYear(), start.getMonthValue(), start.getDayOfMonth(), 16), userCount++, newUserCount++, sessionCount++).weatherMeasurement(WeatherMeasurement.withTemp(17)));
-            siteStatistics.add(new SiteStatistic(UUID.randomUUID().toString(), HourOfDay.of(start.getYear(), start.getMonthValue(), start.getDayOfMonth(), 17), userCount++, newUserCount++, sessionCount++).weatherMeasurement(WeatherMeasurement.withTemp(18)));
-            siteStatistics.add(new SiteStatistic(UUID.randomUUID().toString(), HourOfDay.of(start.getYear(), start.getMonthValue(), start.getDayOfMonth(), 18), userCount++, newUserCount++, sessionCount++).weatherMeasurement(WeatherMeasurement.withTemp(19)));
-            siteStatistics.add(new SiteStatistic(UUID.randomUUID().toString(), HourOfDay.of(start.getYear(), start.getMonthValue(), start.getDayOfMonth(), 19), userCount++, newUserCount++, sessionCount++).weatherMeasurement(WeatherMeasurement.withTemp(20)));
-            siteStatistics.add(new SiteStatistic(UUID.randomUUID().toString(), HourOfDay.of(start.getYear(), start.getMonthValue(), start.getDayOfMonth(), 20), userCount++, newUserCount++, sessionCount++).weatherMeasurement(WeatherMeasurement.withTemp(21)));
-            siteStatistics.add(new SiteStatistic(UUID.randomUUID().toString(), HourOfDay.of(start.getYear(), start.getMonthValue(), start.getDayOfMonth(), 21), userCount++, newUserCount++, sessionCount++).weatherMeasurement(WeatherMeasurement.withTemp(22)));
-            siteStatistics.add(new SiteStatistic(UUID.randomUUID().toString(), HourOfDay.of(start.getYear(), start.getMonthValue(), start.getDayOfMonth(), 22), userCount++, newUserCount++, sessionCount++).weatherMeasurement(WeatherMeasurement.withTemp(23)));
-            siteStatistics.add(new SiteStatistic(UUID.randomUUID().toString(), HourOfDay.of(start.getYear(), start.getMonthValue(), start.getDayOfMonth(), 23), userCount++, newUserCount++, sessionCount++).weatherMeasurement(WeatherMeasurement.withTemp(24)));
+            siteStatistics.add(new SiteStatistic(HourOfDay.of(start.getYear(), start.getMonthValue(), start.getDayOfMonth(), 0), userCount++, newUserCount++, sessionCount++).weatherMeasurement(WeatherMeasurement.withTemp(1)));
+            siteStatistics.add(new SiteStatistic(HourOfDay.of(start.getYear(), start.getMonthValue(), start.getDayOfMonth(), 1), userCount++, newUserCount++, sessionCount++).weatherMeasurement(WeatherMeasurement.withTemp(2)));
+            siteStatistics.add(new SiteStatistic(HourOfDay.of(start.getYear(), start.getMonthValue(), start.getDayOfMonth(), 2), userCount++, newUserCount++, sessionCount++).weatherMeasurement(WeatherMeasurement.withTemp(3)));
+            siteStatistics.add(new SiteStatistic(HourOfDay.of(start.getYear(), start.getMonthValue(), start.getDayOfMonth(), 3), userCount++, newUserCount++, sessionCount++).weatherMeasurement(WeatherMeasurement.withTemp(4)));
+            siteStatistics.add(new SiteStatistic(HourOfDay.of(start.getYear(), start.getMonthValue(), start.getDayOfMonth(), 4), userCount++, newUserCount++, sessionCount++).weatherMeasurement(WeatherMeasurement.withTemp(5)));
+            siteStatistics.add(new SiteStatistic(HourOfDay.of(start.getYear(), start.getMonthValue(), start.getDayOfMonth(), 5), userCount++, newUserCount++, sessionCount++).weatherMeasurement(WeatherMeasurement.withTemp(6)));
+            siteStatistics.add(new SiteStatistic(HourOfDay.of(start.getYear(), start.getMonthValue(), start.getDayOfMonth(), 6), userCount++, newUserCount++, sessionCount++).weatherMeasurement(WeatherMeasurement.withTemp(7)));
+            siteStatistics.add(new SiteStatistic(HourOfDay.of(start.getYear(), start.getMonthValue(), start.getDayOfMonth(), 7), userCount++, newUserCount++, sessionCount++).weatherMeasurement(WeatherMeasurement.withTemp(8)));
+            siteStatistics.add(new SiteStatistic(HourOfDay.of(start.getYear(), start.getMonthValue(), start.getDayOfMonth(), 8), userCount++, newUserCount++, sessionCount++).weatherMeasurement(WeatherMeasurement.withTemp(9)));
+            siteStatistics.add(new SiteStatistic(HourOfDay.of(start.getYear(), start.getMonthValue(), start.getDayOfMonth(), 9), userCount++, newUserCount++, sessionCount++).weatherMeasurement(WeatherMeasurement.withTemp(10)));
+            siteStatistics.add(new SiteStatistic(HourOfDay.of(start.getYear(), start.getMonthValue(), start.getDayOfMonth(), 10), userCount++, newUserCount++, sessionCount++).weatherMeasurement(WeatherMeasurement.withTemp(11)));
+            siteStatistics.add(new SiteStatistic(HourOfDay.of(start.getYear(), start.getMonthValue(), start.getDayOfMonth(), 11), userCount++, newUserCount++, sessionCount++).weatherMeasurement(WeatherMeasurement.withTemp(12)));
+            siteStatistics.add(new SiteStatistic(HourOfDay.of(start.getYear(), start.getMonthValue(), start.getDayOfMonth(), 12), userCount++, newUserCount++, sessionCount++).weatherMeasurement(WeatherMeasurement.withTemp(13)));
+            siteStatistics.add(new SiteStatistic(HourOfDay.of(start.getYear(), start.getMonthValue(), start.getDayOfMonth(), 13), userCount++, newUserCount++, sessionCount++).weatherMeasurement(WeatherMeasurement.withTemp(14)));
+            siteStatistics.add(new SiteStatistic(HourOfDay.of(start.getYear(), start.getMonthValue(), start.getDayOfMonth(), 14), userCount++, newUserCount++, sessionCount++).weatherMeasurement(WeatherMeasurement.withTemp(15)));
+            siteStatistics.add(new SiteStatistic(HourOfDay.of(start.getYear(), start.getMonthValue(), start.getDayOfMonth(), 15), userCount++, newUserCount++, sessionCount++).weatherMeasurement(WeatherMeasurement.withTemp(16)));
+            siteStatistics.add(new SiteStatistic(HourOfDay.of(start.getYear(), start.getMonthValue(), start.getDayOfMonth(), 16), userCount++, newUserCount++, sessionCount++).weatherMeasurement(WeatherMeasurement.withTemp(17)));
+            siteStatistics.add(new SiteStatistic(HourOfDay.of(start.getYear(), start.getMonthValue(), start.getDayOfMonth(), 17), userCount++, newUserCount++, sessionCount++).weatherMeasurement(WeatherMeasurement.withTemp(18)));
+            siteStatistics.add(new SiteStatistic(HourOfDay.of(start.getYear(), start.getMonthValue(), start.getDayOfMonth(), 18), userCount++, newUserCount++, sessionCount++).weatherMeasurement(WeatherMeasurement.withTemp(19)));
+            siteStatistics.add(new SiteStatistic(HourOfDay.of(start.getYear(), start.getMonthValue(), start.getDayOfMonth(), 19), userCount++, newUserCount++, sessionCount++).weatherMeasurement(WeatherMeasurement.withTemp(20)));
+            siteStatistics.add(new SiteStatistic(HourOfDay.of(start.getYear(), start.getMonthValue(), start.getDayOfMonth(), 20), userCount++, newUserCount++, sessionCount++).weatherMeasurement(WeatherMeasurement.withTemp(21)));
+            siteStatistics.add(new SiteStatistic(HourOfDay.of(start.getYear(), start.getMonthValue(), start.getDayOfMonth(), 21), userCount++, newUserCount++, sessionCount++).weatherMeasurement(WeatherMeasurement.withTemp(22)));
+            siteStatistics.add(new SiteStatistic(HourOfDay.of(start.getYear(), start.getMonthValue(), start.getDayOfMonth(), 22), userCount++, newUserCount++, sessionCount++).weatherMeasurement(WeatherMeasurement.withTemp(23)));
+            siteStatistics.add(new SiteStatistic(HourOfDay.of(start.getYear(), start.getMonthValue(), start.getDayOfMonth(), 23), userCount++, newUserCount++, sessionCount++).weatherMeasurement(WeatherMeasurement.withTemp(24)));
             start = start.plusDays(1);
         }
         return siteStatistics;
@@ -1,7 +1,12 @@
 package com.ocs.analytics.domain;
 
+import io.vertx.reactivex.core.MultiMap;
 import org.junit.jupiter.api.Test;
 
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
@@ -42,4 +47,88 @@ public class HistoricalParametersTest {
         assertThat(historicalParameters.getStartHour()).isEqualTo(1);
         assertThat(historicalParameters.getEndHour()).isEqualTo(24);
     }
+
+    @Test
+    public void test_that_a_range_of_several_years_is_split_into_month_windows_that_cover_the_range() {
+        // Given
+        HistoricalParameters historicalParameters = HistoricalParameters.forWeatherMeasurement(2014, 11,
+                15, 2018, 2, 3, 5, 9);
+
+        // When
+        List<HistoricalParameters> windows = historicalParameters.split(1);
+
+        // Then
+        assertThat(windows).hasSize(40);
+        HistoricalParameters first = windows.get(0);
+        assertThat(first.getStartDay()).isEqualTo(15);
+        assertThat(first.getStartHour()).isEqualTo(6);
+        assertThat(first.getEndMonth()).isEqualTo(11);
+        assertThat(first.getEndDay()).isEqualTo(30);
+        assertThat(first.getEndHour()).isEqualTo(24);
+        HistoricalParameters february = windows.get(15);
+        assertThat(february.getStartYear()).isEqualTo(2016);
+        assertThat(february.getStartMonth()).isEqualTo(2);
+        assertThat(february.getStartDay()).isEqualTo(1);
+        assertThat(february.getEndDay()).isEqualTo(29);
+        assertThat(february.getStartHour()).isEqualTo(1);
+        HistoricalParameters last = windows.get(39);
+        assertThat(last.getStartMonth()).isEqualTo(2);
+        assertThat(last.getEndDay()).isEqualTo(3);
+        assertThat(last.getEndHour()).isEqualTo(10);
+        assertThat(last.getVariables()).isEqualTo(first.getVariables());
+        assertThat(historicalParameters.split(12)).hasSize(4);
+    }
+
+    @Test
+    public void test_that_the_form_requests_exactly_the_hours_of_the_statistics() {
+        // Given
+        SiteStatistics siteStatistics = new SiteStatistics();
+        // From 2018-03-10 05:00 up to and including 2018-03-12 09:00.
+        int firstHour = HourOfDay.epochHour(2018, 3, 10, 5);
+        int lastHour = HourOfDay.epochHour(2018, 3, 12, 9);
+        for (int hour = firstHour; hour <= lastHour; hour++) {
+            siteStatistics.columns().add(hour, 1, 1, 1);
+        }
+        SiteStatistic first = siteStatistics.first();
+        SiteStatistic last = siteStatistics.last();
+
+        // When
+        HistoricalParameters historicalParameters = HistoricalParameters.forWeatherMeasurement(first.year(),
+                first.month(), first.day(), last.year(), last.month(), last.day(), first.hour(), last.hour());
+        MultiMap form = historicalParameters.asMultiMapForForm();
+
+        // Then
+        assertThat(historicalParameters.hours()).isEqualTo(lastHour - firstHour + 1);
+        assertThat(historicalParameters.split(1).stream().mapToLong(HistoricalParameters::hours).sum())
+                .isEqualTo(lastHour - firstHour + 1);
+        assertThat(form.get("bday")).isEqualTo("10");
+        assertThat(form.get("bhour")).isEqualTo("6");
+        assertThat(form.get("eday")).isEqualTo("12");
+        assertThat(form.get("ehour")).isEqualTo("10");
+        assertThat(form.getAll("variabele")).isEqualTo(WeatherMeasurement.VARIABLES);
+        // Every requested variable is read into a measurement, after the station, the date and the hour.
+        String record = "260,20180310,6," + String.join(",", Collections.nCopies(WeatherMeasurement.VARIABLES.size(), "0"));
+        assertThat(record.split(",")).hasSize(WeatherMeasurement.COLUMNS);
+    }
+
+    @Test
+    public void test_that_a_part_of_the_range_keeps_the_hours_of_the_range_only_on_its_first_and_last_day() {
+        // Given
+        HistoricalParameters historicalParameters = HistoricalParameters.forWeatherMeasurement(2018, 3,
+                10, 2018, 3, 20, 5, 9);
+
+        // When
+        HistoricalParameters start = historicalParameters.between(LocalDate.of(2018, 3, 10), LocalDate.of(2018, 3, 12));
+        HistoricalParameters end = historicalParameters.between(LocalDate.of(2018, 3, 15), LocalDate.of(2018, 3, 20));
+
+        // Then
+        assertThat(start.getStartHour()).isEqualTo(6);
+        assertThat(start.getEndDay()).isEqualTo(12);
+        assertThat(start.getEndHour()).isEqualTo(24);
+        assertThat(end.getStartDay()).isEqualTo(15);
+        assertThat(end.getStartHour()).isEqualTo(1);
+        assertThat(end.getEndHour()).isEqualTo(10);
+        assertThatThrownBy(() -> historicalParameters.between(LocalDate.of(2018, 3, 9), LocalDate.of(2018, 3, 12)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
 }
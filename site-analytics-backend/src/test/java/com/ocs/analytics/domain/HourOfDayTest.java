@@ -2,7 +2,11 @@ package com.ocs.analytics.domain;
 
 import org.junit.jupiter.api.Test;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 public class HourOfDayTest {
 
@@ -29,4 +33,66 @@ public class HourOfDayTest {
         // Then
         assertThat(value).isEqualTo(20190101);
     }
+
+    @Test
+    public void test_that_an_epoch_hour_is_converted_to_the_same_hour_of_the_day() {
+        // Given
+        int epochHour = HourOfDay.epochHour(2018, 2, 28, 22);
+
+        // When
+        HourOfDay hourOfDay = HourOfDay.ofEpochHour(epochHour);
+
+        // Then
+        assertThat(hourOfDay).isEqualTo(HourOfDay.of(2018, 2, 28, 22));
+        assertThat(hourOfDay.epochHour()).isEqualTo(epochHour);
+        assertThat(HourOfDay.epochHour(1970, 1, 2, 1)).isEqualTo(25);
+    }
+
+    @Test
+    public void test_that_the_epoch_hour_is_calculated_like_local_date_does() {
+        // Given
+        LocalDate date = LocalDate.of(1899, 12, 25);
+
+        // When Then
+        for (; date.isBefore(LocalDate.of(2101, 3, 1)); date = date.plusDays(1)) {
+            assertThat(HourOfDay.epochHour(date.getYear(), date.getMonthValue(), date.getDayOfMonth(), 23))
+                    .isEqualTo((int) (date.toEpochDay() * 24 + 23));
+        }
+    }
+
+    @Test
+    public void test_that_when_an_invalid_date_is_used_that_this_throws_exception() {
+        assertThatThrownBy(() -> HourOfDay.epochHour(2018, 2, 29, 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> HourOfDay.epochHour(2018, 13, 1, 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> HourOfDay.epochHour(2018, 1, 1, 24)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(HourOfDay.epochHour(2016, 2, 29, 0)).isPositive();
+    }
+
+    @Test
+    public void test_that_hours_of_the_day_are_compared_and_grouped_by_their_epoch_hour() {
+        // Given
+        HourOfDay late = HourOfDay.of(2018, 12, 31, 23);
+        HourOfDay early = HourOfDay.of(2019, 1, 1, 0);
+
+        // When Then
+        assertThat(late).isLessThan(early);
+        assertThat(early.epochHour() - late.epochHour()).isEqualTo(1);
+        assertThat(late.epochDay()).isEqualTo(early.epochDay() - 1);
+        assertThat(late.yearMonthDayAsFormattedInteger()).isEqualTo(20181231);
+        assertThat(late.asLocalDateTime()).isEqualTo(LocalDateTime.of(2018, 12, 31, 23, 0));
+        assertThat(HourOfDay.of(2018, 12, 31, 23)).isEqualTo(late);
+        assertThat(HourOfDay.of(2018, 12, 31, 23).hashCode()).isEqualTo(late.hashCode());
+    }
+
+    @Test
+    public void test_that_the_parts_of_an_hour_of_the_day_are_interned() {
+        // Given
+        HourOfDay hourOfDay = HourOfDay.of(2018, 3, 4, 5);
+
+        // When Then
+        assertThat(hourOfDay.getYear()).isSameAs(Year.of(2018));
+        assertThat(hourOfDay.getMonth()).isSameAs(Month.of(3));
+        assertThat(hourOfDay.getDay()).isSameAs(Day.of(4));
+        assertThat(hourOfDay.getHour()).isSameAs(Hour.of(5));
+    }
 }
@@ -0,0 +1,115 @@
+package com.ocs.analytics.domain;
+
+import io.vertx.core.buffer.Buffer;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class HourlyAggregationTest {
+
+    @Test
+    public void test_that_when_rows_are_summed_that_the_values_of_an_hour_are_added() {
+        // Given
+        HourlyAggregation aggregation = new HourlyAggregation(HourlyAggregation.Policy.SUM);
+
+        // When
+        this.add(aggregation, "2018010100,1,2,3,0", "2018010101,10,10,10,0", "2018010100,4,5,6,0");
+
+        // Then
+        assertThat(this.asStrings(aggregation)).containsExactly("2018010100,5,7,9", "2018010101,10,10,10");
+    }
+
+    @Test
+    public void test_that_when_the_maximum_is_taken_that_every_column_has_its_highest_value() {
+        // Given
+        HourlyAggregation aggregation = new HourlyAggregation(HourlyAggregation.Policy.MAX);
+
+        // When
+        this.add(aggregation, "2018010100,1,20,3,0", "2018010100,4,5,6,0");
+
+        // Then
+        assertThat(this.asStrings(aggregation)).containsExactly("2018010100,4,20,6");
+    }
+
+    @Test
+    public void test_that_when_the_first_row_is_kept_that_the_result_is_identical_to_the_site_statistics() {
+        // Given
+        HourlyAggregation aggregation = new HourlyAggregation(HourlyAggregation.Policy.FIRST);
+        SiteStatistics siteStatistics = new SiteStatistics();
+        String[] rows = {"2018010100,1,2,3,0", "2018010100,4,5,6,0", "2017123123,7,8,9,0"};
+
+        // When
+        this.add(aggregation, rows);
+        for (String row : rows) {
+            siteStatistics.addStatistic(SiteStatistic.from(row));
+        }
+
+        // Then
+        assertThat(this.asStrings(aggregation)).containsExactly("2017123123,7,8,9", "2018010100,1,2,3");
+        assertThat(this.asStrings(aggregation)).isEqualTo(this.asStrings(siteStatistics));
+    }
+
+    @Test
+    public void test_that_hours_after_2147_and_the_first_epoch_hour_are_aggregated() {
+        // Given
+        HourlyAggregation late = new HourlyAggregation(HourlyAggregation.Policy.SUM);
+        HourlyAggregation epoch = new HourlyAggregation(HourlyAggregation.Policy.SUM);
+
+        // When
+        // As a yyyyMMddHH integer these hours don't fit in an int.
+        late.add(new SiteStatistic(HourOfDay.of(2200, 6, 1, 12), 1L, 2L, 3L));
+        late.add(new SiteStatistic(HourOfDay.of(2200, 6, 1, 13), 1L, 1L, 1L));
+        late.add(new SiteStatistic(HourOfDay.of(2200, 6, 1, 12), 4L, 5L, 6L));
+        epoch.add(new SiteStatistic(HourOfDay.ofEpochHour(0), 1L, 2L, 3L));
+        epoch.add(new SiteStatistic(HourOfDay.ofEpochHour(0), 4L, 5L, 6L));
+
+        // Then
+        assertThat(this.asStrings(late)).containsExactly("2200060112,5,7,9", "2200060113,1,1,1");
+        assertThat(this.asStrings(epoch)).containsExactly("1970010100,5,7,9");
+    }
+
+    @Test
+    public void test_that_when_aggregations_are_merged_that_the_result_is_identical_to_one_aggregation() {
+        // Given
+        HourlyAggregation all = new HourlyAggregation(HourlyAggregation.Policy.SUM);
+        HourlyAggregation first = new HourlyAggregation(HourlyAggregation.Policy.SUM);
+        HourlyAggregation second = new HourlyAggregation(HourlyAggregation.Policy.SUM);
+
+        // When
+        for (int i = 0; i < 10000; i++) {
+            String row = String.format("2018%02d%02d%02d,%d,1,%d,0", i / 672 % 12 + 1, i / 24 % 28 + 1, i % 24, i, i % 7);
+            this.add(all, row);
+            this.add(i < 5000 ? first : second, row);
+        }
+        first.addAll(second);
+
+        // Then
+        assertThat(all.size()).isEqualTo(8064);
+        assertThat(first.size()).isEqualTo(all.size());
+        assertThat(this.asStrings(first)).isEqualTo(this.asStrings(all));
+    }
+
+    private void add(HourlyAggregation aggregation, String... rows) {
+        SiteStatisticDecoder decoder = new SiteStatisticDecoder();
+        for (String row : rows) {
+            assertThat(decoder.decode(Buffer.buffer(row))).isTrue();
+            aggregation.add(decoder);
+        }
+    }
+
+    private List<String> asStrings(HourlyAggregation aggregation) {
+        return this.asStrings(aggregation.toSiteStatistics());
+    }
+
+    private List<String> asStrings(SiteStatistics siteStatistics) {
+        return siteStatistics
+                .getStatistics()
+                .stream()
+                .map(ss -> ss.getHourOfDay().yearMonthDayAsFormattedInteger() * 100L + ss.hour() + "," +
+                        ss.getUsers() + "," + ss.getNewUsers() + "," + ss.getSessions())
+                .collect(Collectors.toList());
+    }
+}
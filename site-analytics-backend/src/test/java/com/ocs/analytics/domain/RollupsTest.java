@@ -0,0 +1,55 @@
+package com.ocs.analytics.domain;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RollupsTest {
+
+    @Test
+    public void test_that_the_hours_are_rolled_up_per_day_iso_week_and_month() {
+        // Given
+        StatisticColumns columns = new StatisticColumns();
+        // Sunday the 31st of December 2017 up to and including Sunday the 7th of January 2018.
+        int start = HourOfDay.epochHour(2017, 12, 31, 0);
+        int end = HourOfDay.epochHour(2018, 1, 8, 0);
+        for (int hour = start; hour < end; hour++) {
+            columns.add(hour, 2, 1, 3);
+        }
+        columns.measure(start, WeatherMeasurement.pack(-20, 0, 0, 80, true, false, false, false, false, 0, 8));
+        columns.measure(start + 1, WeatherMeasurement.pack(10, 0, 0, 80, false, false, false, false, false, 0, 8));
+        columns.measure(end - 1, WeatherMeasurement.pack(55, 0, 0, 80, true, false, false, false, false, 0, 8));
+
+        // When
+        Rollups rollups = new Rollups();
+        for (int day = start / 24; day < end / 24; day++) {
+            rollups.addDay(columns, day);
+        }
+
+        // Then
+        assertThat(rollups.get(Rollup.Period.DAY).size()).isEqualTo(8);
+        JsonArray weeks = rollups.get(Rollup.Period.WEEK).toJson();
+        assertThat(weeks.size()).isEqualTo(2);
+        JsonObject lastWeekOf2017 = weeks.getJsonObject(0);
+        assertThat(lastWeekOf2017.getString("period")).isEqualTo("2017-W52");
+        assertThat(lastWeekOf2017.getString("start")).isEqualTo("2017-12-25");
+        assertThat(lastWeekOf2017.getInteger("hours")).isEqualTo(24);
+        assertThat(lastWeekOf2017.getInteger("minTemperature")).isEqualTo(-20);
+        assertThat(lastWeekOf2017.getInteger("meanTemperature")).isEqualTo(-5);
+        assertThat(lastWeekOf2017.getInteger("maxTemperature")).isEqualTo(10);
+        assertThat(lastWeekOf2017.getInteger("rainHours")).isEqualTo(1);
+        JsonObject firstWeekOf2018 = weeks.getJsonObject(1);
+        assertThat(firstWeekOf2018.getString("period")).isEqualTo("2018-W01");
+        assertThat(firstWeekOf2018.getLong("users")).isEqualTo(2 * 24 * 7);
+        assertThat(firstWeekOf2018.getLong("sessions")).isEqualTo(3 * 24 * 7);
+        assertThat(firstWeekOf2018.getInteger("measuredHours")).isEqualTo(1);
+        JsonArray months = rollups.get(Rollup.Period.MONTH).toJson();
+        assertThat(months.getJsonObject(0).getString("period")).isEqualTo("2017-12");
+        assertThat(months.getJsonObject(1).getString("period")).isEqualTo("2018-01");
+        assertThat(months.getJsonObject(1).getLong("newUsers")).isEqualTo(24 * 7);
+        assertThat(months.getJsonObject(1).getInteger("maxTemperature")).isEqualTo(55);
+        assertThat(rollups.get(Rollup.Period.DAY).toJson().getJsonObject(3).containsKey("minTemperature")).isFalse();
+    }
+}
@@ -0,0 +1,158 @@
+package com.ocs.analytics.domain;
+
+import io.vertx.core.buffer.Buffer;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class SiteStatisticDecoderTest {
+    private static final String IMPORT_PATTERN = "^[0-9]{10},\\d+?,\\d+?,\\d+?,\\d+?$";
+
+    @Test
+    public void test_that_when_statistics_record_is_decoded_that_this_is_mapped_as_expected() {
+        // Given
+        SiteStatisticDecoder decoder = new SiteStatisticDecoder();
+
+        // When
+        boolean result = decoder.decode(Buffer.buffer("2018100213,123,321,333,0"));
+
+        // Then
+        assertThat(result).isTrue();
+        assertThat(decoder.year()).isEqualTo(2018);
+        assertThat(decoder.month()).isEqualTo(10);
+        assertThat(decoder.day()).isEqualTo(2);
+        assertThat(decoder.hour()).isEqualTo(13);
+        assertThat(decoder.users()).isEqualTo(123L);
+        assertThat(decoder.newUsers()).isEqualTo(321L);
+        assertThat(decoder.sessions()).isEqualTo(333L);
+    }
+
+    @Test
+    public void test_that_the_decoded_record_maps_to_the_same_statistic_as_the_csv_string() {
+        // Given
+        SiteStatisticDecoder decoder = new SiteStatisticDecoder();
+        String record = "2018010923,7,3,9,1";
+
+        // When
+        decoder.decode(Buffer.buffer(record));
+        SiteStatistic fromDecoder = SiteStatistic.from(decoder);
+        SiteStatistic fromString = SiteStatistic.from(record);
+
+        // Then
+        assertThat(fromDecoder.getHourOfDay()).isEqualTo(fromString.getHourOfDay());
+        assertThat(fromDecoder.getUsers()).isEqualTo(fromString.getUsers());
+        assertThat(fromDecoder.getNewUsers()).isEqualTo(fromString.getNewUsers());
+        assertThat(fromDecoder.getSessions()).isEqualTo(fromString.getSessions());
+    }
+
+    @Test
+    public void test_that_whitespace_and_carriage_returns_around_a_record_are_ignored() {
+        SiteStatisticDecoder decoder = new SiteStatisticDecoder();
+
+        assertThat(decoder.decode(Buffer.buffer(" 2018010100,1,1,1,0\r"))).isTrue();
+        assertThat(decoder.sessions()).isEqualTo(1L);
+    }
+
+    @Test
+    public void test_that_a_part_of_a_buffer_can_be_decoded() {
+        // Given
+        SiteStatisticDecoder decoder = new SiteStatisticDecoder();
+        Buffer buffer = Buffer.buffer("2018010100,1,1,1,0\n2018010101,2,3,4,0\n");
+
+        // When
+        boolean result = decoder.decode(buffer, 19, 38);
+
+        // Then
+        assertThat(result).isTrue();
+        assertThat(decoder.hour()).isEqualTo(1);
+        assertThat(decoder.users()).isEqualTo(2L);
+        assertThat(decoder.newUsers()).isEqualTo(3L);
+        assertThat(decoder.sessions()).isEqualTo(4L);
+    }
+
+    @Test
+    public void test_that_lines_that_are_not_records_are_rejected_like_the_import_pattern() {
+        SiteStatisticDecoder decoder = new SiteStatisticDecoder();
+        String[] lines = {"ALLEEN DE EERSTE 4 KOLOMMEN PARSEN", "Uur van de dag,Gebruikers,Nieuwe gebruikers,Sessies ",
+                "", "201801010,1,1,1,0", "20180101000,1,1,1,0", "2018010100,1,1,1", "2018010100,1,1,1,0,",
+                "2018010100,,1,1,0", "2018010100,-1,1,1,0", "2018010100,1,1,1,a", "2018O10100,1,1,1,0",
+                "2018010100;1;1;1;0", "2018010100,99999999999999999999,1,1,x"};
+
+        for (String line : lines) {
+            assertThat(decoder.decode(Buffer.buffer(line))).isEqualTo(line.trim().matches(IMPORT_PATTERN)).isFalse();
+        }
+    }
+
+    @Test
+    public void test_that_when_invalid_month_is_decoded_that_this_throws_exception() {
+        SiteStatisticDecoder decoder = new SiteStatisticDecoder();
+        assertThatThrownBy(() -> decoder.decode(Buffer.buffer("2018131101,123,321,333,0"))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void test_that_when_invalid_day_of_month_is_decoded_that_this_throws_exception() {
+        SiteStatisticDecoder decoder = new SiteStatisticDecoder();
+        assertThatThrownBy(() -> decoder.decode(Buffer.buffer("2018113201,123,321,333,0"))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void test_that_when_invalid_hour_is_decoded_that_this_throws_exception() {
+        SiteStatisticDecoder decoder = new SiteStatisticDecoder();
+        assertThatThrownBy(() -> decoder.decode(Buffer.buffer("2018113024,123,321,333,0"))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void test_that_when_a_year_out_of_range_is_decoded_that_this_throws_exception() {
+        SiteStatisticDecoder decoder = new SiteStatisticDecoder();
+        assertThatThrownBy(() -> decoder.decode(Buffer.buffer("1000010101,1,1,1,0"))).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> decoder.decode(Buffer.buffer("8000010101,1,1,1,0"))).isInstanceOf(IllegalArgumentException.class);
+        assertThat(decoder.decode(Buffer.buffer("2100123123,1,1,1,0"))).isTrue();
+    }
+
+    @Test
+    public void test_that_when_a_column_is_too_large_that_this_throws_exception() {
+        SiteStatisticDecoder decoder = new SiteStatisticDecoder();
+        assertThatThrownBy(() -> decoder.decode(Buffer.buffer("2018113023,99999999999999999999,321,333,0"))).isInstanceOf(NumberFormatException.class);
+    }
+
+    @Test
+    public void test_that_a_day_beyond_the_end_of_the_month_is_set_to_the_last_day_like_the_string_mapping() {
+        // Given
+        SiteStatisticDecoder decoder = new SiteStatisticDecoder();
+        String record = "2018023012,1,1,1,0";
+
+        // When
+        decoder.decode(Buffer.buffer(record));
+
+        // Then
+        assertThat(SiteStatistic.from(decoder).getHourOfDay()).isEqualTo(SiteStatistic.from(record).getHourOfDay());
+        assertThat(decoder.day()).isEqualTo(28);
+    }
+
+    @Test
+    public void test_that_the_decoder_maps_every_row_of_a_generated_file_like_the_string_path() {
+        // Given
+        int rows = 10_000;
+        Buffer[] lines = new Buffer[rows];
+        for (int i = 0; i < rows; i++) {
+            lines[i] = Buffer.buffer(String.format("2018%02d%02d%02d,%d,%d,%d,0", (i / 672) % 12 + 1, (i / 24) % 28 + 1, i % 24, i, i / 2, i * 3));
+        }
+        SiteStatisticDecoder decoder = new SiteStatisticDecoder();
+
+        for (Buffer line : lines) {
+            // When
+            boolean decoded = decoder.decode(line);
+
+            // Then
+            String string = line.toString();
+            assertThat(decoded).isEqualTo(string.matches(IMPORT_PATTERN));
+            SiteStatistic expected = SiteStatistic.from(string);
+            SiteStatistic actual = SiteStatistic.from(decoder);
+            assertThat(actual.getHourOfDay()).isEqualTo(expected.getHourOfDay());
+            assertThat(actual.getUsers()).isEqualTo(expected.getUsers());
+            assertThat(actual.getNewUsers()).isEqualTo(expected.getNewUsers());
+            assertThat(actual.getSessions()).isEqualTo(expected.getSessions());
+        }
+    }
+}
@@ -60,10 +60,27 @@ public class SiteStatisticTest {
     @Test
     public void test_that_sort_works_as_expected() {
         Set<SiteStatistic> testSet = new TreeSet<>();
-        SiteStatistic ss1 = new SiteStatistic("1", HourOfDay.of(2018, 10, 4, 5), 10L, 2L, 5L);
-        SiteStatistic ss2 = new SiteStatistic("2", HourOfDay.of(2017, 3, 3, 3), 1L, 2L, 4L);
+        SiteStatistic ss1 = new SiteStatistic(1L, HourOfDay.of(2018, 10, 4, 5), 10L, 2L, 5L);
+        SiteStatistic ss2 = new SiteStatistic(2L, HourOfDay.of(2017, 3, 3, 3), 1L, 2L, 4L);
         Collections.addAll(testSet, ss1, ss2);
 
         assertThat(testSet).containsSequence(ss2, ss1);
     }
+
+    @Test
+    public void test_that_a_statistic_is_identified_by_its_hour() {
+        // Given
+        String record = "2018100213,123,321,333,0";
+
+        // When
+        SiteStatistic first = SiteStatistic.from(record);
+        SiteStatistic second = SiteStatistic.from(record);
+
+        // Then
+        assertThat(first.getId()).isEqualTo(first.getHourOfDay().epochHour());
+        assertThat(first).isEqualTo(second);
+        assertThat(first.hashCode()).isEqualTo(second.hashCode());
+        assertThat(new SiteStatistic(first.toJson())).isEqualTo(first);
+        assertThat(SiteStatistic.from("2018100214,123,321,333,0")).isNotEqualTo(first);
+    }
 }
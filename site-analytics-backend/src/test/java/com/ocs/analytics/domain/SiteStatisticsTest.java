@@ -3,9 +3,15 @@ package com.ocs.analytics.domain;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 public class SiteStatisticsTest {
+    private static final int HOURS_PER_MONTH = 730;
     private SiteStatistics instanceUnderTest;
 
     @BeforeEach
@@ -14,97 +20,100 @@ public class SiteStatisticsTest {
     }
 
     @Test
-    public void test_that_when_site_statistics_are_empty_that_period_validation_returns_false() {
-
-        // When
-        boolean result = instanceUnderTest.spansMoreThanAYear();
-
-        // Then
-        assertThat(result).isFalse();
-
-    }
-
-    @Test
-    public void test_that_when_site_statistics_span_less_than_a_year_that_period_validation_returns_false() {
-        // Given
-        instanceUnderTest.addStatistic(new SiteStatistic("1", HourOfDay.of(2018, 1, 1, 0), 1L, 1L, 1L));
-        instanceUnderTest.addStatistic(new SiteStatistic("2", HourOfDay.of(2018, 1, 1, 2), 5L, 1L, 10L));
-        instanceUnderTest.addStatistic(new SiteStatistic("3", HourOfDay.of(2018, 1, 3, 0), 10L, 9L, 100L));
-        instanceUnderTest.addStatistic(new SiteStatistic("4", HourOfDay.of(2018, 1, 4, 0), 22L, 5L, 999L));
-        instanceUnderTest.addStatistic(new SiteStatistic("5", HourOfDay.of(2018, 2, 28, 22), 100L, 90L, 89L));
-        instanceUnderTest.addStatistic(new SiteStatistic("6", HourOfDay.of(2018, 10, 6, 15), 8L, 1L, 19L));
-        instanceUnderTest.addStatistic(new SiteStatistic("7", HourOfDay.of(2018, 11, 2, 17), 9L, 1L, 8L));
-
-        // When
-        boolean result = instanceUnderTest.spansMoreThanAYear();
-
-        // Then
-        assertThat(result).isFalse();
-
-    }
-
-    @Test
-    public void test_that_when_site_statistics_span_a_year_that_period_validation_returns_false() {
+    public void test_that_an_attached_measurement_ends_up_at_its_hour() {
         // Given
-        instanceUnderTest.addStatistic(new SiteStatistic("1", HourOfDay.of(2018, 1, 1, 0), 1L, 1L, 1L));
-        instanceUnderTest.addStatistic(new SiteStatistic("2", HourOfDay.of(2019, 1, 1, 0), 1L, 1L, 1L));
+        instanceUnderTest.addStatistic(new SiteStatistic(1L, HourOfDay.of(2018, 1, 1, 0), 1L, 1L, 1L));
 
         // When
-        boolean result = instanceUnderTest.spansMoreThanAYear();
+        WeatherJoin join = new WeatherJoin(instanceUnderTest);
+        join.add(HourOfDay.epochHour(2018, 1, 1, 0), WeatherMeasurement.withTemp(85).packed());
+        join.add(HourOfDay.epochHour(2018, 1, 1, 23), new WeatherMeasurement(-12, 0, 0, 73, true, false, false, false,
+                false, 0, 8).packed());
 
         // Then
-        assertThat(result).isFalse();
+        assertThat(instanceUnderTest.first().getUsers()).isEqualTo(1L);
+        assertThat(instanceUnderTest.first().getWeatherMeasurements().getTemperature()).isEqualTo(85);
+        assertThat(instanceUnderTest.last().getHourOfDay()).isEqualTo(HourOfDay.of(2018, 1, 1, 23));
+        assertThat(instanceUnderTest.last().getUsers()).isEqualTo(0L);
+        assertThat(instanceUnderTest.last().getWeatherMeasurements().getRain()).isTrue();
     }
 
     @Test
-    public void test_that_when_site_statistics_span_more_than_a_year_but_only_by_hour_that_validation_returns_false() {
+    public void test_that_the_measurements_of_a_year_are_attached_to_the_statistics_of_their_hours() {
         // Given
-        instanceUnderTest.addStatistic(new SiteStatistic("1", HourOfDay.of(2018, 1, 1, 0), 1L, 1L, 1L));
-        instanceUnderTest.addStatistic(new SiteStatistic("2", HourOfDay.of(2019, 1, 1, 1), 1L, 1L, 1L));
+        int hours = 12 * HOURS_PER_MONTH;
+        StatisticColumns columns = instanceUnderTest.columns();
+        int first = HourOfDay.epochHour(2018, 1, 1, 0);
+        for (int i = 0; i < hours; i++) {
+            columns.add(first + i, i, i, i);
+        }
 
         // When
-        boolean result = instanceUnderTest.spansMoreThanAYear();
+        WeatherJoin join = new WeatherJoin(instanceUnderTest);
+        for (int i = 0; i < hours; i++) {
+            join.add(first + i, WeatherMeasurement.withTemp(i % 300).packed());
+        }
 
         // Then
-        assertThat(result).isFalse();
+        // Every measurement was joined with the statistics of its own hour, none of the hours was added.
+        assertThat(join.joined()).isEqualTo(hours);
+        assertThat(instanceUnderTest.size()).isEqualTo(hours);
+        for (int i = 0; i < hours; i += 97) {
+            SiteStatistic siteStatistic = columns.statistic(first + i);
+            assertThat(siteStatistic.getUsers()).isEqualTo((long) i);
+            assertThat(siteStatistic.getWeatherMeasurements().getTemperature()).isEqualTo(i % 300);
+        }
     }
 
     @Test
-    public void test_that_when_site_statistics_span_more_than_a_year_in_days_that_validation_returns_true() {
+    public void test_that_the_statistics_of_a_day_are_copied_in_order_with_their_weather_measurements() {
         // Given
-        instanceUnderTest.addStatistic(new SiteStatistic("1", HourOfDay.of(2018, 1, 1, 0), 1L, 1L, 1L));
-        instanceUnderTest.addStatistic(new SiteStatistic("2", HourOfDay.of(2019, 1, 2, 1), 1L, 1L, 1L));
+        int midnight = HourOfDay.epochHour(2018, 3, 2, 0);
+        for (int hour = midnight + 47; hour >= midnight - 24; hour--) {
+            instanceUnderTest.addStatistic(new SiteStatistic(HourOfDay.ofEpochHour(hour), (long) hour, 0L, 0L));
+        }
+        instanceUnderTest.columns().measure(midnight + 5, -1L);
 
         // When
-        boolean result = instanceUnderTest.spansMoreThanAYear();
+        SiteStatistics day = instanceUnderTest.day(HourOfDay.ofEpochHour(midnight).epochDay());
 
         // Then
-        assertThat(result).isTrue();
+        assertThat(day.size()).isEqualTo(24);
+        assertThat(day.getAsSortedList().get(0).getHourOfDay()).isEqualTo(HourOfDay.of(2018, 3, 2, 0));
+        assertThat(day.getAsSortedList()).isSorted();
+        assertThat(day.getStatistics()).isEqualTo(new TreeSet<>(day.getAsSortedList()));
+        assertThat(day.columns().weatherMeasurement(midnight + 5).packed()).isEqualTo(-1L);
+        assertThat(new SiteStatistics().mergeWith(day).mergeWith(instanceUnderTest).size()).isEqualTo(72);
     }
 
     @Test
-    public void test_that_when_site_statistics_span_more_than_a_year_in_months_that_validation_returns_true() {
+    public void test_that_the_range_views_of_the_ordered_statistics_only_contain_the_hours_of_the_range() {
         // Given
-        instanceUnderTest.addStatistic(new SiteStatistic("1", HourOfDay.of(2018, 1, 1, 0), 1L, 1L, 1L));
-        instanceUnderTest.addStatistic(new SiteStatistic("2", HourOfDay.of(2019, 2, 2, 1), 1L, 1L, 1L));
+        StatisticColumns columns = new StatisticColumns();
+        int midnight = HourOfDay.epochHour(2018, 3, 2, 0);
+        // Every other hour of the day.
+        for (int hour = midnight; hour < midnight + 24; hour += 2) {
+            columns.add(hour, hour, 0, 0);
+        }
+        SortedSet<SiteStatistic> instanceUnderTest = new SiteStatistics.OrderedStatistics(columns);
 
         // When
-        boolean result = instanceUnderTest.spansMoreThanAYear();
+        SortedSet<SiteStatistic> subSet = instanceUnderTest.subSet(columns.statistic(midnight + 4),
+                new SiteStatistic(HourOfDay.ofEpochHour(midnight + 9), 0L, 0L, 0L));
+        SortedSet<SiteStatistic> headSet = instanceUnderTest.headSet(columns.statistic(midnight + 4));
+        SortedSet<SiteStatistic> tailSet = instanceUnderTest.tailSet(columns.statistic(midnight + 20));
 
         // Then
-        assertThat(result).isTrue();
+        assertThat(subSet).extracting(statistic -> statistic.getHourOfDay().epochHour())
+                .containsExactly(midnight + 4, midnight + 6, midnight + 8);
+        assertThat(subSet.first()).isEqualTo(columns.statistic(midnight + 4));
+        assertThat(subSet.last()).isEqualTo(columns.statistic(midnight + 8));
+        assertThat(subSet.contains(columns.statistic(midnight + 10))).isFalse();
+        assertThat(subSet.headSet(columns.statistic(midnight + 6))).containsExactly(columns.statistic(midnight + 4));
+        assertThat(headSet).hasSize(2);
+        assertThat(tailSet).containsExactly(columns.statistic(midnight + 20), columns.statistic(midnight + 22));
+        assertThat(instanceUnderTest.subSet(columns.statistic(midnight + 6), columns.statistic(midnight + 6))).isEmpty();
+        assertThatThrownBy(() -> instanceUnderTest.subSet(columns.statistic(midnight + 6), columns.statistic(midnight)))
+                .isInstanceOf(IllegalArgumentException.class);
     }
-
-    @Test
-    public void test_that_when_site_statistics_span_more_than_a_year_in_years_that_validation_returns_true() {
-        instanceUnderTest.addStatistic(new SiteStatistic("1", HourOfDay.of(2018, 1, 1, 0), 1L, 1L, 1L));
-        instanceUnderTest.addStatistic(new SiteStatistic("2", HourOfDay.of(2020, 2, 2, 1), 1L, 1L, 1L));
-
-        // When
-        boolean result = instanceUnderTest.spansMoreThanAYear();
-
-        // Then
-        assertThat(result).isTrue();
-    }
-
 }
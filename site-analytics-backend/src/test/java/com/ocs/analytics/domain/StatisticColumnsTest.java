@@ -0,0 +1,154 @@
+package com.ocs.analytics.domain;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class StatisticColumnsTest {
+    private StatisticColumns instanceUnderTest;
+
+    @BeforeEach
+    public void init() {
+        instanceUnderTest = new StatisticColumns();
+    }
+
+    @AfterEach
+    public void reset() {
+        ColumnMemory.configure(0);
+    }
+
+    @Test
+    public void test_that_hours_before_and_after_the_columns_are_added_in_order() {
+        // Given
+        int start = HourOfDay.epochHour(2018, 6, 1, 0);
+
+        // When
+        instanceUnderTest.add(start, 1, 1, 1);
+        instanceUnderTest.add(start + 5000, 2, 2, 2);
+        instanceUnderTest.add(start - 5000, 3, 3, 3);
+        instanceUnderTest.add(start - 1, 4, 4, 4);
+
+        // Then
+        assertThat(this.hours()).containsExactly(start - 5000, start - 1, start, start + 5000);
+        assertThat(instanceUnderTest.size()).isEqualTo(4);
+        assertThat(instanceUnderTest.users(start - 5000)).isEqualTo(3);
+        assertThat(instanceUnderTest.users(start + 5000)).isEqualTo(2);
+        assertThat(instanceUnderTest.contains(start + 1)).isFalse();
+    }
+
+    @Test
+    public void test_that_hours_that_span_more_than_the_maximum_amount_of_years_are_rejected() {
+        // Given
+        instanceUnderTest.add(HourOfDay.epochHour(1950, 1, 1, 0), 1, 1, 1);
+
+        // When
+        instanceUnderTest.add(HourOfDay.epochHour(1950 + StatisticColumns.MAXIMUM_YEARS - 1, 12, 31, 23), 2, 2, 2);
+
+        // Then
+        assertThatThrownBy(() -> instanceUnderTest.add(HourOfDay.epochHour(2100, 1, 1, 0), 3, 3, 3))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining(StatisticColumns.MAXIMUM_YEARS + " years");
+        assertThatThrownBy(() -> new StatisticColumns().reserve(HourOfDay.epochHour(1900, 1, 1, 0),
+                HourOfDay.epochHour(2100, 1, 1, 0))).isInstanceOf(IllegalStateException.class);
+        assertThat(instanceUnderTest.size()).isEqualTo(2);
+    }
+
+    @Test
+    public void test_that_the_first_statistics_of_an_hour_are_kept() {
+        // Given
+        int hour = HourOfDay.epochHour(2018, 1, 1, 10);
+
+        // When
+        boolean first = instanceUnderTest.add(hour, 1, 2, 3);
+        boolean second = instanceUnderTest.add(hour, 4, 5, 6);
+
+        // Then
+        assertThat(first).isTrue();
+        assertThat(second).isFalse();
+        assertThat(instanceUnderTest.statistic(hour).getSessions()).isEqualTo(3);
+    }
+
+    @Test
+    public void test_that_a_measured_hour_without_statistics_gets_statistics_of_zero() {
+        // Given
+        int hour = HourOfDay.epochHour(2018, 1, 1, 10);
+        WeatherMeasurement measurement = new WeatherMeasurement(-55, 10, -1, 83, true, false, true, false, true, 3, 9);
+
+        // When
+        instanceUnderTest.measure(hour, measurement);
+
+        // Then
+        SiteStatistic statistic = instanceUnderTest.statistic(hour);
+        assertThat(statistic.getHourOfDay()).isEqualTo(HourOfDay.of(2018, 1, 1, 10));
+        assertThat(statistic.getUsers()).isEqualTo(0);
+        assertThat(statistic.getWeatherMeasurements()).isEqualToComparingFieldByField(measurement);
+        assertThat(instanceUnderTest.temperature(hour)).isEqualTo(-55);
+    }
+
+    @Test
+    public void test_that_an_hour_without_measurement_has_no_weather_measurement() {
+        // Given
+        int hour = HourOfDay.epochHour(2018, 1, 1, 10);
+
+        // When
+        instanceUnderTest.add(hour, 1, 2, 3);
+
+        // Then
+        assertThat(instanceUnderTest.isMeasured(hour)).isFalse();
+        assertThat(instanceUnderTest.weatherMeasurement(hour)).isNull();
+        assertThat(instanceUnderTest.temperature(hour)).isEqualTo(0);
+    }
+
+    @Test
+    public void test_that_the_columns_of_a_multi_year_dataset_are_kept_off_heap_within_the_budget() {
+        // Given
+        ColumnMemory.configure(64 * 1024 * 1024);
+        int start = HourOfDay.epochHour(2013, 1, 1, 0);
+        int end = HourOfDay.epochHour(2018, 1, 1, 0);
+
+        // When
+        for (int hour = start; hour < end; hour++) {
+            instanceUnderTest.add(hour, hour, 1, 2);
+        }
+        instanceUnderTest.measure(end - 1, -1L);
+
+        // Then
+        assertThat(instanceUnderTest.isOffHeap()).isTrue();
+        assertThat(instanceUnderTest.size()).isEqualTo(end - start);
+        assertThat(instanceUnderTest.users(start)).isEqualTo(start);
+        assertThat(instanceUnderTest.users(end - 1)).isEqualTo(end - 1);
+        assertThat(instanceUnderTest.sessions(end - 1)).isEqualTo(2);
+        assertThat(instanceUnderTest.weatherMeasurement(end - 1).packed()).isEqualTo(-1L);
+        assertThat(ColumnMemory.reserved()).isLessThanOrEqualTo(ColumnMemory.budget());
+    }
+
+    @Test
+    public void test_that_the_columns_are_kept_on_the_heap_when_they_do_not_fit_in_the_budget() {
+        // Given
+        ColumnMemory.configure(ColumnMemory.OFF_HEAP_THRESHOLD - 1);
+        int start = HourOfDay.epochHour(2013, 1, 1, 0);
+
+        // When
+        for (int hour = start; hour < start + 24 * 365; hour++) {
+            instanceUnderTest.add(hour, 1, 1, 1);
+        }
+
+        // Then
+        assertThat(instanceUnderTest.isOffHeap()).isFalse();
+        assertThat(instanceUnderTest.users(start + 24 * 365 - 1)).isEqualTo(1);
+    }
+
+    private List<Integer> hours() {
+        List<Integer> hours = new ArrayList<>();
+        for (int hour = instanceUnderTest.firstHour(); hour != StatisticColumns.NONE; hour = instanceUnderTest.nextHour(hour)) {
+            hours.add(hour);
+        }
+        return hours;
+    }
+}
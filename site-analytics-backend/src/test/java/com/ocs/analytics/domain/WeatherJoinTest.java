@@ -0,0 +1,36 @@
+package com.ocs.analytics.domain;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class WeatherJoinTest {
+
+    @Test
+    public void test_that_measurements_are_joined_with_the_statistics_and_hours_without_statistics_are_filled_with_zero() {
+        // Given
+        SiteStatistics siteStatistics = new SiteStatistics()
+                .addStatistic(new SiteStatistic(HourOfDay.of(2018, 1, 1, 0), 5L, 4L, 3L))
+                .addStatistic(new SiteStatistic(HourOfDay.of(2018, 1, 2, 23), 6L, 5L, 4L));
+        WeatherJoin instanceUnderTest = new WeatherJoin(siteStatistics);
+
+        // When
+        instanceUnderTest.add(HourOfDay.epochHour(2018, 1, 1, 0), WeatherMeasurement.withTemp(85).packed());
+        instanceUnderTest.add(HourOfDay.epochHour(2018, 1, 1, 1), WeatherMeasurement.withTemp(80).packed());
+        instanceUnderTest.add(HourOfDay.epochHour(2018, 1, 2, 23), WeatherMeasurement.withTemp(-12).packed());
+        // Out of order.
+        instanceUnderTest.add(HourOfDay.epochHour(2018, 1, 1, 23), WeatherMeasurement.withTemp(10).packed());
+
+        // Then
+        StatisticColumns columns = siteStatistics.columns();
+        assertThat(instanceUnderTest.joined()).isEqualTo(4);
+        assertThat(siteStatistics.size()).isEqualTo(4);
+        assertThat(columns.users(HourOfDay.epochHour(2018, 1, 1, 0))).isEqualTo(5);
+        assertThat(columns.temperature(HourOfDay.epochHour(2018, 1, 1, 0))).isEqualTo(85);
+        assertThat(columns.users(HourOfDay.epochHour(2018, 1, 1, 1))).isEqualTo(0);
+        assertThat(columns.temperature(HourOfDay.epochHour(2018, 1, 1, 1))).isEqualTo(80);
+        assertThat(columns.temperature(HourOfDay.epochHour(2018, 1, 1, 23))).isEqualTo(10);
+        assertThat(columns.users(HourOfDay.epochHour(2018, 1, 2, 23))).isEqualTo(6);
+        assertThat(columns.weatherMeasurement(HourOfDay.epochHour(2018, 1, 2, 23)).getTemperature()).isEqualTo(-12);
+    }
+}
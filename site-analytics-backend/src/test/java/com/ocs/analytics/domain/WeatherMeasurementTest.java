@@ -3,71 +3,56 @@ package com.ocs.analytics.domain;
 import org.junit.jupiter.api.Test;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 public class WeatherMeasurementTest {
 
     @Test
-    public void test_that_a_record_is_mapped_as_expected() {
+    public void test_that_the_extreme_values_of_a_measurement_are_packed_and_unpacked() {
         // Given
-        String record = "260,20180101,1,85,,0,0,0,8,73,0,0,0,0,0";
-
-        // This is how a record looks when it is obtained from the KNMI (including whitespaces)
-        String[] content = record.split(",");
+        WeatherMeasurement low = new WeatherMeasurement(-32768, -128, -32768, 0, false, true, false, true, false, -128, 0);
+        WeatherMeasurement high = new WeatherMeasurement(32767, 127, 32767, 127, true, false, true, false, true, 127, 15);
 
         // When
-        WeatherMeasurement measurement = WeatherMeasurement.from(content);
+        WeatherMeasurement lowCopy = WeatherMeasurement.ofPacked(low.packed());
+        WeatherMeasurement highCopy = WeatherMeasurement.ofPacked(high.packed());
 
         // Then
-        assertThat(measurement).isNotNull();
-        assertThat(measurement.getDurPrec()).isEqualTo(0);
-        assertThat(measurement.getHumPerc()).isEqualTo(73);
-        assertThat(measurement.getTemperature()).isEqualTo(85);
-        assertThat(measurement.getSun()).isEqualTo(0);
-        assertThat(measurement.getRain()).isFalse();
-        assertThat(measurement.getSnow()).isFalse();
-        assertThat(measurement.getSumPrec()).isEqualTo(0);
-        assertThat(measurement.getClouds()).isEqualTo(8);
-        assertThat(measurement.getFog()).isFalse();
-        assertThat(measurement.getThunder()).isFalse();
-        assertThat(measurement.getIce()).isFalse();
-
+        assertThat(lowCopy).isEqualTo(low);
+        assertThat(lowCopy.getTemperature()).isEqualTo(-32768);
+        assertThat(lowCopy.getDurPrec()).isEqualTo(-128);
+        assertThat(lowCopy.getSumPrec()).isEqualTo(-32768);
+        assertThat(lowCopy.getSun()).isEqualTo(-128);
+        assertThat(lowCopy.getSnow()).isTrue();
+        assertThat(lowCopy.getThunder()).isTrue();
+        assertThat(lowCopy.getRain() || lowCopy.getFog() || lowCopy.getIce()).isFalse();
+        assertThat(highCopy.getTemperature()).isEqualTo(32767);
+        assertThat(highCopy.getHumPerc()).isEqualTo(127);
+        assertThat(highCopy.getClouds()).isEqualTo(15);
+        assertThat(highCopy.getRain() && highCopy.getFog() && highCopy.getIce()).isTrue();
+        assertThat(WeatherMeasurement.temperature(high.packed())).isEqualTo(32767);
     }
 
     @Test
-    public void test_that_a_record_with_negative_values_is_mapped_as_expected() {
-        // Given
-        String record = "260,20180405,9,55,,0,0,-1,8,83,0,1,0,0,0";
-        String[] content = record.split(",");
-
-        // When
-        WeatherMeasurement measurement = WeatherMeasurement.from(content);
-
-        // Then
-        assertThat(measurement).isNotNull();
-        assertThat(measurement.getDurPrec()).isEqualTo(0);
-        assertThat(measurement.getHumPerc()).isEqualTo(83);
-        assertThat(measurement.getTemperature()).isEqualTo(55);
-        assertThat(measurement.getSun()).isEqualTo(0);
-        assertThat(measurement.getRain()).isTrue();
-        assertThat(measurement.getSnow()).isFalse();
-        assertThat(measurement.getSumPrec()).isEqualTo(-1);
-        assertThat(measurement.getClouds()).isEqualTo(8);
-        assertThat(measurement.getFog()).isFalse();
-        assertThat(measurement.getThunder()).isFalse();
-        assertThat(measurement.getIce()).isFalse();
+    public void test_that_when_a_value_does_not_fit_that_this_throws_exception() {
+        assertThatThrownBy(() -> new WeatherMeasurement(0, 0, 0, 128, false, false, false, false, false, 0, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new WeatherMeasurement(0, 0, 0, 0, false, false, false, false, false, 0, 16))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new WeatherMeasurement(40000, 0, 0, 0, false, false, false, false, false, 0, 0))
+                .isInstanceOf(IllegalArgumentException.class);
     }
 
     @Test
-    public void test_that_record_passes_regex() {
+    public void test_that_a_measurement_is_the_same_after_mapping_it_to_json_and_back() {
         // Given
-        String record = "260,20180405,9,55,,0,0,-1,8,83,0,1,0,0,0";
+        WeatherMeasurement measurement = new WeatherMeasurement(-55, 2, -1, 83, true, false, true, true, true, 3, 8);
 
         // When
-        boolean result =
-                record.matches(WeatherMeasurement.RECORD_PATTERN);
+        WeatherMeasurement result = new WeatherMeasurement(measurement.toJson());
 
         // Then
-        assertThat(result).isTrue();
+        assertThat(result).isEqualTo(measurement);
+        assertThat(result.getIce()).isTrue();
     }
-
 }
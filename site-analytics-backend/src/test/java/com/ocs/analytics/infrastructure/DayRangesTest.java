@@ -0,0 +1,43 @@
+package com.ocs.analytics.infrastructure;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DayRangesTest {
+
+    @Test
+    public void test_that_overlapping_and_adjacent_ranges_are_coalesced() {
+        // Given
+        DayRanges ranges = new DayRanges();
+
+        // When
+        ranges.add(10, 12);
+        ranges.add(20, 25);
+        ranges.add(13, 14);
+        ranges.add(30, 31);
+        ranges.add(24, 29);
+
+        // Then
+        assertThat(ranges.ranges()).containsExactly(new int[]{10, 14}, new int[]{20, 31});
+        assertThat(ranges.days()).isEqualTo(17);
+        assertThat(ranges.contains(14)).isTrue();
+        assertThat(ranges.contains(15)).isFalse();
+    }
+
+    @Test
+    public void test_that_the_missing_days_are_returned_as_gaps() {
+        // Given
+        HashSet<Integer> cached = new HashSet<>(Arrays.asList(2, 3, 4, 7, 10));
+
+        // When
+        DayRanges gaps = DayRanges.missing(cached, 1, 10);
+
+        // Then
+        assertThat(gaps.ranges()).containsExactly(new int[]{1, 1}, new int[]{5, 6}, new int[]{8, 9});
+        assertThat(DayRanges.missing(cached, 2, 4).isEmpty()).isTrue();
+    }
+}
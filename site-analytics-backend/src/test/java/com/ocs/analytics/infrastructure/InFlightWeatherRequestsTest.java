@@ -0,0 +1,160 @@
+package com.ocs.analytics.infrastructure;
+
+import com.ocs.analytics.domain.HistoricalParameters;
+import io.reactivex.observers.TestObserver;
+import io.reactivex.subjects.SingleSubject;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class InFlightWeatherRequestsTest {
+    // The responses of the requests by their window, completed by the test.
+    private final Map<HistoricalParameters, SingleSubject<List<WeatherDay>>> requests = new ConcurrentHashMap<>();
+    private final InFlightWeatherRequests instanceUnderTest = new InFlightWeatherRequests(window -> {
+        SingleSubject<List<WeatherDay>> response = SingleSubject.create();
+        this.requests.put(window, response);
+        return response;
+    });
+
+    @Test
+    public void test_that_concurrent_retrievals_of_overlapping_ranges_share_the_request_in_flight() {
+        // Given
+        HistoricalParameters january = HistoricalParameters.forWeatherMeasurement(2018, 1, 1, 2018, 1, 10, 0, 23);
+        HistoricalParameters overlap = HistoricalParameters.forWeatherMeasurement(2018, 1, 5, 2018, 1, 15, 3, 23);
+        int first = (int) LocalDate.of(2018, 1, 1).toEpochDay();
+
+        // When
+        TestObserver<WeatherDay> leader = this.instanceUnderTest
+                .retrieve(january, DayRanges.missing(new HashSet<>(), first, first + 9), 1, 10)
+                .test();
+        TestObserver<WeatherDay> follower = this.instanceUnderTest
+                .retrieve(overlap, DayRanges.missing(new HashSet<>(), first + 4, first + 14), 1, 10)
+                .test();
+
+        // Then
+        // The follower only requests the days after the request of the leader.
+        assertThat(this.requests).hasSize(2);
+        assertThat(this.requests.keySet()).extracting(HistoricalParameters::getStartDay).containsExactlyInAnyOrder(1, 11);
+        this.requests.forEach((window, response) -> response.onSuccess(this.days(window)));
+        leader.assertComplete();
+        follower.assertComplete();
+        assertThat(leader.values()).extracting(WeatherDay::epochDay).hasSize(10);
+        assertThat(follower.values()).extracting(WeatherDay::epochDay).containsExactlyInAnyOrder(first + 4,
+                first + 5, first + 6, first + 7, first + 8, first + 9, first + 10, first + 11, first + 12, first + 13,
+                first + 14);
+
+        // The completed requests are no longer shared.
+        this.instanceUnderTest
+                .retrieve(january, DayRanges.missing(new HashSet<>(), first, first), 1, 10)
+                .test();
+        assertThat(this.requests).hasSize(3);
+    }
+
+    @Test
+    public void test_that_a_request_that_does_not_cover_the_hours_of_a_day_is_not_shared() {
+        // Given
+        // The request in flight starts at 06:00 on the 5th of January.
+        HistoricalParameters late = HistoricalParameters.forWeatherMeasurement(2018, 1, 5, 2018, 1, 6, 5, 23);
+        HistoricalParameters early = HistoricalParameters.forWeatherMeasurement(2018, 1, 5, 2018, 1, 6, 0, 23);
+        int first = (int) LocalDate.of(2018, 1, 5).toEpochDay();
+        this.instanceUnderTest.retrieve(late, DayRanges.missing(new HashSet<>(), first, first + 1), 1, 10)
+                .test();
+
+        // When
+        this.instanceUnderTest.retrieve(early, DayRanges.missing(new HashSet<>(), first, first + 1), 1, 10)
+                .test();
+
+        // Then
+        assertThat(this.requests.keySet()).extracting(HistoricalParameters::getStartHour).containsExactlyInAnyOrder(6, 1);
+        assertThat(this.requests.keySet()).extracting(HistoricalParameters::getEndDay).containsExactlyInAnyOrder(6, 5);
+    }
+
+    @Test
+    public void test_that_the_requests_of_a_retrieval_that_is_disposed_halfway_are_forgotten() {
+        // Given
+        HistoricalParameters quarter = HistoricalParameters.forWeatherMeasurement(2018, 1, 1, 2018, 3, 31, 0, 23);
+        int first = (int) LocalDate.of(2018, 1, 1).toEpochDay();
+        int last = (int) LocalDate.of(2018, 3, 31).toEpochDay();
+        // A window per month, one at a time.
+        TestObserver<WeatherDay> retrieval = this.instanceUnderTest
+                .retrieve(quarter, DayRanges.missing(new HashSet<>(), first, last), 1, 1)
+                .test();
+        HistoricalParameters january = this.requests.keySet().iterator().next();
+        this.requests.get(january).onSuccess(this.days(january));
+        assertThat(retrieval.values()).hasSize(31);
+        assertThat(this.requests).hasSize(2);
+
+        // When
+        retrieval.dispose();
+
+        // Then
+        // Neither the window in flight nor the window that was never requested is waited for.
+        assertThat(this.instanceUnderTest.size()).isEqualTo(0);
+        this.instanceUnderTest
+                .retrieve(quarter, DayRanges.missing(new HashSet<>(), last, last), 1, 1)
+                .test();
+        assertThat(this.requests).hasSize(3);
+    }
+
+    @Test
+    public void test_that_the_windows_of_a_range_are_requested_in_order_and_at_most_parallelism_at_a_time() {
+        // Given
+        HistoricalParameters half = HistoricalParameters.forWeatherMeasurement(2018, 1, 10, 2018, 6, 20, 0, 23);
+        int first = (int) LocalDate.of(2018, 1, 10).toEpochDay();
+        int last = (int) LocalDate.of(2018, 6, 20).toEpochDay();
+
+        // When
+        // Windows of 2 months, of which 2 are requested concurrently.
+        TestObserver<WeatherDay> retrieval = this.instanceUnderTest
+                .retrieve(half, DayRanges.missing(new HashSet<>(), first, last), 2, 2)
+                .test();
+
+        // Then
+        assertThat(this.requests.keySet()).extracting(HistoricalParameters::getStartMonth).containsExactlyInAnyOrder(1, 3);
+        HistoricalParameters march = this.window(3);
+        this.requests.get(march).onSuccess(this.days(march));
+        // The next window is requested as soon as one of the windows in flight completes, in any order.
+        assertThat(this.requests.keySet()).extracting(HistoricalParameters::getStartMonth).containsExactlyInAnyOrder(1, 3, 5);
+        HistoricalParameters may = this.window(5);
+        HistoricalParameters january = this.window(1);
+        this.requests.get(may).onSuccess(this.days(may));
+        this.requests.get(january).onSuccess(this.days(january));
+        retrieval.assertComplete();
+        // The windows don't overlap and cover the range.
+        assertThat(january.getStartDay()).isEqualTo(10);
+        assertThat(may.getEndMonth()).isEqualTo(6);
+        assertThat(may.getEndDay()).isEqualTo(20);
+        assertThat(retrieval.values()).extracting(WeatherDay::epochDay).doesNotHaveDuplicates().hasSize(last - first + 1);
+    }
+
+    private HistoricalParameters window(int startMonth) {
+        return this.requests
+                .keySet()
+                .stream()
+                .filter(window -> window.getStartMonth() == startMonth)
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No window starts in month " + startMonth + "."));
+    }
+
+    // A complete day for every day of the window.
+    private List<WeatherDay> days(HistoricalParameters window) {
+        List<WeatherDay> days = new ArrayList<>();
+        for (LocalDate date = LocalDate.of(window.getStartYear(), window.getStartMonth(), window.getStartDay());
+             !date.isAfter(LocalDate.of(window.getEndYear(), window.getEndMonth(), window.getEndDay()));
+             date = date.plusDays(1)) {
+            WeatherDay day = new WeatherDay((int) date.toEpochDay());
+            for (int hour = 0; hour < 24; hour++) {
+                day.put(hour, hour);
+            }
+            days.add(day);
+        }
+        return days;
+    }
+}
@@ -0,0 +1,105 @@
+package com.ocs.analytics.infrastructure;
+
+import io.reactivex.Completable;
+import io.vertx.reactivex.core.Vertx;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class WeatherCacheTest {
+    private static final String STATION = "260";
+    private Vertx vertx;
+    private Path directory;
+
+    @BeforeEach
+    public void init() throws IOException {
+        this.vertx = Vertx.vertx();
+        this.directory = Files.createTempDirectory("weather-cache");
+    }
+
+    @AfterEach
+    public void cleanup() throws IOException {
+        this.vertx.close();
+        try (Stream<Path> paths = Files.walk(this.directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    public void test_that_complete_days_are_read_from_disk_by_a_new_cache() {
+        // Given
+        int first = (int) LocalDate.of(2018, 1, 30).toEpochDay();
+        WeatherCache cache = new WeatherCache(this.vertx, 10, this.directory.toString());
+        cache.put(STATION, Arrays.asList(this.day(first, 24), this.day(first + 1, 24), this.day(first + 2, 23)))
+                .blockingAwait(5, TimeUnit.SECONDS);
+
+        // When
+        WeatherCache restarted = new WeatherCache(this.vertx, 10, this.directory.toString());
+        TreeMap<Integer, WeatherDay> days = restarted.find(STATION, first - 1, first + 2).blockingGet();
+
+        // Then
+        // The last day was not complete, so it was not cached.
+        assertThat(days.keySet()).containsExactly(first, first + 1);
+        assertThat(days.get(first + 1).get(23)).isEqualTo(first + 1 + 23L);
+        assertThat(restarted.find("280", first, first).blockingGet()).isEmpty();
+    }
+
+    @Test
+    public void test_that_concurrent_writes_of_the_same_month_keep_the_days_of_both() throws IOException {
+        // Given
+        int first = (int) LocalDate.of(2018, 3, 1).toEpochDay();
+        WeatherCache cache = new WeatherCache(this.vertx, 10, this.directory.toString());
+
+        // When
+        Completable.merge(Arrays.asList(
+                cache.put(STATION, Arrays.asList(this.day(first, 24))),
+                cache.put(STATION, Arrays.asList(this.day(first + 1, 24))),
+                cache.put(STATION, Arrays.asList(this.day(first + 2, 24)))))
+                .blockingAwait(5, TimeUnit.SECONDS);
+
+        // Then
+        WeatherCache restarted = new WeatherCache(this.vertx, 10, this.directory.toString());
+        assertThat(restarted.find(STATION, first, first + 2).blockingGet().keySet())
+                .containsExactly(first, first + 1, first + 2);
+        // Only the file of the month is left, the temporary files have been moved.
+        try (Stream<Path> files = Files.list(this.directory.resolve(STATION))) {
+            assertThat(files.map(path -> path.getFileName().toString())).containsExactly("201803.bin");
+        }
+    }
+
+    @Test
+    public void test_that_the_least_recently_used_days_are_evicted_from_memory() {
+        // Given
+        int first = (int) LocalDate.of(2018, 1, 1).toEpochDay();
+        WeatherCache cache = new WeatherCache(this.vertx, 2, null);
+        cache.put(STATION, Arrays.asList(this.day(first, 24), this.day(first + 1, 24))).blockingAwait();
+
+        // When
+        cache.find(STATION, first, first).blockingGet();
+        cache.put(STATION, Arrays.asList(this.day(first + 2, 24))).blockingAwait();
+
+        // Then
+        assertThat(cache.find(STATION, first, first + 2).blockingGet().keySet()).containsExactly(first, first + 2);
+    }
+
+    // A day with measurements for the given amount of hours, the measurement of an hour is the epoch day + hour.
+    private WeatherDay day(int epochDay, int hours) {
+        WeatherDay day = new WeatherDay(epochDay);
+        for (int hour = 0; hour < hours; hour++) {
+            day.put(hour, epochDay + hour);
+        }
+        return day;
+    }
+}
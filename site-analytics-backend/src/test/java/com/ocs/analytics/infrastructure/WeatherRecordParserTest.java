@@ -0,0 +1,139 @@
+package com.ocs.analytics.infrastructure;
+
+import com.ocs.analytics.domain.WeatherMeasurement;
+import io.vertx.core.buffer.Buffer;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class WeatherRecordParserTest {
+    // This is how a response of the KNMI looks (including whitespaces), a header followed by the records.
+    private static final String RESPONSE = "BRON: KONINKLIJK NEDERLANDS METEOROLOGISCH INSTITUUT (KNMI)\r\n" +
+            "# STN,YYYYMMDD,   HH,    T,   SQ,   DR,   RH,    N,    U,    M,    R,    S,    O,    Y\r\n" +
+            "\r\n" +
+            "  260,20180101,    1,   85,    0,    0,    0,    8,   73,    0,    0,    0,    0,    0\r\n" +
+            "  260,20180101,    2,  -12,    3,    2,   -1,    0,   83,    1,    1,    0,    1,    1\r\n" +
+            "  260,20180102,   24,   10,    0,    0,    0,    8,   73,    0,    1,    0,    0,    0";
+
+    @Test
+    public void test_that_the_records_of_a_response_in_chunks_are_parsed_into_days() {
+        // Given
+        WeatherRecordParser parser = new WeatherRecordParser();
+
+        // When
+        // Chunks of 7 bytes, so that lines and numbers are split over chunks.
+        for (int i = 0; i < RESPONSE.length(); i += 7) {
+            parser.write(Buffer.buffer(RESPONSE.substring(i, Math.min(i + 7, RESPONSE.length()))));
+        }
+        parser.end();
+
+        // Then
+        List<WeatherDay> days = parser.days();
+        assertThat(parser.records()).isEqualTo(3);
+        assertThat(days).extracting(WeatherDay::epochDay).containsExactly(
+                (int) LocalDate.of(2018, 1, 1).toEpochDay(), (int) LocalDate.of(2018, 1, 2).toEpochDay());
+        assertThat(days.get(0).get(0)).isEqualTo(WeatherMeasurement.pack(85, 0, 0, 73, false, false, false, false,
+                false, 0, 8));
+        WeatherMeasurement second = WeatherMeasurement.ofPacked(days.get(0).get(1));
+        assertThat(second.getTemperature()).isEqualTo(-12);
+        assertThat(second.getSumPrec()).isEqualTo(-1);
+        assertThat(second.getClouds()).isEqualTo(0);
+        assertThat(second.getRain()).isTrue();
+        assertThat(second.getThunder()).isTrue();
+        assertThat(WeatherMeasurement.ofPacked(days.get(1).get(23)).getTemperature()).isEqualTo(10);
+    }
+
+    @Test
+    public void test_that_the_values_of_a_record_are_read_into_its_measurement() {
+        // Given
+        WeatherRecordParser parser = new WeatherRecordParser();
+
+        // When
+        parser.write(Buffer.buffer("260,20180101,1,85,0,0,0,8,73,0,0,0,0,0\n"));
+        parser.write(Buffer.buffer("260,20180405,9,55,0,0,-1,8,83,0,1,0,0,0\n"));
+        parser.end();
+
+        // Then
+        assertThat(parser.records()).isEqualTo(2);
+        WeatherMeasurement first = WeatherMeasurement.ofPacked(parser.days().get(0).get(0));
+        assertThat(first.getDurPrec()).isEqualTo(0);
+        assertThat(first.getHumPerc()).isEqualTo(73);
+        assertThat(first.getTemperature()).isEqualTo(85);
+        assertThat(first.getSun()).isEqualTo(0);
+        assertThat(first.getRain()).isFalse();
+        assertThat(first.getSnow()).isFalse();
+        assertThat(first.getSumPrec()).isEqualTo(0);
+        assertThat(first.getClouds()).isEqualTo(8);
+        assertThat(first.getFog()).isFalse();
+        assertThat(first.getThunder()).isFalse();
+        assertThat(first.getIce()).isFalse();
+        WeatherMeasurement negative = WeatherMeasurement.ofPacked(parser.days().get(1).get(8));
+        assertThat(negative.getDurPrec()).isEqualTo(0);
+        assertThat(negative.getHumPerc()).isEqualTo(83);
+        assertThat(negative.getTemperature()).isEqualTo(55);
+        assertThat(negative.getRain()).isTrue();
+        assertThat(negative.getSumPrec()).isEqualTo(-1);
+        assertThat(negative.getClouds()).isEqualTo(8);
+    }
+
+    @Test
+    public void test_that_a_record_that_is_not_in_order_of_date_is_parsed_into_a_day_of_its_own() {
+        // Given
+        WeatherRecordParser parser = new WeatherRecordParser();
+
+        // When
+        parser.write(Buffer.buffer("260,20180101,1,85,0,0,0,8,73,0,0,0,0,0\n" +
+                "260,20180102,24,-12,0,0,0,8,73,0,1,0,0,0\n" +
+                "260,20180101,24,10,0,0,0,8,73,0,1,0,0,0\n"));
+        parser.end();
+
+        // Then
+        int first = (int) LocalDate.of(2018, 1, 1).toEpochDay();
+        assertThat(parser.records()).isEqualTo(3);
+        assertThat(parser.days()).extracting(WeatherDay::epochDay).containsExactly(first, first + 1, first);
+        assertThat(WeatherMeasurement.ofPacked(parser.days().get(1).get(23)).getTemperature()).isEqualTo(-12);
+        assertThat(WeatherMeasurement.ofPacked(parser.days().get(2).get(23)).getTemperature()).isEqualTo(10);
+    }
+
+    @Test
+    public void test_that_a_record_with_a_missing_value_is_skipped_so_its_day_is_not_complete() {
+        // Given
+        WeatherRecordParser parser = new WeatherRecordParser();
+        StringBuilder response = new StringBuilder();
+        for (int hour = 1; hour <= 24; hour++) {
+            // The clouds of the 12th hour haven't been measured.
+            response.append("260,20180101,").append(hour).append(",85,0,0,0,").append(hour == 12 ? "" : "8")
+                    .append(",73,0,0,0,0,0\n");
+        }
+
+        // When
+        parser.write(Buffer.buffer(response.toString()));
+        parser.end();
+
+        // Then
+        assertThat(parser.records()).isEqualTo(23);
+        assertThat(parser.incomplete()).isEqualTo(1);
+        assertThat(parser.days()).hasSize(1);
+        assertThat(parser.days().get(0).isComplete()).isFalse();
+        assertThat(parser.days().get(0).get(11)).isEqualTo(0L);
+    }
+
+    @Test
+    public void test_that_a_record_with_an_invalid_hour_fails_the_parser() {
+        // Given
+        WeatherRecordParser parser = new WeatherRecordParser();
+        Throwable[] failure = new Throwable[1];
+        parser.exceptionHandler(throwable -> failure[0] = throwable);
+
+        // When
+        parser.write(Buffer.buffer("260,20180101,25,10,0,0,0,8,73,0,1,0,0,0\n"));
+
+        // Then
+        assertThat(failure[0]).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(parser::days).isInstanceOf(IllegalArgumentException.class);
+    }
+}